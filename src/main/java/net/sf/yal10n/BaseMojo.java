@@ -14,6 +14,16 @@ package net.sf.yal10n;
  * limitations under the License.
  */
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import net.sf.yal10n.analyzer.AnalysisCache;
 import net.sf.yal10n.analyzer.ResourceAnalyzer;
 import net.sf.yal10n.settings.DashboardConfiguration;
 import net.sf.yal10n.settings.Repository;
@@ -21,8 +31,10 @@ import net.sf.yal10n.status.DetectChangesStatus;
 import net.sf.yal10n.status.RepoStatus;
 import net.sf.yal10n.svn.RepositoryUtil;
 import net.sf.yal10n.svn.SVNUtil;
+import net.sf.yal10n.svn.SparseCheckout;
 
 import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.codehaus.plexus.util.FileUtils;
@@ -44,12 +56,28 @@ public abstract class BaseMojo extends AbstractMojo
     @Parameter( required = true, property = "yal10n.outputDirectory", defaultValue = "target" )
     protected String outputDirectory;
 
+    /**
+     * The number of repositories, that are checked out concurrently. If not set, the value
+     * from the settings file is used.
+     */
+    @Parameter( property = "yal10n.checkoutThreads", defaultValue = "0" )
+    protected int checkoutThreads;
+
+    /**
+     * The directory, where the analysis results of the messages files are cached. It should not be
+     * inside the output directory, as it is not meant to be published.
+     */
+    @Parameter( property = "yal10n.analysisCacheDirectory", defaultValue = "target/yal10n-analysis-cache" )
+    protected String analysisCacheDirectory;
+
     /** The svn utility to do checkouts. */
     @Component
     protected SVNUtil svn;
     /** The analyzer that finds resource bundles. */
     @Component
     protected ResourceAnalyzer analyzer;
+    /** The analysis cache of the current run, if enabled. */
+    private AnalysisCache analysisCache;
 
     /**
      * Instantiates a new base mojo.
@@ -79,42 +107,244 @@ public abstract class BaseMojo extends AbstractMojo
         this.outputDirectory = outputDirectory;
     }
 
+    /**
+     * Sets the directory of the analysis cache.
+     *
+     * @param analysisCacheDirectory the directory, where the analysis results are cached
+     */
+    public void setAnalysisCacheDirectory( String analysisCacheDirectory )
+    {
+        this.analysisCacheDirectory = analysisCacheDirectory;
+    }
+
+    /**
+     * Sets the number of concurrent checkouts. Overrides the value from the settings file.
+     *
+     * @param checkoutThreads the number of concurrent checkouts
+     */
+    public void setCheckoutThreads( int checkoutThreads )
+    {
+        this.checkoutThreads = checkoutThreads;
+    }
+
+    /**
+     * Releases the resources of the run: the repositories, that are read in-process, are closed and
+     * the usage of the analysis cache entries is stored.
+     */
+    protected void close()
+    {
+        svn.close();
+        if ( analysisCache != null )
+        {
+            analysisCache.close();
+            analysisCache = null;
+        }
+    }
+
     /**
      * Performs the svn checkout and collects the new revision status.
+     * If more than one checkout thread is configured, the repositories are checked out
+     * concurrently, but analyzed one after another in the order of the configuration.
+     *
      * @param config the configuration with all the repositories
      * @param newStatus the new status. Can be <code>null</code>.
      */
     protected void checkout( DashboardConfiguration config, DetectChangesStatus newStatus )
     {
-        int repoNumber = 0;
-        for ( Repository repo : config.getRepositories() )
-        {
-            repoNumber++;
-            getLog().debug( repoNumber + " url: " + repo.getUrl() );
-
-            String svnUrl = RepositoryUtil.getSvnUrl( config, repo );
-            String repoId = SVNUtil.toRepoId( config.getRepoPrefix(), repo.getUrl() );
+        checkout( config, null, newStatus );
+    }
 
-            String dstPath = FileUtils.normalize( outputDirectory + "/checkouts/" + repoId + "/" );
-            if ( offline )
+    /**
+     * Performs the svn checkout and collects the new revision status.
+     * If {@link DashboardConfiguration#isSkipUnchangedRepositories()} is enabled, the remote
+     * revision of each repository is compared with the previous status first. Unchanged repositories
+     * are neither checked out nor analyzed, their previous status is just taken over.
+     *
+     * @param config the configuration with all the repositories
+     * @param previousStatus the status of the previous run. Can be <code>null</code>.
+     * @param newStatus the new status. Can be <code>null</code>.
+     */
+    protected void checkout( DashboardConfiguration config, DetectChangesStatus previousStatus,
+            DetectChangesStatus newStatus )
+    {
+        svn.setInProcessGit( config.isInProcessGit() );
+        if ( config.getAnalysisCacheSize() > 0 && analysisCacheDirectory != null )
+        {
+            analysisCache = new AnalysisCache( new File( analysisCacheDirectory ), config.getAnalysisCacheSize(),
+                    DashboardMojo.getVersion() );
+            analyzer.setAnalysisCache( analysisCache );
+        }
+        int threads = checkoutThreads > 0 ? checkoutThreads : config.getCheckoutThreads();
+        ExecutorService executor = null;
+        List<Future<String>> checkouts = new ArrayList<Future<String>>();
+        if ( !offline && threads > 1 )
+        {
+            getLog().info( "Checking out with " + threads + " threads" );
+            executor = Executors.newFixedThreadPool( threads );
+            for ( Repository repo : config.getRepositories() )
             {
-                getLog().info( "Offline mode - not updating repo: " + svnUrl );
+                checkouts.add( executor.submit( new CheckoutTask( getLog(), config, repo,
+                        getPreviousRevision( config, previousStatus, repo ), true ) ) );
             }
-            else
+        }
+
+        try
+        {
+            int repoNumber = 0;
+            for ( Repository repo : config.getRepositories() )
             {
-                String revision = svn.checkout( getLog(), repo.getType(), svnUrl, dstPath );
+                repoNumber++;
+                getLog().debug( repoNumber + " url: " + repo.getUrl() );
+
+                String svnUrl = RepositoryUtil.getSvnUrl( config, repo );
+                String repoId = SVNUtil.toRepoId( config.getRepoPrefix(), repo.getUrl() );
 
-                if ( newStatus != null )
+                String dstPath = getCheckoutPath( repoId );
+                if ( offline )
                 {
-                    RepoStatus status = new RepoStatus();
-                    status.setId( repoId );
-                    status.setRevision( revision );
-                    status.setCompleteRepoUrl( svnUrl );
-                    newStatus.getRepos().add( status );
+                    getLog().info( "Offline mode - not updating repo: " + svnUrl );
                 }
+                else
+                {
+                    String revision;
+                    if ( executor != null )
+                    {
+                        revision = waitFor( checkouts.get( repoNumber - 1 ) );
+                    }
+                    else
+                    {
+                        revision = new CheckoutTask( getLog(), config, repo,
+                                getPreviousRevision( config, previousStatus, repo ), false ).call();
+                    }
+
+                    boolean unchanged = revision == null;
+                    if ( unchanged )
+                    {
+                        revision = previousStatus.getRepoStatusById( repoId ).getRevision();
+                        getLog().info( "Repository " + svnUrl + " has not been changed since revision " + revision
+                                + " - skipping" );
+                    }
+
+                    if ( newStatus != null )
+                    {
+                        RepoStatus status = new RepoStatus();
+                        status.setId( repoId );
+                        status.setRevision( revision );
+                        status.setCompleteRepoUrl( svnUrl );
+                        newStatus.getRepos().add( status );
+                    }
+
+                    if ( unchanged )
+                    {
+                        continue;
+                    }
+                }
+
+                analyzer.analyze( getLog(), svnUrl, dstPath, config, repo, repoId );
+            }
+        }
+        finally
+        {
+            if ( executor != null )
+            {
+                executor.shutdownNow();
             }
+        }
+    }
 
-            analyzer.analyze( getLog(), svnUrl, dstPath, config, repo, repoId );
+    /**
+     * Gets the revision of the repository from the previous run, if unchanged repositories
+     * should be skipped.
+     * @return the previous revision or <code>null</code>, if the repository needs to be checked out anyway
+     */
+    private static String getPreviousRevision( DashboardConfiguration config, DetectChangesStatus previousStatus,
+            Repository repo )
+    {
+        if ( previousStatus == null || !config.isSkipUnchangedRepositories() )
+        {
+            return null;
+        }
+        RepoStatus previous = previousStatus.getRepoStatusById( SVNUtil.toRepoId( config.getRepoPrefix(),
+                repo.getUrl() ) );
+        return previous == null ? null : previous.getRevision();
+    }
+
+    private String getCheckoutPath( String repoId )
+    {
+        return FileUtils.normalize( outputDirectory + "/checkouts/" + repoId + "/" );
+    }
+
+    private static String waitFor( Future<String> checkout )
+    {
+        try
+        {
+            return checkout.get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException( e );
+        }
+        catch ( ExecutionException e )
+        {
+            if ( e.getCause() instanceof RuntimeException )
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException( e.getCause() );
+        }
+    }
+
+    /**
+     * Checks out a single repository, unless it has not been changed since the previous revision.
+     * Returns the new revision or <code>null</code>, if the repository has not been changed.
+     * Optionally the messages files are searched right after the checkout, so that the directories
+     * of several repositories are scanned concurrently by the checkout threads.
+     */
+    private class CheckoutTask implements Callable<String>
+    {
+        private final Log log;
+        private final Repository repo;
+        private final String svnUrl;
+        private final SparseCheckout sparse;
+        private final String dstPath;
+        private final String previousRevision;
+        private final boolean mirror;
+        private final DashboardConfiguration config;
+        private final boolean scan;
+
+        CheckoutTask( Log log, DashboardConfiguration config, Repository repo, String previousRevision,
+                boolean scan )
+        {
+            this.previousRevision = previousRevision;
+            this.config = config;
+            this.scan = scan;
+            this.mirror = RepositoryUtil.isBareGitMirror( config, repo );
+            this.log = log;
+            this.repo = repo;
+            this.svnUrl = RepositoryUtil.getSvnUrl( config, repo );
+            this.sparse = RepositoryUtil.getSparseCheckout( config, repo );
+            this.dstPath = getCheckoutPath( SVNUtil.toRepoId( config.getRepoPrefix(), repo.getUrl() ) );
+        }
+
+        @Override
+        public String call()
+        {
+            if ( previousRevision != null
+                    && svn.isUpToDate( log, repo.getType(), svnUrl, repo.getTag(), previousRevision ) )
+            {
+                return null;
+            }
+            if ( mirror )
+            {
+                return svn.mirror( log, svnUrl, repo.getTag(), dstPath );
+            }
+            String revision = svn.checkout( log, repo.getType(), svnUrl, repo.getTag(), sparse, dstPath );
+            if ( scan )
+            {
+                analyzer.scan( dstPath, config, repo );
+            }
+            return revision;
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,177 @@
+package net.sf.yal10n;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Collects the log messages of a task running in another thread, so that they can be written
+ * to the real log later together and in the order of the tasks.
+ */
+class BufferedLog implements Log
+{
+    private static final int DEBUG = 0;
+    private static final int INFO = 1;
+    private static final int WARN = 2;
+    private static final int ERROR = 3;
+
+    private final Log log;
+    private final List<Object[]> messages = new ArrayList<Object[]>();
+
+    /**
+     * Creates a new buffer for the given log.
+     *
+     * @param log the log, that receives the messages later and decides, which levels are enabled
+     */
+    BufferedLog( Log log )
+    {
+        this.log = log;
+    }
+
+    /**
+     * Writes all collected messages to the real log.
+     */
+    synchronized void flush()
+    {
+        for ( Object[] message : messages )
+        {
+            write( (Integer) message[0], (CharSequence) message[1], (Throwable) message[2] );
+        }
+        messages.clear();
+    }
+
+    private void write( int level, CharSequence content, Throwable error )
+    {
+        switch ( level )
+        {
+            case DEBUG:
+                log.debug( content, error );
+                break;
+            case INFO:
+                log.info( content, error );
+                break;
+            case WARN:
+                log.warn( content, error );
+                break;
+            default:
+                log.error( content, error );
+                break;
+        }
+    }
+
+    private synchronized void add( int level, CharSequence content, Throwable error )
+    {
+        messages.add( new Object[] { level, content, error } );
+    }
+
+    @Override
+    public boolean isDebugEnabled()
+    {
+        return log.isDebugEnabled();
+    }
+
+    @Override
+    public void debug( CharSequence content )
+    {
+        add( DEBUG, content, null );
+    }
+
+    @Override
+    public void debug( CharSequence content, Throwable error )
+    {
+        add( DEBUG, content, error );
+    }
+
+    @Override
+    public void debug( Throwable error )
+    {
+        add( DEBUG, null, error );
+    }
+
+    @Override
+    public boolean isInfoEnabled()
+    {
+        return log.isInfoEnabled();
+    }
+
+    @Override
+    public void info( CharSequence content )
+    {
+        add( INFO, content, null );
+    }
+
+    @Override
+    public void info( CharSequence content, Throwable error )
+    {
+        add( INFO, content, error );
+    }
+
+    @Override
+    public void info( Throwable error )
+    {
+        add( INFO, null, error );
+    }
+
+    @Override
+    public boolean isWarnEnabled()
+    {
+        return log.isWarnEnabled();
+    }
+
+    @Override
+    public void warn( CharSequence content )
+    {
+        add( WARN, content, null );
+    }
+
+    @Override
+    public void warn( CharSequence content, Throwable error )
+    {
+        add( WARN, content, error );
+    }
+
+    @Override
+    public void warn( Throwable error )
+    {
+        add( WARN, null, error );
+    }
+
+    @Override
+    public boolean isErrorEnabled()
+    {
+        return log.isErrorEnabled();
+    }
+
+    @Override
+    public void error( CharSequence content )
+    {
+        add( ERROR, content, null );
+    }
+
+    @Override
+    public void error( CharSequence content, Throwable error )
+    {
+        add( ERROR, content, error );
+    }
+
+    @Override
+    public void error( Throwable error )
+    {
+        add( ERROR, null, error );
+    }
+}
@@ -15,26 +15,44 @@ package net.sf.yal10n;
  */
 
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import net.sf.yal10n.analyzer.ResourceAnalyzer;
 import net.sf.yal10n.analyzer.ResourceBundle;
+import net.sf.yal10n.analyzer.ResourceFile;
 import net.sf.yal10n.dashboard.DashboardModel;
 import net.sf.yal10n.dashboard.DashboardRenderer;
+import net.sf.yal10n.dashboard.LanguageModel;
 import net.sf.yal10n.report.ReportRenderer;
 import net.sf.yal10n.settings.DashboardConfiguration;
+import net.sf.yal10n.status.AnalysisSnapshot;
+import net.sf.yal10n.status.DetectChangesStatus;
+import net.sf.yal10n.status.RepoStatus;
 import net.sf.yal10n.svn.SVNUtil;
 import net.sf.yal10n.tmx.TranslationMemoryRenderer;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
 import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.IOUtil;
 import org.webjars.WebJarExtractor;
@@ -47,6 +65,14 @@ public class DashboardMojo extends BaseMojo
 {
     private static final String GROUP_ID = "net.sf.yal10n";
     private static final String ARTIFACT_ID = "yal10n-maven-plugin";
+    private static final int HEX_RADIX = 16;
+
+    /**
+     * The directory, where the analysis results of each repository are stored for the next run.
+     * It should not be inside the output directory, as it is not meant to be published.
+     */
+    @Parameter( property = "yal10n.snapshotDirectory", defaultValue = "target/yal10n-snapshots" )
+    private String snapshotDirectory;
 
     /** The dashboard renderer. */
     @Component
@@ -85,46 +111,265 @@ public class DashboardMojo extends BaseMojo
         this.tmxRenderer = tmxRenderer;
     }
 
+    /**
+     * Sets the directory, where the analysis results are stored for the next run.
+     *
+     * @param snapshotDirectory the snapshot directory
+     */
+    public void setSnapshotDirectory( String snapshotDirectory )
+    {
+        this.snapshotDirectory = snapshotDirectory;
+    }
+
     /**
      * {@inheritDoc}
      */
     public final void execute() throws MojoExecutionException,
         MojoFailureException
+    {
+        try
+        {
+            createDashboard();
+        }
+        finally
+        {
+            close();
+        }
+    }
+
+    private void createDashboard() throws MojoExecutionException
     {
         DashboardConfiguration config = DashboardConfiguration.readFromFile( yal10nSettings );
 
-        checkout( config, null );
+        DetectChangesStatus status = new DetectChangesStatus();
+        checkout( config, status );
 
         List<ResourceBundle> bundles = analyzer.getBundles();
         getLog().info( "Found " + bundles.size() + " bundles:" );
 
+        boolean reuseAnalysis = config.isReuseAnalysis() && snapshotDirectory != null;
+        String settingsChecksum = null;
+        if ( reuseAnalysis )
+        {
+            settingsChecksum = getSettingsChecksum();
+            restoreAnalysis( config, status, bundles, settingsChecksum );
+        }
+        analyzer.preload( getLog(), bundles, config.getAnalysisThreads() );
+
+        dashboardRenderer.setCompiled( config.isCompiledTemplates() );
+        reportRenderer.setCompiled( config.isCompiledTemplates() );
         dashboardRenderer.render( DashboardModel.create( getLog(), config, bundles ), outputDirectory );
         if ( !reportRenderer.prepareOutputDirectory( outputDirectory ) )
         {
             throw new MojoExecutionException( "Couldn't create directory: " + reportRenderer.getReportDirectory() );
         }
-        for ( ResourceBundle bundle : bundles )
-        {
-            getLog().info( "  " + bundle.getLocaleBasePath() );
-            reportRenderer.render( bundle.getReport( getLog() ), outputDirectory );
-        }
-        
         if ( config.isCreateTMX() )
         {
             tmxRenderer.render( bundles, outputDirectory );
-            for ( ResourceBundle bundle : bundles )
-            {
-                tmxRenderer.render( getLog(), bundle, outputDirectory, config.getChecks().getIncludeVariants() );
-            }
         }
         else
         {
             getLog().info( "Skipping TMX creation." );
         }
+        renderBundles( config, bundles );
+
+        if ( reuseAnalysis )
+        {
+            saveAnalysis( config, status, bundles, settingsChecksum );
+        }
 
         copyWebResources();
     }
 
+    /**
+     * Renders the report and the tmx file of each bundle. With several threads, the bundles are rendered
+     * concurrently. The log messages of each bundle are written together and in the order of the bundles.
+     * The first failure stops the rendering.
+     */
+    private void renderBundles( final DashboardConfiguration config, final List<ResourceBundle> bundles )
+    {
+        int threads = Math.min( config.getRenderThreads(), bundles.size() );
+        if ( threads <= 1 )
+        {
+            for ( ResourceBundle bundle : bundles )
+            {
+                getLog().info( "  " + bundle.getLocaleBasePath() );
+                renderBundle( getLog(), config, bundle );
+            }
+            return;
+        }
+
+        getLog().info( "Rendering " + bundles.size() + " bundles with " + threads + " threads" );
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try
+        {
+            CompletionService<Integer> renderings = new ExecutorCompletionService<Integer>( executor );
+            final BufferedLog[] logs = new BufferedLog[bundles.size()];
+            for ( int i = 0; i < bundles.size(); i++ )
+            {
+                final int index = i;
+                logs[index] = new BufferedLog( getLog() );
+                renderings.submit( new Callable<Integer>()
+                {
+                    @Override
+                    public Integer call()
+                    {
+                        renderBundle( logs[index], config, bundles.get( index ) );
+                        return index;
+                    }
+                } );
+            }
+            boolean[] rendered = new boolean[bundles.size()];
+            int logged = 0;
+            for ( int i = 0; i < bundles.size(); i++ )
+            {
+                rendered[renderings.take().get()] = true;
+                while ( logged < rendered.length && rendered[logged] )
+                {
+                    getLog().info( "  " + bundles.get( logged ).getLocaleBasePath() );
+                    logs[logged].flush();
+                    logged++;
+                }
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException( e );
+        }
+        catch ( ExecutionException e )
+        {
+            if ( e.getCause() instanceof RuntimeException )
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException( e.getCause() );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private void renderBundle( Log log, DashboardConfiguration config, ResourceBundle bundle )
+    {
+        reportRenderer.render( bundle.getReport( log ), outputDirectory );
+        if ( config.isCreateTMX() )
+        {
+            tmxRenderer.render( log, bundle, outputDirectory, config.getChecks().getIncludeVariants() );
+        }
+    }
+
+    /**
+     * Uses the analysis results of the last run for all repositories, whose revision didn't change.
+     */
+    private void restoreAnalysis( DashboardConfiguration config, DetectChangesStatus status,
+            List<ResourceBundle> bundles, String settingsChecksum )
+    {
+        Map<String, List<ResourceBundle>> bundlesByRepo = groupByRepo( bundles );
+        for ( RepoStatus repoStatus : status.getRepos() )
+        {
+            AnalysisSnapshot snapshot = AnalysisSnapshot.readFromFile( getSnapshotPath( repoStatus.getId() ) );
+            if ( snapshot == null
+                    || !snapshot.isUpToDate( repoStatus.getRevision(), getVersion(), settingsChecksum )
+                    || !bundlesByRepo.containsKey( repoStatus.getId() ) )
+            {
+                continue;
+            }
+
+            getLog().info( "Reusing analysis of " + repoStatus.getCompleteRepoUrl() + " at revision "
+                    + repoStatus.getRevision() );
+            for ( ResourceBundle bundle : bundlesByRepo.get( repoStatus.getId() ) )
+            {
+                for ( ResourceFile file : bundle.getFiles() )
+                {
+                    LanguageModel model = snapshot.getLanguageModels().get( toSnapshotKey( file ) );
+                    if ( model != null )
+                    {
+                        file.setLanguageModel( model, config.getChecks() );
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Stores the analysis results of all repositories for the next run.
+     */
+    private void saveAnalysis( DashboardConfiguration config, DetectChangesStatus status,
+            List<ResourceBundle> bundles, String settingsChecksum )
+    {
+        Map<String, List<ResourceBundle>> bundlesByRepo = groupByRepo( bundles );
+        for ( RepoStatus repoStatus : status.getRepos() )
+        {
+            AnalysisSnapshot snapshot = new AnalysisSnapshot();
+            snapshot.setRevision( repoStatus.getRevision() );
+            snapshot.setVersion( getVersion() );
+            snapshot.setSettingsChecksum( settingsChecksum );
+            if ( bundlesByRepo.containsKey( repoStatus.getId() ) )
+            {
+                for ( ResourceBundle bundle : bundlesByRepo.get( repoStatus.getId() ) )
+                {
+                    for ( ResourceFile file : bundle.getFiles() )
+                    {
+                        snapshot.getLanguageModels().put( toSnapshotKey( file ),
+                                file.toLanguageModel( getLog(), config.getChecks() ) );
+                    }
+                }
+            }
+            snapshot.writeToFile( getSnapshotPath( repoStatus.getId() ) );
+        }
+    }
+
+    private static Map<String, List<ResourceBundle>> groupByRepo( List<ResourceBundle> bundles )
+    {
+        Map<String, List<ResourceBundle>> result = new HashMap<String, List<ResourceBundle>>();
+        for ( ResourceBundle bundle : bundles )
+        {
+            List<ResourceBundle> repoBundles = result.get( bundle.getRepoId() );
+            if ( repoBundles == null )
+            {
+                repoBundles = new ArrayList<ResourceBundle>();
+                result.put( bundle.getRepoId(), repoBundles );
+            }
+            repoBundles.add( bundle );
+        }
+        return result;
+    }
+
+    private static String toSnapshotKey( ResourceFile file )
+    {
+        return file.getRelativeFilePath().replace( '\\', '/' );
+    }
+
+    private String getSnapshotPath( String repoId )
+    {
+        return FileUtils.normalize( snapshotDirectory + "/" + repoId + ".json" );
+    }
+
+    /**
+     * Calculates a checksum of the settings file, so that any change in the configuration
+     * makes the stored analysis results invalid.
+     */
+    private String getSettingsChecksum()
+    {
+        try
+        {
+            MessageDigest digest = MessageDigest.getInstance( "MD5" );
+            byte[] hash = digest.digest( FileUtils.fileRead( new File( yal10nSettings ), "UTF-8" )
+                    .getBytes( "UTF-8" ) );
+            return new BigInteger( 1, hash ).toString( HEX_RADIX );
+        }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( e );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
+
     /**
      * Copies the required resources for the html pages. This includes all stylesheets and
      * javascript frameworks.
@@ -132,11 +377,12 @@ public class DashboardMojo extends BaseMojo
      */
     private void copyWebResources() throws MojoExecutionException
     {
-        OutputStream theme = null;
+        InputStream theme = null;
         try
         {
-            theme = new FileOutputStream( FileUtils.normalize( outputDirectory + "/default.css" ) );
-            IOUtil.copy( DashboardMojo.class.getResourceAsStream( "/themes/default.css" ), theme );
+            theme = DashboardMojo.class.getResourceAsStream( "/themes/default.css" );
+            ReplaceIfChangedOutputStream.copy( theme, new File( FileUtils.normalize( outputDirectory
+                    + "/default.css" ) ) );
         }
         catch ( IOException e )
         {
@@ -147,15 +393,58 @@ public class DashboardMojo extends BaseMojo
             IOUtil.close( theme );
         }
 
-        WebJarExtractor extractor = new WebJarExtractor();
+        // the webjars are extracted somewhere else first, only changed files are copied
+        File extracted = null;
         try
         {
-            extractor.extractAllWebJarsTo( new File( FileUtils.normalize( outputDirectory + "/webjars" ) ) );
+            extracted = File.createTempFile( "yal10n-webjars", "" );
+            if ( !extracted.delete() || !extracted.mkdir() )
+            {
+                throw new IOException( "Couldn't create directory " + extracted );
+            }
+            new WebJarExtractor().extractAllWebJarsTo( extracted );
+            File webjars = new File( FileUtils.normalize( outputDirectory + "/webjars" ) );
+            for ( Object file : FileUtils.getFileNames( extracted, "**", null, false ) )
+            {
+                copyIfChanged( new File( extracted, (String) file ), new File( webjars, (String) file ) );
+            }
         }
         catch ( IOException e )
         {
             throw new MojoExecutionException( "Couldn't extract webjars", e );
         }
+        finally
+        {
+            if ( extracted != null )
+            {
+                deleteQuietly( extracted );
+            }
+        }
+    }
+
+    private static void copyIfChanged( File source, File destination ) throws IOException
+    {
+        InputStream in = new FileInputStream( source );
+        try
+        {
+            ReplaceIfChangedOutputStream.copy( in, destination );
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+    }
+
+    private void deleteQuietly( File directory )
+    {
+        try
+        {
+            FileUtils.deleteDirectory( directory );
+        }
+        catch ( IOException e )
+        {
+            getLog().debug( "Couldn't delete " + directory, e );
+        }
     }
 
     /**
@@ -14,13 +14,13 @@ package net.sf.yal10n;
  * limitations under the License.
  */
 
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.regex.Pattern;
 
@@ -38,6 +38,7 @@ import net.sf.yal10n.settings.Repository;
 import net.sf.yal10n.status.DetectChangesStatus;
 import net.sf.yal10n.status.RepoStatus;
 import net.sf.yal10n.svn.RepositoryUtil;
+import net.sf.yal10n.svn.SVNChangeLog;
 import net.sf.yal10n.svn.SVNLogChange;
 import net.sf.yal10n.svn.SVNUtil;
 
@@ -95,6 +96,18 @@ public class DetectChangesMojo extends BaseMojo
      * {@inheritDoc}
      */
     public final void execute() throws MojoExecutionException, MojoFailureException
+    {
+        try
+        {
+            detectChanges();
+        }
+        finally
+        {
+            close();
+        }
+    }
+
+    private void detectChanges() throws MojoExecutionException, MojoFailureException
     {
         emailer.setLog( getLog() );
 
@@ -118,12 +131,14 @@ public class DetectChangesMojo extends BaseMojo
         newStatus.setLastDetection( DateTime.now().toString() );
         newStatus.setRepos( new ArrayList<RepoStatus>() );
 
-        checkout( config, newStatus );
+        checkout( config, previousStatus, newStatus );
         newStatus.writeToFile( yal10nStatus );
 
         if ( !firstRun )
         {
             List<ResourceBundle> bundles = analyzer.getBundles();
+            analyzer.preload( getLog(), bundles, config.getAnalysisThreads() );
+            Map<String, SVNChangeLog> changeLogs = new HashMap<String, SVNChangeLog>();
             getLog().info( "Found " + bundles.size() + " bundles:" );
             for ( ResourceBundle bundle : bundles )
             {
@@ -152,8 +167,15 @@ public class DetectChangesMojo extends BaseMojo
                     getLog().debug( "  old revision: " + oldRevision + " new revision: " + newRevision );
                     getLog().debug( "" );
                     
-                    SVNLogChange changesFound = svn.log( getLog(), repo.getType(), svnUrl, dstPath,
-                            defaultFile.getRelativeFilePath(), oldRevision, newRevision );
+                    // all bundles of a repository share the same revisions, so one change log is enough
+                    SVNChangeLog changeLog = changeLogs.get( repoId );
+                    if ( changeLog == null )
+                    {
+                        changeLog = svn.changeLog( getLog(), repo.getType(), svnUrl, dstPath,
+                                oldRevision, newRevision );
+                        changeLogs.put( repoId, changeLog );
+                    }
+                    SVNLogChange changesFound = changeLog.getChange( defaultFile.getRelativeFilePath() );
 
                     getLog().debug( "    Changes found: " + changesFound );
                     if ( changesFound == SVNLogChange.MODIFICATION )
@@ -187,7 +209,7 @@ public class DetectChangesMojo extends BaseMojo
                         getLog().info( "    Change found: ViewVC url: " + viewvcDiff );
 
                         String filename = fullLocalPath.substring( dstPath.length() );
-                        String fileContent = readFile( fullLocalPath );
+                        String fileContent = readFile( defaultFile );
                         UnifiedDiff unifiedDiff = new UnifiedDiff( fileContent, true, filename );
                         createAndSendEmail( config, repo, bundle.getProjectName(), viewvcDiff, unifiedDiff );
                     }
@@ -200,14 +222,13 @@ public class DetectChangesMojo extends BaseMojo
         }
     }
 
-    private String readFile( String fullLocalPath )
+    private String readFile( ResourceFile file )
     {
         Reader r = null;
         String result = null;
         try
         {
-            File f = new File( fullLocalPath );
-            r = new InputStreamReader( new FileInputStream( f ), "UTF-8" );
+            r = new InputStreamReader( file.openStream(), "UTF-8" );
             result = IOUtil.toString( r );
         }
         catch ( IOException e )
@@ -0,0 +1,195 @@
+package net.sf.yal10n;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Writes a file only if its content changed. The content is written into a temporary file next to
+ * the target file. When the content is complete, {@link #commit()} compares it with the existing file
+ * by a hash and renames the temporary file to the target file only if they differ. That way unchanged
+ * files keep their modification time, so that rsync and web caches don't transfer them again.
+ * <p>
+ * Closing the stream without a commit, e.g. after a rendering error, discards the new content and
+ * leaves the existing file as it is.
+ */
+public class ReplaceIfChangedOutputStream extends FilterOutputStream
+{
+    private static final int BUFFER_SIZE = 8192;
+    private final File file;
+    private final File tmp;
+    private final MessageDigest digest;
+    private boolean closed;
+    private boolean changed;
+
+    /**
+     * Creates a new stream for the given file. Missing parent directories are created.
+     *
+     * @param file the file
+     * @throws IOException if the temporary file couldn't be created
+     */
+    public ReplaceIfChangedOutputStream( File file ) throws IOException
+    {
+        super( null );
+        this.file = file.getAbsoluteFile();
+        File directory = this.file.getParentFile();
+        if ( !directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory() )
+        {
+            throw new IOException( "Couldn't create directory " + directory );
+        }
+        this.tmp = File.createTempFile( "." + file.getName(), ".tmp", directory );
+        this.digest = createDigest();
+        this.out = new DigestOutputStream( new BufferedOutputStream( new FileOutputStream( tmp ) ), digest );
+    }
+
+    private static MessageDigest createDigest()
+    {
+        try
+        {
+            return MessageDigest.getInstance( "SHA-1" );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
+
+    /**
+     * Copies the given content into the file, if it is different from the existing content.
+     *
+     * @param in the new content, is not closed
+     * @param file the file
+     * @return <code>true</code> if the file has been written
+     * @throws IOException if the file couldn't be written
+     */
+    public static boolean copy( InputStream in, File file ) throws IOException
+    {
+        ReplaceIfChangedOutputStream out = new ReplaceIfChangedOutputStream( file );
+        try
+        {
+            IOUtil.copy( in, out );
+            out.commit();
+            return out.isChanged();
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write( byte[] b, int off, int len ) throws IOException
+    {
+        out.write( b, off, len );
+    }
+
+    /**
+     * Completes the file. The existing file is replaced, if the content is different.
+     *
+     * @throws IOException if the file couldn't be written
+     */
+    public void commit() throws IOException
+    {
+        closed = true;
+        out.close();
+        changed = !file.isFile() || file.length() != tmp.length()
+                || !Arrays.equals( digest.digest(), hash( file ) );
+        if ( !changed )
+        {
+            delete( tmp );
+        }
+        else if ( !tmp.renameTo( file ) && !( file.delete() && tmp.renameTo( file ) ) )
+        {
+            delete( tmp );
+            throw new IOException( "Couldn't replace " + file );
+        }
+    }
+
+    /**
+     * Whether the file has been written by {@link #commit()}.
+     *
+     * @return <code>true</code> if the content was different or the file didn't exist
+     */
+    public boolean isChanged()
+    {
+        return changed;
+    }
+
+    /**
+     * Discards the content, if the stream has not been committed.
+     *
+     * @throws IOException if the temporary file couldn't be closed
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if ( !closed )
+        {
+            closed = true;
+            try
+            {
+                out.close();
+            }
+            finally
+            {
+                delete( tmp );
+            }
+        }
+    }
+
+    private static byte[] hash( File f ) throws IOException
+    {
+        MessageDigest fileDigest = createDigest();
+        InputStream in = new FileInputStream( f );
+        try
+        {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read = in.read( buffer );
+            while ( read > -1 )
+            {
+                fileDigest.update( buffer, 0, read );
+                read = in.read( buffer );
+            }
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+        return fileDigest.digest();
+    }
+
+    private static void delete( File f ) throws IOException
+    {
+        if ( f.exists() && !f.delete() )
+        {
+            throw new IOException( "Couldn't delete " + f );
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package net.sf.yal10n.analyzer;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.io.UnsupportedEncodingException;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+/**
+ * Stores the {@link FileAnalysis} of messages files on disk, so that files, which didn't change since
+ * an earlier run, don't need to be parsed and checked again. The entries are addressed by a hash of
+ * the file content, the check configuration and the plugin version, so they are valid for any file
+ * with the same content.
+ * <p>
+ * The number of entries is limited, the least recently used entries are removed first. The usage of
+ * the entries is kept in memory and stored by {@link #close()} at the end of the run. The cache
+ * directory can be deleted at any time, missing or broken entries are just analyzed again.
+ */
+public class AnalysisCache
+{
+    /** Changes, whenever the content of the entries changes, so that old entries are not used anymore. */
+    private static final String FORMAT_VERSION = "1";
+    private static final String SUFFIX = ".json";
+    private static final String TMP_SUFFIX = ".tmp";
+    /** Younger temporary files might be written by another run, that uses the same directory. */
+    private static final long TMP_MAX_AGE_MILLIS = 60L * 60L * 1000L;
+    private static final int HEX_RADIX = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final File directory;
+    private final int maxEntries;
+    /** A new version of the plugin might analyze the files differently. */
+    private final String pluginVersion;
+    private final ObjectMapper mapper = JsonMapper.builder()
+            .configure( DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false )
+            .build();
+    /** The entries in the order of their last usage, the least recently used entry first. */
+    private Map<String, File> entries;
+    /** The entries, that have been read in this run. */
+    private final Set<String> used = new HashSet<String>();
+
+    /**
+     * Creates a new cache. Temporary files, that are left over from an aborted run, are deleted.
+     *
+     * @param directory the directory, where the entries are stored
+     * @param maxEntries the maximum number of entries
+     * @param pluginVersion the version of the plugin, entries of other versions are not used
+     */
+    public AnalysisCache( File directory, int maxEntries, String pluginVersion )
+    {
+        this.directory = directory;
+        this.maxEntries = maxEntries;
+        this.pluginVersion = String.valueOf( pluginVersion );
+        deleteTemporaryFiles();
+    }
+
+    /**
+     * Deletes the temporary files, that are older than an hour. These are left over from aborted runs,
+     * younger ones might still be written by a concurrent run.
+     */
+    private void deleteTemporaryFiles()
+    {
+        File[] files = directory.listFiles();
+        if ( files != null )
+        {
+            long maxLastModified = System.currentTimeMillis() - TMP_MAX_AGE_MILLIS;
+            for ( File file : files )
+            {
+                if ( file.getName().endsWith( TMP_SUFFIX ) && file.lastModified() < maxLastModified )
+                {
+                    file.delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the key of an entry.
+     *
+     * @param content the content of the messages file
+     * @param checks a description of the check configuration, that influences the analysis
+     * @return the key
+     */
+    String toKey( byte[] content, String checks )
+    {
+        try
+        {
+            MessageDigest digest = MessageDigest.getInstance( "SHA-1" );
+            digest.update( FORMAT_VERSION.getBytes( "UTF-8" ) );
+            digest.update( (byte) 0 );
+            digest.update( pluginVersion.getBytes( "UTF-8" ) );
+            digest.update( (byte) 0 );
+            digest.update( checks.getBytes( "UTF-8" ) );
+            digest.update( (byte) 0 );
+            digest.update( content );
+            return new BigInteger( 1, digest.digest() ).toString( HEX_RADIX );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new RuntimeException( e );
+        }
+        catch ( UnsupportedEncodingException e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
+
+    /**
+     * Gets an entry.
+     *
+     * @param key the key
+     * @return the entry or <code>null</code> if there is no (readable) entry for the key
+     */
+    FileAnalysis get( String key )
+    {
+        File file = touch( key );
+        if ( file == null )
+        {
+            return null;
+        }
+        try
+        {
+            return mapper.readerFor( FileAnalysis.class ).readValue( file );
+        }
+        catch ( Exception e )
+        {
+            // the entry has been deleted or is broken, it will be written again
+            remove( key );
+            return null;
+        }
+    }
+
+    /**
+     * Stores an entry. If the cache is full, the least recently used entries are removed.
+     * The entry is written into a temporary file first, so that no incomplete entry can be read.
+     *
+     * @param key the key
+     * @param analysis the entry
+     */
+    void put( String key, FileAnalysis analysis )
+    {
+        File file = new File( directory, key + SUFFIX );
+        try
+        {
+            if ( !directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory() )
+            {
+                throw new RuntimeException( "Couldn't create directory " + directory );
+            }
+            File tmp = File.createTempFile( "analysis", TMP_SUFFIX, directory );
+            mapper.writeValue( tmp, analysis );
+            if ( !tmp.renameTo( file ) && !( file.delete() && tmp.renameTo( file ) ) )
+            {
+                tmp.delete();
+                return;
+            }
+        }
+        catch ( Exception e )
+        {
+            throw new RuntimeException( e );
+        }
+        add( key, file );
+    }
+
+    /**
+     * Marks the entry as used. The usage is stored on disk only by {@link #close()}.
+     */
+    private synchronized File touch( String key )
+    {
+        File file = getEntries().get( key );
+        if ( file != null )
+        {
+            used.add( key );
+        }
+        return file;
+    }
+
+    private synchronized void remove( String key )
+    {
+        getEntries().remove( key );
+        used.remove( key );
+    }
+
+    /**
+     * Stores the usage of the entries, that have been read, as their modification time, so that the
+     * least recently used entries are known in the next run. The cache can still be used afterwards.
+     */
+    public synchronized void close()
+    {
+        long now = System.currentTimeMillis();
+        for ( String key : used )
+        {
+            File file = getEntries().get( key );
+            if ( file != null )
+            {
+                file.setLastModified( now );
+            }
+        }
+        used.clear();
+    }
+
+    private synchronized void add( String key, File file )
+    {
+        Map<String, File> all = getEntries();
+        all.put( key, file );
+        Iterator<Map.Entry<String, File>> leastRecentlyUsed = all.entrySet().iterator();
+        while ( all.size() > maxEntries && leastRecentlyUsed.hasNext() )
+        {
+            Map.Entry<String, File> removed = leastRecentlyUsed.next();
+            removed.getValue().delete();
+            used.remove( removed.getKey() );
+            leastRecentlyUsed.remove();
+        }
+    }
+
+    /**
+     * Gets the entries, that exist on disk. They are listed once, ordered by their modification time.
+     */
+    private Map<String, File> getEntries()
+    {
+        if ( entries == null )
+        {
+            entries = new LinkedHashMap<String, File>( 16, LOAD_FACTOR, true );
+            File[] files = directory.listFiles();
+            if ( files != null )
+            {
+                Arrays.sort( files, new Comparator<File>()
+                {
+                    @Override
+                    public int compare( File o1, File o2 )
+                    {
+                        long m1 = o1.lastModified();
+                        long m2 = o2.lastModified();
+                        return m1 < m2 ? -1 : m1 == m2 ? 0 : 1;
+                    }
+                } );
+                for ( File file : files )
+                {
+                    String name = file.getName();
+                    if ( name.endsWith( SUFFIX ) )
+                    {
+                        entries.put( name.substring( 0, name.length() - SUFFIX.length() ), file );
+                    }
+                }
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,72 @@
+package net.sf.yal10n.analyzer;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.List;
+
+/**
+ * A message of the default file of a bundle, that is used by more than one key.
+ * The translations of these keys are expected to be the same.
+ */
+class DuplicateMessage
+{
+    private final String message;
+    private final List<String> keys;
+    private final int[] ordinals;
+
+    /**
+     * Creates a new duplicate message.
+     *
+     * @param message the message in the default file
+     * @param keys the keys, sorted
+     * @param ordinals the ordinals of the keys, in the same order
+     */
+    DuplicateMessage( String message, List<String> keys, int[] ordinals )
+    {
+        this.message = message;
+        this.keys = keys;
+        this.ordinals = ordinals;
+    }
+
+    /**
+     * Gets the message.
+     *
+     * @return the message
+     */
+    String getMessage()
+    {
+        return message;
+    }
+
+    /**
+     * Gets the sorted keys.
+     *
+     * @return the keys
+     */
+    List<String> getKeys()
+    {
+        return keys;
+    }
+
+    /**
+     * Gets the ordinals of the keys.
+     *
+     * @return the ordinals
+     */
+    int[] getOrdinals()
+    {
+        return ordinals;
+    }
+}
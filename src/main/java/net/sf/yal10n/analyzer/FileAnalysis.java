@@ -0,0 +1,111 @@
+package net.sf.yal10n.analyzer;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The results of the analysis of a single messages file, that depend only on its content and on
+ * the check configuration. These results are stored in the {@link AnalysisCache}.
+ */
+public class FileAnalysis
+{
+    private Map<String, String> messages = new LinkedHashMap<String, String>();
+    private EncodingResult encoding;
+    private Boolean fileHeader;
+    private boolean messageInFirstLine;
+
+    /**
+     * Gets the parsed messages in the order of the file.
+     *
+     * @return the messages by key
+     */
+    public Map<String, String> getMessages()
+    {
+        return messages;
+    }
+
+    /**
+     * Sets the messages.
+     *
+     * @param messages the messages by key
+     */
+    public void setMessages( Map<String, String> messages )
+    {
+        this.messages = messages;
+    }
+
+    /**
+     * Gets the detected encoding.
+     *
+     * @return the encoding
+     */
+    public EncodingResult getEncoding()
+    {
+        return encoding;
+    }
+
+    /**
+     * Sets the detected encoding.
+     *
+     * @param encoding the encoding
+     */
+    public void setEncoding( EncodingResult encoding )
+    {
+        this.encoding = encoding;
+    }
+
+    /**
+     * Whether the file starts with the configured file header.
+     *
+     * @return <code>true</code> if the header has been found, <code>null</code> if the
+     *     file header check is disabled
+     */
+    public Boolean getFileHeader()
+    {
+        return fileHeader;
+    }
+
+    /**
+     * Sets whether the file starts with the configured file header.
+     *
+     * @param fileHeader <code>true</code> if the header has been found
+     */
+    public void setFileHeader( Boolean fileHeader )
+    {
+        this.fileHeader = fileHeader;
+    }
+
+    /**
+     * Whether the file has a BOM and the first line contains already a message.
+     *
+     * @return <code>true</code> if the first line contains a message after the BOM
+     */
+    public boolean isMessageInFirstLine()
+    {
+        return messageInFirstLine;
+    }
+
+    /**
+     * Sets whether the file has a BOM and the first line contains already a message.
+     *
+     * @param messageInFirstLine <code>true</code> if the first line contains a message after the BOM
+     */
+    public void setMessageInFirstLine( boolean messageInFirstLine )
+    {
+        this.messageInFirstLine = messageInFirstLine;
+    }
+}
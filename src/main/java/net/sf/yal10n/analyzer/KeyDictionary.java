@@ -0,0 +1,108 @@
+package net.sf.yal10n.analyzer;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns a number (ordinal) to each message key of a {@link ResourceBundle}. All files of the bundle
+ * share the same dictionary, so that each key is stored only once and the messages of the files
+ * can be stored in arrays indexed by the ordinal.
+ * <p>
+ * Only {@link #intern(String)} is synchronized, the lookups don't lock: a new key is stored in the
+ * array first and published by adding it to the map afterwards. The array is copied when it grows.
+ */
+public class KeyDictionary
+{
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<String, Integer> ordinals = new ConcurrentHashMap<String, Integer>();
+    private volatile String[] keys = new String[INITIAL_CAPACITY];
+    private volatile int size;
+
+    /**
+     * Gets the ordinal of the given key. If the key is not yet known, a new ordinal is assigned.
+     *
+     * @param key the key
+     * @return the ordinal
+     */
+    public int intern( String key )
+    {
+        Integer ordinal = ordinals.get( key );
+        if ( ordinal == null )
+        {
+            ordinal = add( key );
+        }
+        return ordinal;
+    }
+
+    private synchronized int add( String key )
+    {
+        Integer ordinal = ordinals.get( key );
+        if ( ordinal == null )
+        {
+            ordinal = size;
+            String[] current = keys;
+            if ( ordinal == current.length )
+            {
+                current = Arrays.copyOf( current, current.length * 2 );
+            }
+            current[ordinal] = key;
+            keys = current;
+            size = ordinal + 1;
+            ordinals.put( key, ordinal );
+        }
+        return ordinal;
+    }
+
+    /**
+     * Gets the ordinal of the given key.
+     *
+     * @param key the key
+     * @return the ordinal or <code>-1</code> if the key is not known
+     */
+    public int getOrdinal( String key )
+    {
+        Integer ordinal = ordinals.get( key );
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * Gets the key with the given ordinal.
+     *
+     * @param ordinal the ordinal
+     * @return the key
+     */
+    public String getKey( int ordinal )
+    {
+        if ( ordinal < 0 || ordinal >= size )
+        {
+            throw new IndexOutOfBoundsException( "Ordinal: " + ordinal + ", Size: " + size );
+        }
+        return keys[ordinal];
+    }
+
+    /**
+     * Gets the number of known keys.
+     *
+     * @return the number of keys
+     */
+    public int size()
+    {
+        return size;
+    }
+}
@@ -0,0 +1,200 @@
+package net.sf.yal10n.analyzer;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The messages of one {@link ResourceFile}. The messages are stored in an array indexed by the ordinals
+ * of a {@link KeyDictionary}, which is shared by all files of a bundle. Looking up the translation
+ * of a key of the default file is therefore an array access.
+ */
+public final class Messages
+{
+    private final KeyDictionary dictionary;
+    private final int[] ordinals;
+    private final String[] values;
+
+    private Messages( KeyDictionary dictionary, List<String> keys, List<String> messages )
+    {
+        this.dictionary = dictionary;
+        this.ordinals = new int[keys.size()];
+        int length = 0;
+        for ( int i = 0; i < ordinals.length; i++ )
+        {
+            ordinals[i] = dictionary.intern( keys.get( i ) );
+            length = Math.max( length, ordinals[i] + 1 );
+        }
+        this.values = new String[length];
+        for ( int i = 0; i < ordinals.length; i++ )
+        {
+            values[ordinals[i]] = messages.get( i );
+        }
+    }
+
+    /**
+     * Reads messages in the properties file format.
+     *
+     * @param reader the reader
+     * @param dictionary the dictionary, that assigns the ordinals to the keys
+     * @return the messages in the order of the file
+     * @throws IOException if the messages couldn't be read
+     */
+    public static Messages load( Reader reader, KeyDictionary dictionary ) throws IOException
+    {
+        return create( parse( reader ), dictionary );
+    }
+
+    /**
+     * Creates the messages from the given key/message pairs.
+     *
+     * @param messages the messages in the order of the file
+     * @param dictionary the dictionary, that assigns the ordinals to the keys
+     * @return the messages
+     */
+    static Messages create( Map<String, String> messages, KeyDictionary dictionary )
+    {
+        return new Messages( dictionary, new ArrayList<String>( messages.keySet() ),
+                new ArrayList<String>( messages.values() ) );
+    }
+
+    /**
+     * Reads messages in the properties file format without assigning ordinals.
+     *
+     * @param reader the reader
+     * @return the messages by key in the order of the file
+     * @throws IOException if the messages couldn't be read
+     */
+    static Map<String, String> parse( Reader reader ) throws IOException
+    {
+        final Map<String, String> loaded = new LinkedHashMap<String, String>();
+        // the parser of Properties handles all escapes and continuation lines, only the order is kept
+        Properties parser = new Properties()
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public synchronized Object put( Object key, Object value )
+            {
+                return loaded.put( (String) key, (String) value );
+            }
+        };
+        parser.load( reader );
+        return loaded;
+    }
+
+    /**
+     * Creates a copy of these messages with the ordinals of another dictionary.
+     *
+     * @param other the other dictionary
+     * @return the copy
+     */
+    public Messages withDictionary( KeyDictionary other )
+    {
+        List<String> keys = new ArrayList<String>( ordinals.length );
+        List<String> messages = new ArrayList<String>( ordinals.length );
+        for ( int ordinal : ordinals )
+        {
+            keys.add( dictionary.getKey( ordinal ) );
+            messages.add( values[ordinal] );
+        }
+        return new Messages( other, keys, messages );
+    }
+
+    /**
+     * Gets the dictionary.
+     *
+     * @return the dictionary
+     */
+    public KeyDictionary getDictionary()
+    {
+        return dictionary;
+    }
+
+    /**
+     * Gets the number of messages.
+     *
+     * @return the number of messages
+     */
+    public int size()
+    {
+        return ordinals.length;
+    }
+
+    /**
+     * Gets the ordinal of the message at the given position in the file.
+     *
+     * @param index the position, between 0 and {@link #size()} (exclusive)
+     * @return the ordinal
+     */
+    public int getOrdinal( int index )
+    {
+        return ordinals[index];
+    }
+
+    /**
+     * Gets the message with the given ordinal.
+     *
+     * @param ordinal the ordinal of the key in the dictionary
+     * @return the message or <code>null</code> if the file doesn't contain the key
+     */
+    public String get( int ordinal )
+    {
+        return ordinal >= 0 && ordinal < values.length ? values[ordinal] : null;
+    }
+
+    /**
+     * Gets the message with the given key.
+     *
+     * @param key the key
+     * @return the message or <code>null</code> if the file doesn't contain the key
+     */
+    public String get( String key )
+    {
+        return get( dictionary.getOrdinal( key ) );
+    }
+
+    /**
+     * Gets the key of the message with the given ordinal.
+     *
+     * @param ordinal the ordinal
+     * @return the key
+     */
+    public String getKey( int ordinal )
+    {
+        return dictionary.getKey( ordinal );
+    }
+
+    /**
+     * Copies the messages into a new {@link Properties} object.
+     *
+     * @return the properties
+     */
+    public Properties toProperties()
+    {
+        Properties result = new Properties();
+        for ( int ordinal : ordinals )
+        {
+            result.setProperty( dictionary.getKey( ordinal ), values[ordinal] );
+        }
+        return result;
+    }
+}
@@ -0,0 +1,91 @@
+package net.sf.yal10n.analyzer;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Caches the pom.xml files, that have been looked up for resource bundles. All bundles of one
+ * analysis share the cache, so that each directory is checked for a pom.xml only once and each
+ * pom.xml is parsed only once, no matter how many bundles are located below it.
+ */
+class POMCache
+{
+    private final Map<String, Boolean> existing = new HashMap<String, Boolean>();
+    private final Map<String, Model> models = new HashMap<String, Model>();
+
+    /**
+     * Checks whether the given pom file exists. Both found and missing files are remembered.
+     *
+     * @param pomFile the pom file
+     * @param poms the contents of the pom files by their path, if the poms don't exist in the file system,
+     *     or <code>null</code>
+     * @return <code>true</code> if the pom exists
+     */
+    synchronized boolean exists( File pomFile, Map<String, byte[]> poms )
+    {
+        String path = pomFile.getPath();
+        Boolean result = existing.get( path );
+        if ( result == null )
+        {
+            result = poms != null ? poms.containsKey( path ) : pomFile.exists();
+            existing.put( path, result );
+        }
+        return result;
+    }
+
+    /**
+     * Gets the parsed model of the given pom file. The file is parsed, when it is needed the first time.
+     *
+     * @param pomFile the pom file, must exist
+     * @param poms the contents of the pom files by their path, if the poms don't exist in the file system,
+     *     or <code>null</code>
+     * @return the model
+     */
+    synchronized Model getModel( File pomFile, Map<String, byte[]> poms )
+    {
+        String path = pomFile.getPath();
+        Model model = models.get( path );
+        if ( model == null )
+        {
+            InputStream in = null;
+            try
+            {
+                in = poms != null ? new ByteArrayInputStream( poms.get( path ) ) : new FileInputStream( pomFile );
+                model = new MavenXpp3Reader().read( new InputStreamReader( in, "UTF-8" ) );
+            }
+            catch ( Exception e )
+            {
+                throw new RuntimeException( e );
+            }
+            finally
+            {
+                IOUtil.close( in );
+            }
+            models.put( path, model );
+        }
+        return model;
+    }
+}
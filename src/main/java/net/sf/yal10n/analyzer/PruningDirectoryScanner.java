@@ -0,0 +1,92 @@
+package net.sf.yal10n.analyzer;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.codehaus.plexus.util.DirectoryScanner;
+import org.codehaus.plexus.util.SelectorUtils;
+
+/**
+ * A {@link DirectoryScanner}, that doesn't descend into directories, which can't contain any included file.
+ * The plain scanner walks into every directory, that might contain an included file according to the
+ * include patterns, even if the directory is excluded completely (e.g. by <code>target/**</code>).
+ * This scanner skips these directories and the metadata directories of version control systems.
+ */
+class PruningDirectoryScanner extends DirectoryScanner
+{
+    private static final Set<String> VCS_DIRECTORIES = new HashSet<String>( Arrays.asList( ".git", ".svn", ".hg",
+            ".bzr", "CVS" ) );
+    private static final String ALL_BELOW = File.separator + "**";
+
+    @Override
+    protected boolean couldHoldIncluded( String name )
+    {
+        return !isVCSPath( name ) && !isExcludedCompletely( name ) && super.couldHoldIncluded( name );
+    }
+
+    @Override
+    protected boolean isExcluded( String name )
+    {
+        return isVCSPath( name ) || super.isExcluded( name );
+    }
+
+    @Override
+    protected boolean isExcluded( String name, String[] tokenizedName )
+    {
+        return isVCSPath( name ) || super.isExcluded( name, tokenizedName );
+    }
+
+    private static boolean isVCSPath( String name )
+    {
+        for ( String segment : name.split( "\\" + File.separatorChar ) )
+        {
+            if ( VCS_DIRECTORIES.contains( segment ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the directory and everything below is excluded, that's the case
+     * for patterns like <code>target/**</code>.
+     */
+    private boolean isExcludedCompletely( String directory )
+    {
+        if ( excludes == null )
+        {
+            return false;
+        }
+        for ( String exclude : excludes )
+        {
+            if ( "**".equals( exclude ) )
+            {
+                return true;
+            }
+            if ( exclude.endsWith( ALL_BELOW ) && !exclude.startsWith( SelectorUtils.REGEX_HANDLER_PREFIX )
+                    && SelectorUtils.matchPath( exclude.substring( 0, exclude.length() - ALL_BELOW.length() ),
+                            directory, isCaseSensitive ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+}
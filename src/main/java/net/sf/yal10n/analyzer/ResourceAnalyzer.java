@@ -15,20 +15,26 @@ package net.sf.yal10n.analyzer;
  */
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import net.sf.yal10n.settings.DashboardConfiguration;
 import net.sf.yal10n.settings.Repository;
 import net.sf.yal10n.svn.RepositoryUtil;
+import net.sf.yal10n.svn.SVNInfoCache;
 import net.sf.yal10n.svn.SVNUtil;
+import net.sf.yal10n.svn.SparseCheckout;
 
 import org.apache.maven.plugin.logging.Log;
 import org.codehaus.plexus.component.annotations.Component;
@@ -45,6 +51,9 @@ public class ResourceAnalyzer
     @Requirement
     private SVNUtil svn;
     private Map<String, ResourceBundle> bundles = new HashMap<String, ResourceBundle>();
+    private final POMCache pomCache = new POMCache();
+    private final Map<String, String[]> scannedFiles = new ConcurrentHashMap<String, String[]>();
+    private AnalysisCache analysisCache;
 
     /**
      * Instantiates a new resource analyzer.
@@ -80,6 +89,46 @@ public class ResourceAnalyzer
         return result;
     }
 
+    /**
+     * Sets the cache, that stores the analysis results of the messages files by their content.
+     *
+     * @param analysisCache the analysis cache or <code>null</code> to always analyze the files
+     */
+    public void setAnalysisCache( AnalysisCache analysisCache )
+    {
+        this.analysisCache = analysisCache;
+    }
+
+    /**
+     * Searches the messages files in the given dstPath in advance, e.g. directly after the checkout
+     * in the thread, that did the checkout. That way the directories of several repositories are
+     * scanned concurrently. The next {@link #analyze(Log, String, String, DashboardConfiguration, Repository,
+     * String)} of the same dstPath uses the result.
+     *
+     * @param dstPath the dst path
+     * @param config the config
+     * @param repo the repo
+     */
+    public void scan( String dstPath, DashboardConfiguration config, Repository repo )
+    {
+        if ( !RepositoryUtil.isBareGitMirror( config, repo ) )
+        {
+            scannedFiles.put( dstPath, scanDirectory( dstPath, config, repo ) );
+        }
+    }
+
+    private static String[] scanDirectory( String dstPath, DashboardConfiguration config, Repository repo )
+    {
+        List<String> allIncludes = RepositoryUtil.getIncludes( config, repo );
+        List<String> allExcludes = RepositoryUtil.getExcludes( config, repo );
+        DirectoryScanner scanner = new PruningDirectoryScanner();
+        scanner.setBasedir( dstPath );
+        scanner.setIncludes( allIncludes.toArray( new String[allIncludes.size()] ) );
+        scanner.setExcludes( allExcludes.toArray( new String[allExcludes.size()] ) );
+        scanner.scan();
+        return scanner.getIncludedFiles();
+    }
+
     /**
      * Analyzes the given dstPath and adds any resource bundles found.
      *
@@ -93,33 +142,47 @@ public class ResourceAnalyzer
     public void analyze( Log log, String svnUrl, String dstPath, DashboardConfiguration config, Repository repo,
             String repoId )
     {
-        DirectoryScanner scanner = new DirectoryScanner();
+        List<String> allIncludes = RepositoryUtil.getIncludes( config, repo );
+        List<String> allExcludes = RepositoryUtil.getExcludes( config, repo );
 
-        Set<String> allIncludes = new HashSet<String>();
-        if ( config.getIncludes() != null )
+        String[] includedFiles;
+        Map<String, byte[]> contents = null;
+        Map<String, byte[]> poms = null;
+        if ( RepositoryUtil.isBareGitMirror( config, repo ) )
         {
-            allIncludes.addAll( config.getIncludes() );
-        }
-        if ( repo.getIncludes() != null )
-        {
-            allIncludes.addAll( repo.getIncludes() );
-        }
-        Set<String> allExcludes = new HashSet<String>();
-        if ( config.getExcludes() != null )
-        {
-            allExcludes.addAll( config.getExcludes() );
+            // without include patterns, the directory scanner doesn't find any file
+            SparseCheckout selection = allIncludes.isEmpty() ? null : new SparseCheckout( allIncludes, allExcludes );
+            contents = readMirror( log, dstPath, selection );
+            poms = new HashMap<String, byte[]>();
+            List<String> messagesFiles = new ArrayList<String>();
+            String mirrorPath = getCanonicalPath( dstPath );
+            for ( Map.Entry<String, byte[]> file : contents.entrySet() )
+            {
+                String localPath = file.getKey().replace( '/', File.separatorChar );
+                if ( SparseCheckout.isPOM( file.getKey() ) )
+                {
+                    poms.put( new File( mirrorPath, localPath ).getPath(), file.getValue() );
+                }
+                if ( selection != null && selection.isIncluded( file.getKey() ) )
+                {
+                    messagesFiles.add( localPath );
+                }
+            }
+            includedFiles = messagesFiles.toArray( new String[messagesFiles.size()] );
         }
-        if ( repo.getExcludes() != null )
+        else
         {
-            allExcludes.addAll( repo.getExcludes() );
+            includedFiles = scannedFiles.remove( dstPath );
+            if ( includedFiles == null )
+            {
+                includedFiles = scanDirectory( dstPath, config, repo );
+            }
         }
-
-        scanner.setBasedir( dstPath );
-        scanner.setIncludes( allIncludes.toArray( new String[allIncludes.size()] ) );
-        scanner.setExcludes( allExcludes.toArray( new String[allExcludes.size()] ) );
-        scanner.scan();
-        String[] includedFiles = scanner.getIncludedFiles();
         Arrays.sort( includedFiles );
+        SVNInfoCache svnInfoCache = new SVNInfoCache( svn, repo.getType(), svnUrl, dstPath,
+                Arrays.asList( includedFiles ) );
+        // the files are sorted, so that the bundles are always created in the same order
+        List<ResourceFile> resourceFiles = new ArrayList<ResourceFile>( includedFiles.length );
         for ( String s : includedFiles )
         {
             try
@@ -129,6 +192,12 @@ public class ResourceAnalyzer
                 String fullDstPath = new File( dstPath ).getCanonicalPath();
                 String svnPath = RepositoryUtil.getCheckoutUrl( config, repo ) + "/" + s;
                 ResourceFile resourceFile = new ResourceFile( config, repo, svnUrl, dstPath, s, svn, svnPath );
+                resourceFile.setSVNInfoCache( svnInfoCache );
+                resourceFile.setAnalysisCache( analysisCache );
+                if ( contents != null )
+                {
+                    resourceFile.setContent( contents.get( s.replace( File.separatorChar, '/' ) ) );
+                }
                 String baseBundleName = resourceFile.getBundleBaseName();
 
                 ResourceBundle bundle = bundles.get( baseBundleName );
@@ -140,10 +209,16 @@ public class ResourceAnalyzer
                         svnBaseUrl = svnBaseUrl.substring( 0, svnBaseUrl.length() - 1 );
                     }
 
-                    bundle = new ResourceBundle( config, svnBaseUrl, repoId, baseBundleName, fullDstPath );
+                    // the path as found by the scanner, the canonical one might be outside of the checkout
+                    String relativeBasePath = FileUtils.dirname( s ) + "/" + resourceFile.getBaseName();
+                    bundle = new ResourceBundle( config, svnBaseUrl, repoId, baseBundleName, fullDstPath,
+                            relativeBasePath );
+                    bundle.setPOMContents( poms );
+                    bundle.setPOMCache( pomCache );
                     bundles.put( baseBundleName, bundle );
                 }
                 bundle.addFile( resourceFile );
+                resourceFiles.add( resourceFile );
             }
             catch ( Exception e )
             {
@@ -151,4 +226,110 @@ public class ResourceAnalyzer
             }
         }
     }
+
+    /**
+     * Loads the messages of the files of the given bundles with multiple threads. Files, whose language model
+     * has been restored from an earlier run already, are skipped. With only one thread, nothing is done,
+     * as the files are loaded anyway, when they are needed.
+     *
+     * @param log the log
+     * @param bundles the bundles
+     * @param threads the number of threads
+     */
+    public void preload( Log log, List<ResourceBundle> bundles, int threads )
+    {
+        if ( threads <= 1 )
+        {
+            return;
+        }
+        List<ResourceFile> resourceFiles = new ArrayList<ResourceFile>();
+        for ( ResourceBundle bundle : bundles )
+        {
+            for ( ResourceFile file : bundle.getFiles() )
+            {
+                if ( !file.hasLanguageModel() )
+                {
+                    resourceFiles.add( file );
+                }
+            }
+        }
+        loadConcurrently( log, resourceFiles, threads );
+    }
+
+    private static void loadConcurrently( Log log, List<ResourceFile> resourceFiles, int threads )
+    {
+        if ( threads <= 1 || resourceFiles.size() <= 1 )
+        {
+            return;
+        }
+        log.debug( "Loading " + resourceFiles.size() + " files with " + threads + " threads" );
+        ExecutorService executor = Executors.newFixedThreadPool( Math.min( threads, resourceFiles.size() ) );
+        try
+        {
+            List<Future<?>> loads = new ArrayList<Future<?>>( resourceFiles.size() );
+            for ( final ResourceFile resourceFile : resourceFiles )
+            {
+                loads.add( executor.submit( new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        resourceFile.getMessages();
+                    }
+                } ) );
+            }
+            for ( Future<?> load : loads )
+            {
+                load.get();
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException( e );
+        }
+        catch ( ExecutionException e )
+        {
+            if ( e.getCause() instanceof RuntimeException )
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException( e.getCause() );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads the messages files and all poms from a bare git repository. The messages files are selected
+     * with the same include and exclude patterns like the {@link DirectoryScanner} does for a working copy.
+     * @return the file contents keyed by the path relative to the repository root, separated by "/"
+     */
+    private Map<String, byte[]> readMirror( Log log, String dstPath, SparseCheckout selection )
+    {
+        List<String> neededFiles = new ArrayList<String>();
+        for ( String path : svn.listFiles( log, dstPath ) )
+        {
+            if ( SparseCheckout.isPOM( path ) || selection != null && selection.isIncluded( path ) )
+            {
+                neededFiles.add( path );
+            }
+        }
+        log.debug( "Reading " + neededFiles.size() + " files from " + dstPath );
+        return svn.readFiles( log, dstPath, neededFiles );
+    }
+
+    private static String getCanonicalPath( String path )
+    {
+        try
+        {
+            return new File( path ).getCanonicalPath();
+        }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
 }
@@ -15,18 +15,18 @@ package net.sf.yal10n.analyzer;
  */
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 import net.sf.yal10n.DashboardMojo;
@@ -38,7 +38,6 @@ import net.sf.yal10n.settings.CheckConfiguration;
 import net.sf.yal10n.settings.DashboardConfiguration;
 
 import org.apache.maven.model.Model;
-import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
 import org.apache.maven.plugin.logging.Log;
 import org.codehaus.plexus.util.StringUtils;
 
@@ -47,7 +46,8 @@ import org.codehaus.plexus.util.StringUtils;
  */
 public class ResourceBundle
 {
-    static final AtomicInteger COUNTER = new AtomicInteger( -1 );
+    /** The number of bytes of the hash, that are used for the id. */
+    private static final int ID_BYTES = 6;
 
     private String repoId;
     private String svnUrl;
@@ -55,7 +55,13 @@ public class ResourceBundle
     private String localBasePath;
     private String checkoutDirectory;
     private Map<String, ResourceFile> files = new HashMap<String, ResourceFile>();
-    private final int id;
+    private final KeyDictionary keyDictionary = new KeyDictionary();
+    private List<DuplicateMessage> duplicateDefaultMessages;
+    private Map<String, byte[]> poms;
+    private POMCache pomCache = new POMCache();
+    private Model pomModel;
+    private boolean pomModelResolved;
+    private final String id;
 
     /**
      * Instantiates a new resource bundle.
@@ -69,17 +75,67 @@ public class ResourceBundle
     public ResourceBundle( DashboardConfiguration config, String svnUrl, String repoId,
             String localBasePath, String checkoutDirectory )
     {
-        if ( !localBasePath.startsWith( checkoutDirectory ) )
-        {
-            throw new IllegalArgumentException( "localBasePath " + localBasePath
-                    + " doesn't start with checkoutDirectory " + checkoutDirectory );
-        }
-        this.id = COUNTER.incrementAndGet();
+        this( config, svnUrl, repoId, localBasePath, checkoutDirectory,
+                localBasePath.startsWith( checkoutDirectory )
+                    ? localBasePath.substring( checkoutDirectory.length() ) : localBasePath );
+    }
+
+    /**
+     * Instantiates a new resource bundle.
+     *
+     * @param config the config
+     * @param svnUrl the svn url
+     * @param repoId the repo id
+     * @param localBasePath the local base path
+     * @param checkoutDirectory the base checkout directory
+     * @param relativeBasePath the base path relative to the checkout directory, as found in the checkout.
+     *          The local base path might be somewhere else, e.g. if it has been reached by a symbolic link.
+     */
+    public ResourceBundle( DashboardConfiguration config, String svnUrl, String repoId,
+            String localBasePath, String checkoutDirectory, String relativeBasePath )
+    {
         this.repoId = repoId;
         this.config = config;
         this.svnUrl = svnUrl;
         this.localBasePath = localBasePath;
         this.checkoutDirectory = checkoutDirectory;
+        this.id = createId( repoId, relativeBasePath );
+    }
+
+    /**
+     * Creates the id of a bundle from its repository and its path in the repository. The id stays
+     * the same in every run, no matter which other bundles exist or in which order they are found.
+     *
+     * @param repoId the repo id, can be <code>null</code>
+     * @param relativeBasePath the base path of the bundle relative to the checkout directory
+     * @return the id, a part of the SHA-1 hash in hex
+     */
+    static String createId( String repoId, String relativeBasePath )
+    {
+        String path = relativeBasePath.replace( '\\', '/' );
+        while ( path.startsWith( "/" ) )
+        {
+            path = path.substring( 1 );
+        }
+        try
+        {
+            byte[] hash = MessageDigest.getInstance( "SHA-1" ).digest( ( StringUtils.defaultString( repoId )
+                    + ":" + path ).getBytes( "UTF-8" ) );
+            StringBuilder result = new StringBuilder();
+            for ( int i = 0; i < ID_BYTES; i++ )
+            {
+                result.append( String.format( "%02x", hash[i] ) );
+            }
+            return result.toString();
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new RuntimeException( e );
+        }
+        catch ( UnsupportedEncodingException e )
+        {
+            throw new RuntimeException( e );
+        }
     }
 
     /**
@@ -112,15 +168,96 @@ public class ResourceBundle
         return localBasePath;
     }
 
+    /**
+     * Sets the contents of the pom files, if the poms don't exist in the local file system,
+     * e.g. because the repository is a bare git repository.
+     *
+     * @param poms the contents of the pom files by their full local path
+     */
+    public void setPOMContents( Map<String, byte[]> poms )
+    {
+        this.poms = poms;
+    }
+
+    /**
+     * Sets the cache for the pom files, that is shared with the other bundles of the same analysis.
+     *
+     * @param pomCache the pom cache
+     */
+    void setPOMCache( POMCache pomCache )
+    {
+        this.pomCache = pomCache;
+    }
+
     /**
      * Adds the file.
      *
      * @param file the file
      */
-    public void addFile( ResourceFile file )
+    public synchronized void addFile( ResourceFile file )
     {
         file.setBundle( this );
         files.put( file.getLanguage(), file );
+        if ( file.isDefault() )
+        {
+            duplicateDefaultMessages = null;
+        }
+    }
+
+    /**
+     * Gets the messages of the default file, that are used by more than one key. They are determined
+     * only once for all languages of the bundle.
+     *
+     * @return the duplicate messages, empty if there is no default file
+     */
+    synchronized List<DuplicateMessage> getDuplicateDefaultMessages()
+    {
+        if ( duplicateDefaultMessages == null )
+        {
+            duplicateDefaultMessages = findDuplicateDefaultMessages();
+        }
+        return duplicateDefaultMessages;
+    }
+
+    private List<DuplicateMessage> findDuplicateDefaultMessages()
+    {
+        List<DuplicateMessage> result = new ArrayList<DuplicateMessage>();
+        ResourceFile defaultFile = getDefaultFile();
+        if ( defaultFile == null )
+        {
+            return result;
+        }
+
+        Messages defaultMessages = defaultFile.getMessages();
+        Map<String, List<String>> keysByMessage = new HashMap<String, List<String>>();
+        for ( int i = 0; i < defaultMessages.size(); i++ )
+        {
+            int ordinal = defaultMessages.getOrdinal( i );
+            String message = defaultMessages.get( ordinal );
+            List<String> keys = keysByMessage.get( message );
+            if ( keys == null )
+            {
+                keys = new ArrayList<String>( 1 );
+                keysByMessage.put( message, keys );
+            }
+            keys.add( defaultMessages.getKey( ordinal ) );
+        }
+
+        for ( Map.Entry<String, List<String>> entry : keysByMessage.entrySet() )
+        {
+            List<String> keys = entry.getValue();
+            if ( keys.size() > 1 )
+            {
+                Collections.sort( keys );
+                int[] ordinals = new int[keys.size()];
+                for ( int i = 0; i < ordinals.length; i++ )
+                {
+                    ordinals[i] = keyDictionary.getOrdinal( keys.get( i ) );
+                }
+                result.add( new DuplicateMessage( entry.getKey(), keys, ordinals ) );
+            }
+        }
+        return result;
     }
 
     /**
@@ -172,6 +309,41 @@ public class ResourceBundle
         return files.get( language );
     }
 
+    /**
+     * Gets all files of this bundle.
+     *
+     * @return the files
+     */
+    public Collection<ResourceFile> getFiles()
+    {
+        return Collections.unmodifiableCollection( files.values() );
+    }
+
+    /**
+     * Gets the dictionary of the message keys, that is shared by all files of this bundle.
+     *
+     * @return the key dictionary
+     */
+    public KeyDictionary getKeyDictionary()
+    {
+        return keyDictionary;
+    }
+
+    /**
+     * Gets the messages of all files by language.
+     *
+     * @return the messages
+     */
+    public Map<String, Messages> getAllMessages()
+    {
+        Map<String, Messages> result = new HashMap<String, Messages>();
+        for ( Map.Entry<String, ResourceFile> entry : files.entrySet() )
+        {
+            result.put( entry.getKey(), entry.getValue().getMessages() );
+        }
+        return result;
+    }
+
     /**
      * Gets the all properties.
      *
@@ -247,23 +419,22 @@ public class ResourceBundle
         return coordinates.toString();
     }
 
-    private Model getPOMModel()
+    /**
+     * Gets the model of the nearest pom.xml. It is looked up only once for this bundle.
+     * @return the model or <code>null</code> if there is no pom.xml
+     */
+    private synchronized Model getPOMModel()
     {
-        MavenXpp3Reader reader = new MavenXpp3Reader();
-        Model model = null;
-        try
+        if ( !pomModelResolved )
         {
             File pomFile = findPOM();
             if ( pomFile != null )
             {
-                model = reader.read( new InputStreamReader( new FileInputStream( pomFile ), "UTF-8" ) );
+                pomModel = pomCache.getModel( pomFile, poms );
             }
+            pomModelResolved = true;
         }
-        catch ( Exception e )
-        {
-            throw new RuntimeException( e );
-        }
-        return model;
+        return pomModel;
     }
 
     private File findPOM()
@@ -274,7 +445,7 @@ public class ResourceBundle
         for ( int i = directories.length - 1; i >= stopDirectory.length - 1 && i >= 0; i-- )
         {
             File f = new File( joinPaths( directories, i ), "pom.xml" );
-            if ( f.exists() )
+            if ( pomCache.exists( f, poms ) )
             {
                 result = f;
                 break;
@@ -324,7 +495,6 @@ public class ResourceBundle
         model.setProjectName( getProjectName() );
         model.setAllLanguages( allLanguages );
         model.setMavenCoordinates( getMavenCoordinates() );
-        model.setGenerationDate( new Date().toString() );
         model.setVersion( DashboardMojo.getVersion() );
         model.setBasePath( localBasePath );
         model.setBaseName( baseName );
@@ -333,13 +503,16 @@ public class ResourceBundle
     }
 
     /**
-     * Gets the id.
+     * Gets the id. It is used as file name of the report and the tmx file and consists of the
+     * project name, so that the file names stay readable, and a hash of the repository and the path
+     * of the bundle.
      *
      * @return the id
      */
     public String getId()
     {
-        return getProjectName().replaceAll( "[^_a-zA-Z0-9]", "_" ) + "_" + id;
+        String projectName = getPOMModel() != null ? getProjectName() : "Unknown Project";
+        return projectName.replaceAll( "[^_a-zA-Z0-9]", "_" ) + "_" + id;
     }
 
     private String getRelativeReportUrl()
@@ -347,7 +520,12 @@ public class ResourceBundle
         return getId() + ".html";
     }
 
-    private String getRelativeTmxUrl()
+    /**
+     * Gets the url of the translation memory file of this bundle, relative to the reports directory.
+     *
+     * @return the relative tmx url
+     */
+    public String getRelativeTmxUrl()
     {
         return getId() + ".tmx";
     }
@@ -15,13 +15,14 @@ package net.sf.yal10n.analyzer;
  */
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -41,8 +42,10 @@ import net.sf.yal10n.dashboard.LanguageModel;
 import net.sf.yal10n.dashboard.StatusClass;
 import net.sf.yal10n.settings.CheckConfiguration;
 import net.sf.yal10n.settings.DashboardConfiguration;
+import net.sf.yal10n.settings.KeyMatcher;
 import net.sf.yal10n.settings.Repository;
 import net.sf.yal10n.svn.SVNInfo;
+import net.sf.yal10n.svn.SVNInfoCache;
 import net.sf.yal10n.svn.SVNUtil;
 
 /**
@@ -51,6 +54,9 @@ import net.sf.yal10n.svn.SVNUtil;
 public class ResourceFile
 {
     private static final String DEFAULT_LANGUAGE = "default";
+    /** The number of characters at the beginning of a file, that are usually enough to find the header. */
+    private static final int FILE_HEADER_PREFIX_LENGTH = 4096;
+    private static final Charset UTF8_BOM = new UTF8BOMCharsetProvider().charsetForName( "UTF-8-BOM" );
     private ResourceBundle bundle;
     private SVNUtil svn;
     private String fullLocalPath;
@@ -60,9 +66,15 @@ public class ResourceFile
     private String svnRepoUrl;
     private String checkedOutPath;
     private String relativeFilePath;
-    private Properties properties;
+    private Messages messages;
+    private byte[] content;
     private String language;
     private SVNInfo svnInfo;
+    private SVNInfoCache svnInfoCache;
+    private AnalysisCache analysisCache;
+    private FileAnalysis analysis;
+    private LanguageModel languageModel;
+    private CheckConfiguration languageModelChecks;
 
     /**
      * Creates a new resource file that can be analyzed.
@@ -87,7 +99,6 @@ public class ResourceFile
         this.svn = svn;
         this.fullLocalPath = new File( checkedOutPath, relativeFilePath ).getCanonicalPath();
         this.fullSvnPath = fullSvnPath;
-        loadProperties();
         determineLanguage();
     }
 
@@ -96,29 +107,158 @@ public class ResourceFile
      *
      * @param bundle the new bundle
      */
-    public void setBundle( ResourceBundle bundle )
+    public synchronized void setBundle( ResourceBundle bundle )
     {
         this.bundle = bundle;
+        if ( messages != null && messages.getDictionary() != bundle.getKeyDictionary() )
+        {
+            messages = messages.withDictionary( bundle.getKeyDictionary() );
+        }
     }
 
-    private void loadProperties()
+    /**
+     * Sets the cache, that provides the svn info for all files of the repository.
+     * If not set, the svn info is determined for this file only.
+     *
+     * @param svnInfoCache the svn info cache
+     */
+    public void setSVNInfoCache( SVNInfoCache svnInfoCache )
     {
-        properties = new Properties();
-        Reader reader = null;
-        try
+        this.svnInfoCache = svnInfoCache;
+    }
+
+    /**
+     * Sets the cache, that stores the analysis results of files by their content.
+     * If not set, the file is always parsed and checked.
+     *
+     * @param analysisCache the analysis cache
+     */
+    public void setAnalysisCache( AnalysisCache analysisCache )
+    {
+        this.analysisCache = analysisCache;
+    }
+
+    /**
+     * Sets the content of this file, if the file doesn't exist in the local file system,
+     * e.g. because it has been read from a bare git repository. If set, the file is never read.
+     *
+     * @param content the content of the file
+     */
+    public void setContent( byte[] content )
+    {
+        this.content = content;
+    }
+
+    /**
+     * Opens the content of this file, either from the content, that has been set, or from the file.
+     * The content of a file in the local file system is not kept in memory, it is read again
+     * for each stream.
+     *
+     * @return the content, must be closed by the caller
+     * @throws IOException if the file couldn't be read
+     */
+    public InputStream openStream() throws IOException
+    {
+        if ( content != null )
         {
-            reader = new InputStreamReader( new FileInputStream( new File( fullLocalPath ) ),
-                    new UTF8BOMCharsetProvider().charsetForName( "UTF-8-BOM" ) );
-            properties.load( reader );
+            return new ByteArrayInputStream( content );
         }
-        catch ( Exception e )
+        return new FileInputStream( new File( fullLocalPath ) );
+    }
+
+    /**
+     * Reads the complete content of this file. The analysis reads the file once and all checks work
+     * on the same buffer. Neither the buffer nor the decoded text are kept after the analysis.
+     */
+    private byte[] readContent() throws IOException
+    {
+        if ( content != null )
         {
-            throw new RuntimeException( e );
+            return content;
+        }
+        InputStream in = openStream();
+        try
+        {
+            return IOUtil.toByteArray( in );
         }
         finally
         {
-            IOUtil.close( reader );
+            IOUtil.close( in );
+        }
+    }
+
+    private void loadMessages()
+    {
+        FileAnalysis fileAnalysis = getAnalysis();
+        KeyDictionary dictionary = bundle != null ? bundle.getKeyDictionary() : new KeyDictionary();
+        messages = Messages.create( fileAnalysis.getMessages(), dictionary );
+        // the messages are kept only once in memory
+        fileAnalysis.setMessages( null );
+    }
+
+    /**
+     * Gets the results of the analysis, that depend only on the content of this file. They are
+     * taken from the analysis cache, if the same content has been analyzed before.
+     */
+    private synchronized FileAnalysis getAnalysis()
+    {
+        if ( analysis == null )
+        {
+            try
+            {
+                byte[] bytes = readContent();
+                String key = null;
+                if ( analysisCache != null )
+                {
+                    key = analysisCache.toKey( bytes, getChecksKey() );
+                    analysis = analysisCache.get( key );
+                }
+                if ( analysis == null )
+                {
+                    analysis = analyze( bytes );
+                    if ( analysisCache != null )
+                    {
+                        analysisCache.put( key, analysis );
+                    }
+                }
+            }
+            catch ( IOException e )
+            {
+                throw new RuntimeException( e );
+            }
+        }
+        return analysis;
+    }
+
+    /**
+     * Describes the check configuration, that influences {@link #analyze()}.
+     */
+    private String getChecksKey()
+    {
+        return isCheckFileHeaders() ? "header:" + config.getChecks().getFileHeaderPattern( repo ).pattern() : "";
+    }
+
+    private boolean isCheckFileHeaders()
+    {
+        return config != null && config.getChecks().isCheckFileHeaders();
+    }
+
+    private FileAnalysis analyze( byte[] bytes ) throws IOException
+    {
+        // decoded as UTF-8 without a BOM
+        String text = new String( bytes, UTF8_BOM );
+        FileAnalysis result = new FileAnalysis();
+        result.setMessages( Messages.parse( new StringReader( text ) ) );
+        result.setEncoding( new SimpleEncodingDetector().detectEncoding( bytes ) );
+        if ( isCheckFileHeaders() )
+        {
+            result.setFileHeader( hasFileHeader( config.getChecks().getFileHeaderPattern( repo ), text ) );
         }
+        if ( result.getEncoding().getDetected() == Encoding.UTF8_BOM )
+        {
+            result.setMessageInFirstLine( hasMessageInFirstLine( text ) );
+        }
+        return result;
     }
 
     /**
@@ -150,13 +290,28 @@ public class ResourceFile
     }
 
     /**
-     * Gets the properties.
+     * Gets the messages. The file is read, when the messages are needed the first time.
+     * The keys are shared with the other files of the bundle.
+     *
+     * @return the messages
+     */
+    public synchronized Messages getMessages()
+    {
+        if ( messages == null )
+        {
+            loadMessages();
+        }
+        return messages;
+    }
+
+    /**
+     * Gets the properties. This is a copy of the messages, prefer {@link #getMessages()}.
      *
      * @return the properties
      */
     public Properties getProperties()
     {
-        return properties;
+        return getMessages().toProperties();
     }
 
     /**
@@ -271,21 +426,56 @@ public class ResourceFile
     }
 
     /**
-     * To language model.
+     * To language model. The model is only created once for the same check configuration.
      *
      * @param log the log
      * @param checks the check configuration
      * @return the language model
      */
-    public LanguageModel toLanguageModel( Log log, CheckConfiguration checks )
+    public synchronized LanguageModel toLanguageModel( Log log, CheckConfiguration checks )
+    {
+        if ( languageModel == null || languageModelChecks != checks )
+        {
+            languageModel = createLanguageModel( log, checks );
+            languageModelChecks = checks;
+        }
+        return languageModel;
+    }
+
+    /**
+     * Sets a language model, that has been created previously, e.g. in an earlier run for the same
+     * revision of this file. Only the path relative to the current directory is updated.
+     *
+     * @param model the language model
+     * @param checks the check configuration, that has been used to create the model
+     */
+    public synchronized void setLanguageModel( LanguageModel model, CheckConfiguration checks )
+    {
+        model.setRelativeUrl( getRelativeCheckoutUrl() );
+        this.languageModel = model;
+        this.languageModelChecks = checks;
+    }
+
+    /**
+     * Whether the language model has been created or restored already.
+     *
+     * @return <code>true</code> if there is a language model
+     */
+    synchronized boolean hasLanguageModel()
+    {
+        return languageModel != null;
+    }
+
+    private LanguageModel createLanguageModel( Log log, CheckConfiguration checks )
     {
         LanguageModel model = new LanguageModel();
         model.setSvnUrl( fullSvnPath );
         model.setSvnCheckoutUrl( fullSvnPath != null ? FileUtils.dirname( fullSvnPath ) + "/" : null );
         model.setRelativeUrl( getRelativeCheckoutUrl() );
         model.setName( getLanguage() );
-        SimpleEncodingDetector detector = new SimpleEncodingDetector();
-        EncodingResult detectedEncoding = detector.detectEncoding( new File( fullLocalPath ) );
+        Messages translated = getMessages();
+        FileAnalysis fileAnalysis = getAnalysis();
+        EncodingResult detectedEncoding = fileAnalysis.getEncoding();
         model.setEncoding( detectedEncoding.getDetected().name() );
         if ( detectedEncoding.getDetected() != Encoding.OTHER )
         {
@@ -295,7 +485,7 @@ public class ResourceFile
         {
             model.setEncodingStatus( StatusClass.MAJOR_ISSUES );
         }
-        model.setCountOfMessages( getProperties().size() );
+        model.setCountOfMessages( translated.size() );
         model.setExisting( true );
         model.setVariant( isVariant() );
 
@@ -306,19 +496,21 @@ public class ResourceFile
         ResourceFile defaultFile = bundle.getDefaultFile();
         if ( defaultFile != null )
         {
-            model.setCountOfDefaultMessages( defaultFile.getProperties().size() );
+            model.setCountOfDefaultMessages( defaultFile.getMessages().size() );
         }
 
         if ( defaultFile != null && defaultFile != this )
         {
-            Properties defaultProperties = defaultFile.getProperties();
-            for ( Object o : defaultProperties.keySet() )
+            Messages defaultMessages = defaultFile.getMessages();
+            KeyMatcher ignoreKeys = checks.getIgnoreKeyMatcher();
+            for ( int i = 0; i < defaultMessages.size(); i++ )
             {
-                String key = o.toString();
-                if ( !isIgnoreKey( key, checks.getIgnoreKeys() ) )
+                int ordinal = defaultMessages.getOrdinal( i );
+                String key = defaultMessages.getKey( ordinal );
+                if ( !ignoreKeys.matches( key ) )
                 {
-                    String defaultProperty = defaultProperties.getProperty( key );
-                    String translatedProperty = getProperties().getProperty( key );
+                    String defaultProperty = defaultMessages.get( ordinal );
+                    String translatedProperty = translated.get( ordinal );
 
                     if ( translatedProperty == null )
                     {
@@ -331,30 +523,35 @@ public class ResourceFile
                 }
             }
 
-            for ( Object o : getProperties().keySet() )
+            for ( int i = 0; i < translated.size(); i++ )
             {
-                String key = o.toString();
-                if ( !isIgnoreKey( key, checks.getIgnoreKeys() ) && defaultProperties.getProperty( key ) == null )
+                int ordinal = translated.getOrdinal( i );
+                String key = translated.getKey( ordinal );
+                if ( !ignoreKeys.matches( key ) && defaultMessages.get( ordinal ) == null )
                 {
-                    additionalKeys.put( key, getProperties().getProperty( key ) );
+                    additionalKeys.put( key, translated.get( ordinal ) );
                 }
             }
 
-            model.setInconsistentTranslations( determineInconsistentTranslations( defaultFile ) );
+            model.setInconsistentTranslations( determineInconsistentTranslations( translated ) );
         }
 
         model.setNotTranslatedMessages( notTranslatedKeys );
         model.setMissingMessages( missingKeys );
         model.setAdditionalMessages( additionalKeys );
 
-        if ( svnInfo == null )
+        if ( svnInfo == null && svnInfoCache != null )
+        {
+            svnInfo = svnInfoCache.get( log, relativeFilePath );
+        }
+        else if ( svnInfo == null )
         {
             svnInfo = svn.checkFile( log, repo.getType(), svnRepoUrl, checkedOutPath, relativeFilePath );
         }
         String info = "Revision " + svnInfo.getRevision() + " (" + svnInfo.getCommittedDate() + ")";
         model.setSvnInfo( info );
 
-        List<String> issues = executeChecks( checks.getIncludeVariants(), detectedEncoding, notTranslatedKeys,
+        List<String> issues = executeChecks( checks.getIncludeVariants(), fileAnalysis, notTranslatedKeys,
                 missingKeys, additionalKeys, defaultFile );
 
         StatusClass status;
@@ -376,32 +573,15 @@ public class ResourceFile
         return model;
     }
 
-    private Map<String, String[]> determineInconsistentTranslations( ResourceFile defaultFile )
+    private Map<String, String[]> determineInconsistentTranslations( Messages translated )
     {
-        Map<String, List<String>> duplicates = new HashMap<String, List<String>>();
-        Properties defaultProperties = defaultFile.getProperties();
-        for ( Object o : defaultProperties.keySet() )
-        {
-            String key = o.toString();
-            String message = defaultProperties.getProperty( key );
-            List<String> keys = duplicates.get( message );
-            if ( keys == null )
-            {
-                keys = new ArrayList<String>();
-                duplicates.put( message, keys );
-            }
-            keys.add( key );
-        }
-
         Map<String, String[]> inconsistentTranslations = new HashMap<String, String[]>();
-        for ( Map.Entry<String, List<String>> entry : duplicates.entrySet() )
+        for ( DuplicateMessage duplicate : bundle.getDuplicateDefaultMessages() )
         {
-            List<String> keys = entry.getValue();
-            Collections.sort( keys );
             Set<String> messages = new HashSet<String>();
-            for ( String key : keys )
+            for ( int ordinal : duplicate.getOrdinals() )
             {
-                String translation = properties.getProperty( key );
+                String translation = translated.get( ordinal );
                 if ( translation != null )
                 {
                     messages.add( translation );
@@ -409,18 +589,19 @@ public class ResourceFile
             }
             if ( messages.size() > 1 )
             {
-                inconsistentTranslations.put( entry.getKey(),
-                        new String[] { String.valueOf( keys ), String.valueOf( messages ) } );
+                inconsistentTranslations.put( duplicate.getMessage(),
+                        new String[] { String.valueOf( duplicate.getKeys() ), String.valueOf( messages ) } );
             }
         }
         return inconsistentTranslations;
     }
 
-    private List<String> executeChecks( List<String> includeVariants, EncodingResult detectedEncoding,
+    private List<String> executeChecks( List<String> includeVariants, FileAnalysis fileAnalysis,
             Map<String, String> notTranslatedKeys,
             Map<String, String> missingKeys, Map<String, String> additionalKeys, ResourceFile defaultFile )
     {
         List<String> issues = new ArrayList<String>();
+        EncodingResult detectedEncoding = fileAnalysis.getEncoding();
 
         // wrong encoding
         if ( detectedEncoding.getDetected() == Encoding.OTHER )
@@ -439,7 +620,7 @@ public class ResourceFile
         if ( defaultFile != null && ( !isVariant() || includeVariants.contains( this.getLanguage() ) ) )
         {
             double missingPercentage = 100.0 * ( notTranslatedKeys.size() + missingKeys.size() )
-                    / defaultFile.getProperties().size();
+                    / defaultFile.getMessages().size();
             if ( missingPercentage > config.getChecks().getPercentageMissing() )
             {
                 issues.add( String.format( Locale.ENGLISH, "%.2f %% missing or not translated keys",
@@ -452,68 +633,55 @@ public class ResourceFile
             issues.add( "There are additional keys" );
         }
 
-        if ( config.getChecks().isCheckFileHeaders() )
+        if ( config.getChecks().isCheckFileHeaders() && !Boolean.TRUE.equals( fileAnalysis.getFileHeader() ) )
         {
-            try
-            {
-                String s = IOUtil.toString( new InputStreamReader( new FileInputStream( new File( fullLocalPath ) ),
-                        new UTF8BOMCharsetProvider().charsetForName( "UTF-8-BOM" ) ) );
-                Pattern p = Pattern.compile( config.getChecks().getFileHeaderRegexp(), Pattern.MULTILINE );
-
-                Matcher m = p.matcher( s );
-                if ( !m.find() || m.start() > 0 )
-                {
-                    issues.add( "File header missing or not at the beginning of the file" );
-                }
-
-            }
-            catch ( Exception e )
-            {
-                throw new RuntimeException( e );
-            }
+            issues.add( "File header missing or not at the beginning of the file" );
         }
 
-        if ( detectedEncoding.getDetected() == Encoding.UTF8_BOM )
+        if ( fileAnalysis.isMessageInFirstLine() )
         {
-            BufferedReader reader = null;
-            try
-            {
-                reader = new BufferedReader( new InputStreamReader( new FileInputStream( new File( fullLocalPath ) ),
-                        new UTF8BOMCharsetProvider().charsetForName( "UTF-8-BOM" ) ) );
-
-                String firstLine = reader.readLine();
-                if ( firstLine != null )
-                {
-                    firstLine = firstLine.trim();
-                    if ( !firstLine.startsWith( "#" ) && firstLine.indexOf( '=' ) > -1 )
-                    {
-                        issues.add( "File has BOM, but first line contains already a message."
-                                + "Please add a blank line." );
-                    }
-                }
-
-            }
-            catch ( Exception e )
-            {
-                throw new RuntimeException( e );
-            }
-            finally
-            {
-                IOUtil.close( reader );
-            }
+            issues.add( "File has BOM, but first line contains already a message."
+                    + "Please add a blank line." );
         }
         return issues;
     }
 
-    private boolean isIgnoreKey( String key, List<String> ignoreKeys )
+    /**
+     * Checks whether the first line of the file contains already a message. That's a problem
+     * for files with a BOM, as the BOM would be part of the first key.
+     */
+    private boolean hasMessageInFirstLine( String text ) throws IOException
     {
-        if ( ignoreKeys != null )
+        BufferedReader reader = new BufferedReader( new StringReader( text ) );
+        String firstLine = reader.readLine();
+        if ( firstLine != null )
         {
-            return ignoreKeys.contains( key );
+            firstLine = firstLine.trim();
+            return !firstLine.startsWith( "#" ) && firstLine.indexOf( '=' ) > -1;
         }
         return false;
     }
 
+    /**
+     * Checks whether the file starts with the header. Usually only the beginning of the file needs to be
+     * matched. Only if the pattern could match more, the complete file is used.
+     */
+    private boolean hasFileHeader( Pattern pattern, String s )
+    {
+        Matcher m = pattern.matcher( s );
+        // the end of the region is not the end of the file, e.g. for "$"
+        m.useTransparentBounds( true );
+        m.useAnchoringBounds( false );
+        m.region( 0, Math.min( s.length(), FILE_HEADER_PREFIX_LENGTH ) );
+        boolean found = m.lookingAt();
+        if ( !found && m.hitEnd() && m.regionEnd() < s.length() )
+        {
+            m.reset();
+            found = m.lookingAt();
+        }
+        return found;
+    }
+
     /**
      * Returns the base name of this file without the filename suffix and without the locale.
      * @return the base name
@@ -14,16 +14,14 @@ package net.sf.yal10n.analyzer;
  * limitations under the License.
  */
 
-import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
-import java.nio.channels.FileChannel;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CoderResult;
@@ -40,10 +38,40 @@ public class SimpleEncodingDetector
     static final byte[] UTF8_BOM_BYTES = new byte[] { (byte) 0xef, (byte) 0xbb, (byte) 0xbf };
     private static final Charset UTF8 = Charset.forName( "UTF-8" );
 
+    private static final int BYTE_MASK = 0xff;
+    private static final int NON_ASCII_BIT = 0x80;
+    private static final int CONTINUATION_MASK = 0xc0;
+    private static final int CONTINUATION_MIN = 0x80;
+    private static final int CONTINUATION_MAX = 0xbf;
+    private static final int LEAD_2_MIN = 0xc2;
+    private static final int LEAD_2_MAX = 0xdf;
+    private static final int LEAD_3_MIN = 0xe0;
+    private static final int LEAD_3_MAX = 0xef;
+    private static final int LEAD_4_MIN = 0xf0;
+    private static final int LEAD_4_MAX = 0xf4;
+    /** After 0xe0 only 0xa0..0xbf are allowed, everything below would be an overlong encoding. */
+    private static final int LEAD_E0_SECOND_MIN = 0xa0;
+    /** After 0xed only 0x80..0x9f are allowed, everything above would be a surrogate. */
+    private static final int LEAD_ED = 0xed;
+    private static final int LEAD_ED_SECOND_MAX = 0x9f;
+    /** After 0xf0 only 0x90..0xbf are allowed, everything below would be an overlong encoding. */
+    private static final int LEAD_F0_SECOND_MIN = 0x90;
+    /** After 0xf4 only 0x80..0x8f are allowed, everything above would be greater than U+10FFFF. */
+    private static final int LEAD_F4_SECOND_MAX = 0x8f;
+    /** The replacement character U+FFFD is encoded as 0xef 0xbf 0xbd. */
+    private static final int REPLACEMENT_THIRD = 0xbd;
+
+    /** The number of bytes, that are checked at once as long as the content is ASCII. */
+    private static final int WORD_LENGTH = 8;
+    private static final long NON_ASCII_WORD = 0x8080808080808080L;
+    private static final long ONES_WORD = 0x0101010101010101L;
+    private static final long LF_WORD = ONES_WORD * '\n';
+    private static final long CR_WORD = ONES_WORD * '\r';
+
     private int bufferSize = 1024;
 
     /**
-     * Sets the buffer size to use when reading files.
+     * Sets the buffer size to use when decoding broken content to describe the error.
      * @param bufferSize the buffer size in bytes
      */
     public void setBufferSize( int bufferSize )
@@ -72,130 +100,281 @@ public class SimpleEncodingDetector
         return encodingResult;
     }
 
-    private EncodingResult doDetect( File f )
+    /**
+     * Determines the encoding of the given file content, e.g. if the file has been read already.
+     * @param content the complete content of the file
+     * @return the encoding, never <code>null</code>.
+     */
+    public EncodingResult detectEncoding( byte[] content )
     {
+        boolean hasBOM = content.length >= UTF8_BOM_BYTES.length && isBOM( content );
         EncodingResult encodingResult = new EncodingResult();
+        if ( isWellFormedUTF8( content, hasBOM ? UTF8_BOM_BYTES.length : 0, encodingResult ) )
+        {
+            encodingResult.setDetected( hasBOM ? Encoding.UTF8_BOM : Encoding.UTF8 );
+        }
+        else
+        {
+            // the position, line and column are known already, the decoder only describes the error
+            try
+            {
+                EncodingResult decoded = decode( Channels.newChannel( new ByteArrayInputStream( content ) ),
+                        hasBOM );
+                encodingResult.setError( decoded.getError() );
+            }
+            catch ( IOException e )
+            {
+                throw new RuntimeException( e );
+            }
+        }
+        return encodingResult;
+    }
+
+    private EncodingResult doDetect( File f )
+    {
+        // the same check as for the content, so that both report the same error position, line and column
         FileInputStream in = null;
         try
         {
             in = new FileInputStream( f );
+            return detectEncoding( IOUtil.toByteArray( in ) );
+        }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( e );
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+    }
 
-            byte[] bom = new byte[3];
-            boolean hasBOM = in.read( bom ) == 3 && isBOM( bom );
-
-            FileChannel channel = in.getChannel().position( 0L );
-            CharsetDecoder utf8decoder = UTF8.newDecoder();
-            utf8decoder.onMalformedInput( CodingErrorAction.REPORT );
-            utf8decoder.onUnmappableCharacter( CodingErrorAction.REPORT );
-
-            ByteBuffer buffer = ByteBuffer.allocate( bufferSize );
-            CharBuffer out = CharBuffer.allocate( bufferSize );
-            CoderResult result = null;
-            long decoderPosition = 0;
-            while ( channel.read( buffer )  > -1 )
-            {
-                buffer.flip();
-                result = utf8decoder.decode( buffer, out, false );
-                decoderPosition += buffer.position();
-                buffer.compact();
-                if ( result.isError() )
-                {
-                    break;
-                }
-                out.flip();
-                String decodedString = out.toString();
-                int replacementPosition = decodedString.indexOf( utf8decoder.replacement() );
-                if ( replacementPosition > -1 )
-                {
-                    decoderPosition = decoderPosition - decodedString.length() + replacementPosition;
-                    result = CoderResult.unmappableForLength( 1 );
-                    break;
-                }
-                out.clear();
+    private EncodingResult decode( ReadableByteChannel channel, boolean hasBOM ) throws IOException
+    {
+        EncodingResult encodingResult = new EncodingResult();
+        CharsetDecoder utf8decoder = UTF8.newDecoder();
+        utf8decoder.onMalformedInput( CodingErrorAction.REPORT );
+        utf8decoder.onUnmappableCharacter( CodingErrorAction.REPORT );
+
+        ByteBuffer buffer = ByteBuffer.allocate( bufferSize );
+        CharBuffer out = CharBuffer.allocate( bufferSize );
+        CoderResult result = null;
+        long decoderPosition = 0;
+        while ( channel.read( buffer )  > -1 )
+        {
+            buffer.flip();
+            result = utf8decoder.decode( buffer, out, false );
+            decoderPosition += buffer.position();
+            buffer.compact();
+            if ( result.isError() )
+            {
+                break;
             }
-            if ( result != null && !result.isError() )
+            out.flip();
+            String decodedString = out.toString();
+            int replacementPosition = decodedString.indexOf( utf8decoder.replacement() );
+            if ( replacementPosition > -1 )
             {
-                buffer.flip();
-                out.clear();
-                result = utf8decoder.decode( buffer, out, true );
-                out.clear();
-                utf8decoder.flush( out );
+                decoderPosition = decoderPosition - decodedString.length() + replacementPosition;
+                result = CoderResult.unmappableForLength( 1 );
+                break;
             }
-            if ( result != null && !result.isError() )
+            out.clear();
+        }
+        if ( result != null && !result.isError() )
+        {
+            buffer.flip();
+            out.clear();
+            result = utf8decoder.decode( buffer, out, true );
+            out.clear();
+            utf8decoder.flush( out );
+        }
+        if ( result != null && !result.isError() )
+        {
+            if ( hasBOM )
             {
-                if ( hasBOM )
-                {
-                    encodingResult.setDetected( Encoding.UTF8_BOM );
-                }
-                else
-                {
-                    encodingResult.setDetected( Encoding.UTF8 );
-                }
+                encodingResult.setDetected( Encoding.UTF8_BOM );
             }
             else
             {
-                encodingResult.setError( String.valueOf( result ) );
-                encodingResult.setErrorPosition( decoderPosition );
-                determineLineAndColumn( f, encodingResult );
+                encodingResult.setDetected( Encoding.UTF8 );
             }
         }
-        catch ( IOException e )
-        {
-            throw new RuntimeException( e );
-        }
-        finally
+        else
         {
-            IOUtil.close( in );
+            encodingResult.setError( String.valueOf( result ) );
+            encodingResult.setErrorPosition( decoderPosition );
         }
         return encodingResult;
     }
 
     /**
-     * Takes the error position of the given encoding result and
-     * determines the line number and column number, where the
-     * error occurred.
-     * @param f the file
-     * @param encodingResult the result
+     * Checks whether the given content is well-formed UTF-8 and doesn't contain the replacement character,
+     * without decoding it.
+     *
+     * @param content the content
+     * @param start the index of the first byte to check
+     * @return <code>true</code> if the decoder would report no error
      */
-    private void determineLineAndColumn( File f, EncodingResult encodingResult )
+    static boolean isWellFormedUTF8( byte[] content, int start )
     {
-        BufferedReader in = null;
-        try
+        return isWellFormedUTF8( content, start, null );
+    }
+
+    /**
+     * Checks whether the given content is well-formed UTF-8 and doesn't contain the replacement character,
+     * without decoding it. The lines are counted along the way, so that the position, line and column of
+     * an error are known without reading the content a second time. ASCII text is checked eight bytes at a
+     * time, only words with a line break are looked at byte by byte.
+     *
+     * @param content the content
+     * @param start the index of the first byte to check
+     * @param result the result, that gets the position, line and column of an error, might be <code>null</code>
+     * @return <code>true</code> if the decoder would report no error
+     */
+    static boolean isWellFormedUTF8( byte[] content, int start, EncodingResult result )
+    {
+        int length = content.length;
+        int line = 1;
+        int lineStart = 0;
+        int i = start;
+        ByteBuffer words = ByteBuffer.wrap( content );
+        while ( i < length )
         {
-            in = new BufferedReader( new InputStreamReader( new FileInputStream( f ), "ISO-8859-1" ) );
-            String line;
-            long position = 0;
-            int lineNumber = 0;
-            while ( ( line = in.readLine() ) != null )
-            {
-                lineNumber++;
-                position += line.length() + 1; // assumes 1 byte newline character
-                if ( position >= encodingResult.getErrorPosition() )
+            while ( i + WORD_LENGTH <= length )
+            {
+                long word = words.getLong( i );
+                if ( ( word & NON_ASCII_WORD ) != 0 )
                 {
-                    long lineStartPosition = position - line.length() - 1;
-                    encodingResult.setErrorLine( lineNumber );
-                    int columnPosition = (int) ( encodingResult.getErrorPosition() - lineStartPosition + 1 );
-                    encodingResult.setErrorColumn( columnPosition );
                     break;
                 }
+                if ( hasZeroByte( word ^ LF_WORD ) || hasZeroByte( word ^ CR_WORD ) )
+                {
+                    for ( int end = i + WORD_LENGTH; i < end; i++ )
+                    {
+                        if ( isLineBreak( content, i ) )
+                        {
+                            line++;
+                            lineStart = i + 1;
+                        }
+                        else if ( content[i] == '\n' )
+                        {
+                            lineStart = i + 1;
+                        }
+                    }
+                }
+                else
+                {
+                    i += WORD_LENGTH;
+                }
             }
+            if ( i >= length )
+            {
+                break;
+            }
+            int lead = content[i] & BYTE_MASK;
+            if ( lead < NON_ASCII_BIT )
+            {
+                if ( isLineBreak( content, i ) )
+                {
+                    line++;
+                    lineStart = i + 1;
+                }
+                else if ( lead == '\n' )
+                {
+                    lineStart = i + 1;
+                }
+                i++;
+                continue;
+            }
+
+            int continuationBytes;
+            int secondMin = CONTINUATION_MIN;
+            int secondMax = CONTINUATION_MAX;
+            if ( lead >= LEAD_2_MIN && lead <= LEAD_2_MAX )
+            {
+                continuationBytes = 1;
+            }
+            else if ( lead >= LEAD_3_MIN && lead <= LEAD_3_MAX )
+            {
+                continuationBytes = 2;
+                if ( lead == LEAD_3_MIN )
+                {
+                    secondMin = LEAD_E0_SECOND_MIN;
+                }
+                else if ( lead == LEAD_ED )
+                {
+                    secondMax = LEAD_ED_SECOND_MAX;
+                }
+            }
+            else if ( lead >= LEAD_4_MIN && lead <= LEAD_4_MAX )
+            {
+                continuationBytes = 3;
+                if ( lead == LEAD_4_MIN )
+                {
+                    secondMin = LEAD_F0_SECOND_MIN;
+                }
+                else if ( lead == LEAD_4_MAX )
+                {
+                    secondMax = LEAD_F4_SECOND_MAX;
+                }
+            }
+            else
+            {
+                return setError( result, i, line, lineStart );
+            }
+
+            if ( i + continuationBytes >= length )
+            {
+                return setError( result, i, line, lineStart );
+            }
+            int second = content[i + 1] & BYTE_MASK;
+            if ( second < secondMin || second > secondMax )
+            {
+                return setError( result, i, line, lineStart );
+            }
+            for ( int k = 2; k <= continuationBytes; k++ )
+            {
+                if ( ( content[i + k] & CONTINUATION_MASK ) != CONTINUATION_MIN )
+                {
+                    return setError( result, i, line, lineStart );
+                }
+            }
+            if ( lead == LEAD_3_MAX && second == CONTINUATION_MAX
+                    && ( content[i + 2] & BYTE_MASK ) == REPLACEMENT_THIRD )
+            {
+                return setError( result, i, line, lineStart );
+            }
+            i += continuationBytes + 1;
         }
-        catch ( UnsupportedEncodingException e )
-        {
-            throw new RuntimeException( e );
-        }
-        catch ( FileNotFoundException e )
-        {
-            throw new RuntimeException( e );
-        }
-        catch ( IOException e )
-        {
-            throw new RuntimeException( e );
-        }
-        finally
+        return true;
+    }
+
+    /**
+     * Checks whether a new line starts after the given byte. \r\n is one line break, that is counted at the \r.
+     */
+    private static boolean isLineBreak( byte[] content, int i )
+    {
+        return content[i] == '\r' || content[i] == '\n' && ( i == 0 || content[i - 1] != '\r' );
+    }
+
+    /**
+     * Checks whether one of the bytes of the given word is zero, the word must not contain non-ASCII bytes.
+     */
+    private static boolean hasZeroByte( long word )
+    {
+        return ( ( word - ONES_WORD ) & ~word & NON_ASCII_WORD ) != 0;
+    }
+
+    private static boolean setError( EncodingResult result, int position, int line, int lineStart )
+    {
+        if ( result != null )
         {
-            IOUtil.close( in );
+            result.setErrorPosition( position );
+            result.setErrorLine( line );
+            result.setErrorColumn( position - lineStart + 1 );
         }
+        return false;
     }
 
     private boolean isBOM( byte[] bom )
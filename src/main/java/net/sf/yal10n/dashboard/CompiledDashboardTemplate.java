@@ -0,0 +1,209 @@
+package net.sf.yal10n.dashboard;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.List;
+
+import net.sf.yal10n.report.HtmlWriter;
+
+/**
+ * The compiled version of <code>velocity/dashboard.vm</code>. It creates exactly the same output as the
+ * velocity template, including the whitespace, that velocity leaves around the directives. Any change
+ * of the template needs to be done here, too.
+ */
+final class CompiledDashboardTemplate
+{
+    /** The indentation of the <code>#set</code> and <code>#if</code> directives of the project row. */
+    private static final String PROJECT_ROW_INDENT = "                                    ";
+
+    private CompiledDashboardTemplate()
+    {
+        // utility class
+    }
+
+    /**
+     * Renders the dashboard.
+     *
+     * @param dashboard the dashboard model
+     * @param out the writer
+     * @throws IOException any error while writing
+     */
+    static void render( DashboardModel dashboard, HtmlWriter out ) throws IOException
+    {
+        out.write( "<!DOCTYPE html>\n" );
+        out.write( "<!--[if IE 9]><html class=\"lt-ie10\" lang=\"en\" > <![endif]-->\n" );
+        out.write( "<html class=\"no-js\" lang=\"en\" >\n" );
+        out.write( "  <head>\n" );
+        out.write( "    <title>yal10n dashboard</title>\n" );
+        out.write( "    <meta charset=\"utf-8\">\n" );
+        out.write( "    <meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\">\n" );
+        out.write( "\n" );
+        out.write( "    <link href=\"webjars/normalize.css/normalize.css\" type=\"text/css\" rel=\"stylesheet\"/>\n" );
+        out.write( "    <link href=\"webjars/foundation/css/foundation.min.css\" type=\"text/css\""
+                + " rel=\"stylesheet\"/>\n" );
+        out.write( "    <link href=\"default.css\" type=\"text/css\" rel=\"stylesheet\"/>\n" );
+        out.write( "    <script src=\"webjars/modernizr/modernizr.min.js\"></script>\n" );
+        out.write( "  </head>\n" );
+        out.write( "  <body class=\"dashboard\">\n" );
+        out.write( "    <div class=\"contain-to-grid fixed\">\n" );
+        out.write( "      <nav class=\"top-bar\" data-topbar role=\"navigation\">\n" );
+        out.write( "        <ul class=\"title-area\">\n" );
+        out.write( "            <li class=\"name\">\n" );
+        out.write( "                <h1>\n" );
+        out.write( "                    <a href=\"#\">yal10n Dashboard</a>\n" );
+        out.write( "                </h1>\n" );
+        out.write( "            </li>\n" );
+        out.write( "        </ul>\n" );
+        out.write( "      </nav>\n" );
+        out.write( "    </div>\n" );
+        out.write( "\n" );
+        out.write( "    <div class=\"dashboard-border\">\n" );
+        out.write( "            <p>Generation Date: <span class=\"generation-date\"></span></p>\n" );
+        out.write( "\n" );
+        out.write( "            <table>\n" );
+        out.write( "              <tr>\n" );
+        out.write( "                <th>&nbsp;</th>\n" );
+        out.write( "                <th>Project Name</th>\n" );
+        out.write( "                <th>default</th>\n" );
+        List<String> allLanguages = dashboard.getAllLanguages();
+        if ( allLanguages != null )
+        {
+            for ( String lang : allLanguages )
+            {
+                out.write( "                <th>" );
+                out.value( lang, "$lang" );
+                out.write( "</th>\n" );
+            }
+        }
+        out.write( "                <th>Checkout SVN</th>\n" );
+        if ( dashboard.isCreateTmx() )
+        {
+            out.write( "                <th>Download TMX</th>\n" );
+        }
+        out.write( "            </tr>\n" );
+        out.write( "\n" );
+
+        if ( dashboard.getProjects() != null )
+        {
+            int cols = ( dashboard.isCreateTmx() ? 5 : 4 ) + ( allLanguages != null ? allLanguages.size() : 0 );
+            for ( ProjectModel project : dashboard.getProjects() )
+            {
+                out.write( "            <tr>\n" );
+                out.write( PROJECT_ROW_INDENT );
+                out.write( "                <td rowspan=\"" );
+                out.value( 1 + project.getAllBundles().size() );
+                out.write( "\" class=\"project-col\">&nbsp;</td>\n" );
+                out.write( "                <td colspan=\"" );
+                out.value( cols );
+                out.write( "\" class=\"project-row\">&nbsp;</td>\n" );
+                out.write( "            </tr>\n" );
+                for ( BundleModel bundle : project.getAllBundles() )
+                {
+                    renderBundle( dashboard, bundle, out );
+                }
+            }
+        }
+
+        out.write( "        </table>\n" );
+        out.write( "\n" );
+        if ( dashboard.isCreateTmx() )
+        {
+            out.write( "            <p>\n" );
+            out.write( "                <a href=\"all-translations.tmx\">Download complete translation memory</a>\n" );
+            out.write( "            </p>\n" );
+        }
+        out.write( "\n" );
+        out.write( "        <div>\n" );
+        out.write( "            &copy; Powered by <a href=\"http://yal10n.sf.net\">yal10n</a> " );
+        out.value( dashboard.getVersion(), "$dashboard.version" );
+        out.write( "\n" );
+        out.write( "        </div>\n" );
+        out.write( "    </div>\n" );
+        out.write( "\n" );
+        out.write( "    <script src=\"webjars/jquery/jquery.min.js\"></script>\n" );
+        out.write( "    <script src=\"webjars/foundation/js/foundation.min.js\"></script>\n" );
+        out.write( "    <script src=\"generation.js\"></script>\n" );
+        out.write( "    <script>\n" );
+        out.write( "      $(document).foundation();\n" );
+        out.write( "      $('.generation-date').text(yal10nGenerationDate);\n" );
+        out.write( "    </script>\n" );
+        out.write( "  </body>\n" );
+        out.write( "</html>\n" );
+    }
+
+    private static void renderBundle( DashboardModel dashboard, BundleModel bundle, HtmlWriter out )
+        throws IOException
+    {
+        LanguageModel base = bundle.getBase();
+        out.write( "            <tr>\n" );
+        out.write( "                <td class=\"highlight\">" );
+        out.value( bundle.getProjectName(), "$bundle.projectName" );
+        out.write( "</td>\n" );
+        if ( base != null )
+        {
+            out.write( "                <td class=\"" );
+            out.value( base.getStatus() != null ? base.getStatus().getDashboardClass() : null,
+                    "$bundle.base.status.dashboardClass" );
+            out.write( "\">\n" );
+            out.write( "                    <a href=\"reports/" );
+            out.value( bundle.getRelativeReportUrl(), "$bundle.relativeReportUrl" );
+            out.write( "#default\">default</a>\n" );
+        }
+        else
+        {
+            out.write( "                <td class=\"severity-major\">\n" );
+            out.write( "                    n/a\n" );
+        }
+        out.write( "                </td>\n" );
+        out.write( "\n" );
+
+        for ( LanguageModel lang : bundle.getLanguages() )
+        {
+            out.write( "                <td class=\"" );
+            out.value( lang.getStatus() != null ? lang.getStatus().getDashboardClass() : null,
+                    "$lang.status.dashboardClass" );
+            out.write( "\">\n" );
+            if ( lang.isExisting() )
+            {
+                out.write( "                    <a href=\"reports/" );
+                out.value( bundle.getRelativeReportUrl(), "$bundle.relativeReportUrl" );
+                out.write( '#' );
+                out.value( lang.getName(), "$lang.name" );
+                out.write( "\">" );
+                out.value( lang.getName(), "$lang.name" );
+                out.write( "</a>\n" );
+            }
+            else
+            {
+                out.write( "                    n/a\n" );
+            }
+            out.write( "                </td>\n" );
+        }
+
+        out.write( "\n" );
+        out.write( "                <td class=\"highlight\"><a href=\"" );
+        out.value( base != null ? base.getSvnCheckoutUrl() : null, "$bundle.base.svnCheckoutUrl" );
+        out.write( "\">checkout</a></td>\n" );
+        out.write( "\n" );
+        if ( dashboard.isCreateTmx() )
+        {
+            out.write( "                <td class=\"highlight\"><a href=\"reports/" );
+            out.value( bundle.getRelativeTmxUrl(), "$bundle.relativeTmxUrl" );
+            out.write( "\">Download TMX</a></td>\n" );
+        }
+        out.write( "              </tr>\n" );
+    }
+}
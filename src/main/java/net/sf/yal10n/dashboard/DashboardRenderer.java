@@ -14,55 +14,95 @@ package net.sf.yal10n.dashboard;
  * limitations under the License.
  */
 
-import java.io.FileOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
-import java.util.Properties;
 
+import net.sf.yal10n.ReplaceIfChangedOutputStream;
+import net.sf.yal10n.report.HtmlWriter;
+import net.sf.yal10n.report.VelocityTemplates;
+
+import org.apache.commons.text.StringEscapeUtils;
 import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
-import org.apache.velocity.app.VelocityEngine;
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.StringUtils;
 
 /**
  * Renders the dashboard overview. It contains links to the more detailed language reports.
+ * The dashboard is rendered with velocity or with the compiled template, which creates the same output.
  */
 @Component( role = DashboardRenderer.class, hint = "DashboardRenderer" )
 public class DashboardRenderer
 {
+    /**
+     * The script, that contains the generation date. The date changes with every run, so it is not part
+     * of the pages, which would change with every run otherwise.
+     */
+    public static final String GENERATION_SCRIPT = "generation.js";
+    private final Template template = VelocityTemplates.load( "velocity/dashboard.vm" );
+    private boolean compiled;
+
+    /**
+     * Sets whether the compiled template should be used instead of the velocity template.
+     *
+     * @param compiled <code>true</code> to use the compiled template
+     */
+    public void setCompiled( boolean compiled )
+    {
+        this.compiled = compiled;
+    }
 
     void render( DashboardModel model, Writer out )
     {
-        VelocityEngine ve = new VelocityEngine();
-        Properties vProperties = new Properties();
-        vProperties.put( "resource.loader", "class" );
-        vProperties.put( "class.resource.loader.description", "Velocity Classpath Resource Loader" );
-        vProperties.put( "class.resource.loader.class",
-                "org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader" );
-        ve.init( vProperties );
-        Template template = ve.getTemplate( "velocity/dashboard.vm" );
+        if ( compiled )
+        {
+            HtmlWriter html = new HtmlWriter( out );
+            try
+            {
+                CompiledDashboardTemplate.render( model, html );
+                html.flush();
+            }
+            catch ( IOException e )
+            {
+                throw new RuntimeException( e );
+            }
+            return;
+        }
         VelocityContext ctx = new VelocityContext();
         ctx.put( "dashboard", model );
         template.merge( ctx, out );
     }
 
     /**
-     * Renders the dashboard.
+     * Renders the dashboard and the script with the generation date. The files are only written,
+     * if their content changed.
      *
      * @param model the model
      * @param outputDirectory the output directory
      */
     public void render( DashboardModel model, String outputDirectory )
     {
-        Writer out = null;
+        ReplaceIfChangedOutputStream stream = null;
         try
         {
-            out = new OutputStreamWriter( new FileOutputStream( FileUtils.normalize( outputDirectory
-                    + "/dashboard.html" ) ), "UTF-8" );
+            stream = new ReplaceIfChangedOutputStream( new File( FileUtils.normalize( outputDirectory
+                    + "/dashboard.html" ) ) );
+            Writer out = new OutputStreamWriter( stream, "UTF-8" );
             render( model, out );
+            out.flush();
+            stream.commit();
+            IOUtil.close( stream );
+
+            String script = "var yal10nGenerationDate = \""
+                    + StringEscapeUtils.escapeEcmaScript( StringUtils.defaultString( model.getGenerationDate() ) )
+                    + "\";\n";
+            ReplaceIfChangedOutputStream.copy( new ByteArrayInputStream( script.getBytes( "UTF-8" ) ),
+                    new File( FileUtils.normalize( outputDirectory + "/" + GENERATION_SCRIPT ) ) );
         }
         catch ( IOException e )
         {
@@ -70,7 +110,7 @@ public class DashboardRenderer
         }
         finally
         {
-            IOUtil.close( out );
+            IOUtil.close( stream );
         }
     }
 }
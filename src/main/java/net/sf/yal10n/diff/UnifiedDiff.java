@@ -28,7 +28,8 @@ import org.apache.commons.text.StringEscapeUtils;
  */
 public class UnifiedDiff
 {
-    private static final Pattern HUNK_START_PATTERN = Pattern.compile( "^@@ \\-(\\d+),(\\d+) \\+(\\d+),(\\d+) @@" );
+    private static final Pattern HUNK_START_PATTERN = Pattern.compile(
+            "^@@ \\-(\\d+)(?:,(\\d+))? \\+(\\d+)(?:,(\\d+))? @@" );
     private String originalName;
     private String newName;
     private List<Hunk> hunks = new ArrayList<Hunk>();
@@ -0,0 +1,515 @@
+package net.sf.yal10n.report;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.yal10n.dashboard.LanguageModel;
+import net.sf.yal10n.dashboard.StatusClass;
+
+/**
+ * The compiled version of <code>velocity/report.vm</code>. It creates exactly the same output as the
+ * velocity template, including the whitespace, that velocity leaves around the directives. Any change
+ * of the template needs to be done here, too.
+ */
+final class CompiledReportTemplate
+{
+    private static final String NAME = "$lang.name";
+    private static final String NAME_BRACES = "${lang.name}";
+    /** The indentation of the directives in the accordion, which velocity keeps. */
+    private static final String INDENT = "                  ";
+
+    private CompiledReportTemplate()
+    {
+        // utility class
+    }
+
+    /**
+     * Renders the report.
+     *
+     * @param report the report model
+     * @param out the writer
+     * @throws IOException any error while writing
+     */
+    static void render( ReportModel report, HtmlWriter out ) throws IOException
+    {
+        String projectName = report.getProjectName();
+        String projectNameRef = "$report.projectName";
+        out.write( "<!DOCTYPE html>\n" );
+        out.write( "<!--[if IE 9]><html class=\"lt-ie10\" lang=\"en\" > <![endif]-->\n" );
+        out.write( "<html class=\"no-js\" lang=\"en\" >\n" );
+        out.write( "  <head>\n" );
+        out.write( "    <title>yal10n - Report for " );
+        out.value( projectName, projectNameRef );
+        out.write( "</title>\n" );
+        out.write( "    <meta charset=\"utf-8\">\n" );
+        out.write( "    <meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\">\n" );
+        out.write( "\n" );
+        out.write( "    <link href=\"../webjars/normalize.css/normalize.css\" type=\"text/css\""
+                + " rel=\"stylesheet\"/>\n" );
+        out.write( "    <link href=\"../webjars/foundation/css/foundation.min.css\" type=\"text/css\""
+                + " rel=\"stylesheet\"/>\n" );
+        out.write( "    <link href=\"../default.css\" type=\"text/css\" rel=\"stylesheet\"/>\n" );
+        out.write( "    <script src=\"../webjars/modernizr/modernizr.min.js\"></script>\n" );
+        out.write( "  </head>\n" );
+        out.write( "  <body>\n" );
+        out.write( "  <body class=\"report\">\n" );
+        out.write( "    <div class=\"contain-to-grid fixed\">\n" );
+        out.write( "      <nav class=\"top-bar\" data-topbar role=\"navigation\">\n" );
+        out.write( "        <ul class=\"title-area\">\n" );
+        out.write( "            <li class=\"name\">\n" );
+        out.write( "                <h1>\n" );
+        out.write( "                    <a href=\"#\">yal10n - Report for " );
+        out.value( projectName, projectNameRef );
+        out.write( "</a>\n" );
+        out.write( "                </h1>\n" );
+        out.write( "            </li>\n" );
+        out.write( "        </ul>\n" );
+        out.write( "        <section class=\"top-bar-section\">\n" );
+        out.write( "            <ul class=\"right\">\n" );
+        out.write( "                <li class=\"active\"><a href=\"../dashboard.html\">Back to dashboard</a></li>\n" );
+        out.write( "            </ul>\n" );
+        out.write( "        </section>\n" );
+        out.write( "      </nav>\n" );
+        out.write( "    </div>\n" );
+        out.write( "\n" );
+        out.write( "    <div class=\"row\">\n" );
+        out.write( "      <div class=\"columns\">\n" );
+        out.write( "        <p></p>\n" );
+        out.write( "        <dl class=\"accordion\" data-accordion>\n" );
+        out.write( "            <dd class=\"accordion-navigation\">\n" );
+        out.write( "                <a href=\"#info\"><strong>General info for " );
+        out.value( projectName, projectNameRef );
+        out.write( "</strong></a>\n" );
+        out.write( "                <div id=\"info\" class=\"content\">\n" );
+        out.write( "                    <dl>\n" );
+        out.write( "                        <dt>Generation Date:</dt>\n" );
+        out.write( "                        <dd class=\"generation-date\"></dd>\n" );
+        out.write( "                        <dt>Maven Coordinates:</dt>\n" );
+        out.write( "                        <dd>" );
+        out.value( report.getMavenCoordinates(), "$report.mavenCoordinates" );
+        out.write( "</dd>\n" );
+        out.write( "                        <dt>Base Path:</dt>\n" );
+        out.write( "                        <dd>" );
+        out.value( report.getBasePath(), "$report.basePath" );
+        out.write( "</dd>\n" );
+        out.write( "                        <dt>Base Name:</dt>\n" );
+        out.write( "                        <dd>" );
+        out.value( report.getBaseName(), "$report.baseName" );
+        out.write( "</dd>\n" );
+        out.write( "                    </dl>\n" );
+        out.write( "                </div>\n" );
+        out.write( "            </dd>\n" );
+        out.write( "        </dl>\n" );
+        out.write( "        <p></p>\n" );
+        out.write( "        <div class=\"panel radius callout\">Checkout: <a href=\"" );
+        out.value( report.getSvnCheckoutUrl(), "$report.svnCheckoutUrl" );
+        out.write( "\">" );
+        out.value( report.getSvnCheckoutUrl(), "$report.svnCheckoutUrl" );
+        out.write( "</a></div>\n" );
+        out.write( "        <p></p>\n" );
+        out.write( "\n" );
+
+        List<LanguageModel> languages = report.getAllLanguages();
+        renderSummary( languages, out );
+        renderLanguages( languages, out );
+
+        out.write( "\n" );
+        out.write( "    <div class=\"row\">\n" );
+        out.write( "      <div class=\"columns\">\n" );
+        out.write( "        &copy; Powered by <a href=\"http://yal10n.sf.net\">yal10n</a> " );
+        out.value( report.getVersion(), "$report.version" );
+        out.write( "\n" );
+        out.write( "      </div>\n" );
+        out.write( "    </div>\n" );
+        out.write( "\n" );
+        out.write( "    <script src=\"../webjars/jquery/jquery.min.js\"></script>\n" );
+        out.write( "    <script src=\"../webjars/foundation/js/foundation.min.js\"></script>\n" );
+        out.write( "    <script src=\"../generation.js\"></script>\n" );
+        out.write( "    <script>\n" );
+        out.write( "      $(document).foundation();\n" );
+        out.write( "      $('.generation-date').text(yal10nGenerationDate);\n" );
+        out.write( "    </script>\n" );
+        out.write( "  </body>\n" );
+        out.write( "</html>" );
+    }
+
+    private static void renderSummary( List<LanguageModel> languages, HtmlWriter out ) throws IOException
+    {
+        out.write( "        <table>\n" );
+        out.write( "          <tr>\n" );
+        out.write( "            <th>Language</th>\n" );
+        out.write( "            <th>Encoding</th>\n" );
+        out.write( "            <th>Count of Messages</th>\n" );
+        out.write( "            <th>Count of Not Translated Messages</th>\n" );
+        out.write( "            <th>Count of Missing Messages</th>\n" );
+        out.write( "            <th>Count of Additional Messages</th>\n" );
+        out.write( "          </tr>\n" );
+        if ( languages != null )
+        {
+            for ( LanguageModel lang : languages )
+            {
+                StatusClass status = lang.getStatus();
+                out.write( "          <tr>\n" );
+                out.write( "            <td><a href=\"#" );
+                out.value( lang.getName(), NAME );
+                out.write( "\"><span class=\"has-tip label round " );
+                out.value( status != null ? status.getFoundationClass() : null, "$lang.status.foundationClass" );
+                out.write( "\" data-tooltip aria-haspopup=\"true\" title=\"" );
+                out.value( status != null ? status.getMessage() : null, "$lang.status.message" );
+                out.write( "\">" );
+                out.value( lang.getName(), NAME );
+                out.write( "</span></a></td>\n" );
+                out.write( "            <td>" );
+                renderEncoding( lang, out );
+                out.write( "</td>\n" );
+                out.write( "            <td>" );
+                out.value( lang.getCountOfMessages() );
+                out.write( "</td>\n" );
+                out.write( "            <td>" );
+                out.value( lang.getNotTranslatedMessages().size() );
+                out.write( "</td>\n" );
+                out.write( "            <td>" );
+                out.value( lang.getMissingMessages().size() );
+                out.write( "</td>\n" );
+                out.write( "            <td>" );
+                out.value( lang.getAdditionalMessages().size() );
+                out.write( "</td>\n" );
+                out.write( "          </tr>\n" );
+            }
+        }
+        out.write( "        </table>\n" );
+        out.write( "\n" );
+    }
+
+    private static void renderEncoding( LanguageModel lang, HtmlWriter out ) throws IOException
+    {
+        StatusClass encodingStatus = lang.getEncodingStatus();
+        out.write( "<span class=\"label round " );
+        out.value( encodingStatus != null ? encodingStatus.getFoundationClass() : null,
+                "$lang.encodingStatus.foundationClass" );
+        out.write( "\">" );
+        out.value( lang.getEncoding(), "$lang.encoding" );
+        out.write( "</span>" );
+    }
+
+    private static void renderLanguages( List<LanguageModel> languages, HtmlWriter out ) throws IOException
+    {
+        out.write( "        <div class=\"languages\">\n" );
+        out.write( "          <dl class=\"tabs\" data-tab"
+                + " data-options=\"deep_linking:true;scroll_to_content: false\">\n" );
+        if ( languages != null )
+        {
+            for ( int i = 0; i < languages.size(); i++ )
+            {
+                String name = languages.get( i ).getName();
+                out.write( "            <dd class=\"" );
+                out.write( i == 0 ? "active" : "" );
+                out.write( "\">\n" );
+                out.write( "                <a href=\"#" );
+                out.value( name, NAME );
+                out.write( "\">" );
+                out.value( name, NAME );
+                out.write( "</a>\n" );
+                out.write( "            </dd>\n" );
+            }
+        }
+        out.write( "          </dl>\n" );
+        out.write( "\n" );
+        out.write( "          <div class=\"tabs-content\">\n" );
+        if ( languages != null )
+        {
+            for ( int i = 0; i < languages.size(); i++ )
+            {
+                renderLanguage( languages.get( i ), i == 0, out );
+            }
+        }
+        out.write( "          </div>\n" );
+        out.write( "        </div>\n" );
+        out.write( "      </div>\n" );
+        out.write( "    </div>\n" );
+    }
+
+    private static void renderLanguage( LanguageModel lang, boolean active, HtmlWriter out ) throws IOException
+    {
+        String name = lang.getName();
+        StatusClass status = lang.getStatus();
+        out.write( "            <div class=\"content " );
+        out.write( active ? "active" : "" );
+        out.write( "\" id=\"" );
+        out.value( name, NAME );
+        out.write( "\">\n" );
+        out.write( "\n" );
+        out.write( "              <div>Overall Status: <span class=\"label round " );
+        out.value( status != null ? status.getFoundationClass() : null, "$lang.status.foundationClass" );
+        out.write( "\">" );
+        out.value( status != null ? status.getMessage() : null, "$lang.status.message" );
+        out.write( "</span></div>\n" );
+        out.write( "              <div>Encoding: " );
+        renderEncoding( lang, out );
+        out.write( "</div>\n" );
+        out.write( "              <p></p>\n" );
+        out.write( "\n" );
+        out.write( "              <dl class=\"accordion\" data-accordion>\n" );
+
+        renderMessages( lang, "_missing", "Missing Keys:", lang.getMissingMessages(),
+                "No missing messages", "$lang.missingMessages", out );
+        renderMessages( lang, "_not_translated", "Not Translated:",
+                lang.getNotTranslatedMessages(), "No not translated messages", "$lang.notTranslatedMessages", out );
+        renderMessages( lang, "_additional", "Additional:", lang.getAdditionalMessages(),
+                "No additional messages", "$lang.additionalMessages", out );
+        renderInconsistentTranslations( lang, out );
+        renderIssues( lang, out );
+
+        out.write( "              </dl>\n" );
+        out.write( "\n" );
+        out.write( "              <p></p>\n" );
+        out.write( "              <dl class=\"accordion\" data-accordion>\n" );
+        out.write( "                <dd class=\"accordion-navigation\">\n" );
+        out.write( "                    <a href=\"#" );
+        out.value( name, NAME_BRACES );
+        out.write( "_statistics\"><strong>Statistics for " );
+        out.value( name, NAME_BRACES );
+        out.write( "</strong></a>\n" );
+        out.write( "                    <div id=\"" );
+        out.value( name, NAME_BRACES );
+        out.write( "_statistics\" class=\"content\">\n" );
+        out.write( "                        <dl>\n" );
+        out.write( "                            <dt>Analyzed version:</dt>\n" );
+        out.write( "                            <dd><span><a href=\"../" );
+        out.value( lang.getRelativeUrl(), "$lang.relativeUrl" );
+        out.write( "\">" );
+        out.value( lang.getSvnInfo(), "$lang.svnInfo" );
+        out.write( "</a></span></dd>\n" );
+        out.write( "                            <dt>Latest version:</dt>\n" );
+        out.write( "                            <dd><span><a href=\"" );
+        out.value( lang.getSvnUrl(), "$lang.svnUrl" );
+        out.write( "\">" );
+        out.value( lang.getSvnUrl(), "$lang.svnUrl" );
+        out.write( "</a></span></dd>\n" );
+        out.write( "                            <dt>Total Keys:</dt>\n" );
+        out.write( "                            <dd>" );
+        out.value( lang.getCountOfMessages() );
+        out.write( "</dd>\n" );
+        renderStatistic( "Missing Keys:", lang.getMissingMessages().size(), lang.getMissingMessagesPercentage(),
+                out );
+        renderStatistic( "Not Translated Keys:", lang.getNotTranslatedMessages().size(),
+                lang.getNotTranslatedMessagesPercentage(), out );
+        renderStatistic( "Additional Keys:", lang.getAdditionalMessages().size(),
+                lang.getAdditionalMessagesPercentage(), out );
+        out.write( "                        </dl>\n" );
+        out.write( "                    </div>\n" );
+        out.write( "              </dl>\n" );
+        out.write( "\n" );
+        out.write( "            </div>\n" );
+    }
+
+    private static void renderStatistic( String title, int count, String percentage, HtmlWriter out )
+        throws IOException
+    {
+        out.write( "                            <dt>" );
+        out.write( title );
+        out.write( "</dt>\n" );
+        out.write( "                            <dd>" );
+        out.value( count );
+        out.write( " (" );
+        out.write( percentage );
+        out.write( ")</dd>\n" );
+    }
+
+    /**
+     * Renders the start of an accordion section up to the <code>#if</code> directive, that checks
+     * whether the section is empty.
+     */
+    private static void renderSectionStart( LanguageModel lang, String ddClass, String suffix, String title,
+            String count, HtmlWriter out ) throws IOException
+    {
+        out.write( "                <dd class=\"" );
+        out.write( ddClass );
+        out.write( "\">\n" );
+        out.write( "                  <a href=\"#" );
+        out.value( lang.getName(), NAME_BRACES );
+        out.write( suffix );
+        out.write( "\"><strong>" );
+        out.write( title );
+        out.write( "</strong> <span class=\"round label\">" );
+        out.write( count );
+        out.write( "</span></a>\n" );
+        out.write( "                  <div id=\"" );
+        out.value( lang.getName(), NAME_BRACES );
+        out.write( suffix );
+        out.write( "\" class=\"content\">\n" );
+        out.write( INDENT );
+    }
+
+    private static void renderEmptySection( String message, HtmlWriter out ) throws IOException
+    {
+        out.write( INDENT );
+        out.write( "<span class=\"round label success\">" );
+        out.write( message );
+        out.write( "</span>\n" );
+        out.write( INDENT );
+    }
+
+    private static void renderSectionEnd( HtmlWriter out ) throws IOException
+    {
+        out.write( INDENT );
+        out.write( "</div>\n" );
+        out.write( "                </dd>\n" );
+    }
+
+    private static void renderExplanation( String text, LanguageModel lang, HtmlWriter out ) throws IOException
+    {
+        out.write( INDENT );
+        out.write( "<div class=\"panel callout radius\">\n" );
+        String[] parts = text.split( "\\{\\}", -1 );
+        for ( int i = 0; i < parts.length; i++ )
+        {
+            if ( i > 0 )
+            {
+                out.value( lang.getName(), NAME_BRACES );
+            }
+            out.write( parts[i] );
+        }
+        out.write( INDENT );
+        out.write( "</div>\n" );
+        out.write( INDENT );
+        out.write( "<pre>\n" );
+    }
+
+    private static void renderPreEnd( HtmlWriter out ) throws IOException
+    {
+        out.write( INDENT );
+        out.write( "</pre>\n" );
+        out.write( INDENT );
+    }
+
+    private static void renderMessages( LanguageModel lang, String suffix, String title,
+            Map<String, String> messages, String emptyMessage, String reference, HtmlWriter out )
+        throws IOException
+    {
+        renderSectionStart( lang, "accordion-navigation", suffix, title, Integer.toString( messages.size() ), out );
+        if ( messages.isEmpty() )
+        {
+            renderEmptySection( emptyMessage, out );
+        }
+        else
+        {
+            renderExplanation( explanation( suffix ), lang, out );
+            for ( Map.Entry<String, String> entry : messages.entrySet() )
+            {
+                out.escaped( entry.getKey(), "$esc.html($key)" );
+                out.write( '=' );
+                out.escaped( entry.getValue(), "$esc.html(" + reference + "[$key])" );
+                out.write( '\n' );
+            }
+            renderPreEnd( out );
+        }
+        renderSectionEnd( out );
+    }
+
+    private static String explanation( String suffix )
+    {
+        String explanation;
+        if ( "_missing".equals( suffix ) )
+        {
+            explanation = "                    These are messages that are contained in the default file, but not"
+                    + " in the file for \"{}\".\n"
+                    + "                    For these messages, the value in the default locale will be used.\n";
+        }
+        else if ( "_not_translated".equals( suffix ) )
+        {
+            explanation = "                    These are messages that are contained in both the default file and"
+                    + " the file for \"{}\".\n"
+                    + "                    However, in both files the values are the same. This could be correct,"
+                    + " but it could also mean,\n"
+                    + "                    that the translation was simply overlooked.\n";
+        }
+        else
+        {
+            explanation = "                    These are messages that are only contained in the file for \"{}\"."
+                    + " They don't exist (anymore)\n"
+                    + "                    in the default file. They can be safely deleted from the file for"
+                    + " \"{}\".\n";
+        }
+        return explanation;
+    }
+
+    private static void renderInconsistentTranslations( LanguageModel lang, HtmlWriter out ) throws IOException
+    {
+        Map<String, String[]> translations = lang.getInconsistentTranslations();
+        // the typo in the css class is part of the template
+        renderSectionStart( lang, "accrodion-navigation", "_inconsistent", "Inconsistent Translations:",
+                Integer.toString( translations.size() ), out );
+        if ( translations.isEmpty() )
+        {
+            renderEmptySection( "No inconsistent translations", out );
+        }
+        else
+        {
+            renderExplanation( "                    These are keys, that have the same message in the default"
+                    + " language, but this same message is translated\n"
+                    + "                    in different ways in \"{}\". This might indicate a inconsistent"
+                    + " translation, but might also be correct.\n"
+                    + "                    Please verify.\n", lang, out );
+            for ( Map.Entry<String, String[]> entry : translations.entrySet() )
+            {
+                String[] value = entry.getValue();
+                out.write( "#Keys: " );
+                out.escaped( value != null ? value[0] : null, "$esc.html($lang.inconsistentTranslations[$key][0])" );
+                out.write( "\n#Single default message: " );
+                out.escaped( entry.getKey(), "$esc.html($key)" );
+                out.write( "\n#Translations: " );
+                out.escaped( value != null ? value[1] : null, "$esc.html($lang.inconsistentTranslations[$key][1])" );
+                out.write( "\n\n" );
+            }
+            renderPreEnd( out );
+        }
+        renderSectionEnd( out );
+    }
+
+    private static void renderIssues( LanguageModel lang, HtmlWriter out ) throws IOException
+    {
+        List<String> issues = lang.getIssues();
+        renderSectionStart( lang, "accordion-navigation", "_issues", "Issues:",
+                issues != null ? Integer.toString( issues.size() ) : "$lang.issues.size()", out );
+        if ( issues != null && issues.isEmpty() )
+        {
+            renderEmptySection( "No issues detected", out );
+        }
+        else
+        {
+            out.write( INDENT );
+            out.write( "<ul>\n" );
+            out.write( INDENT );
+            if ( issues != null )
+            {
+                for ( String issue : issues )
+                {
+                    out.write( "                    <li>" );
+                    out.escaped( issue, "$esc.html($issue)" );
+                    out.write( "</li>\n" );
+                    out.write( INDENT );
+                }
+            }
+            out.write( INDENT );
+            out.write( "</ul>\n" );
+            out.write( INDENT );
+        }
+        renderSectionEnd( out );
+    }
+}
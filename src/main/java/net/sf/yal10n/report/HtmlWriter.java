@@ -0,0 +1,213 @@
+package net.sf.yal10n.report;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+import org.apache.commons.text.translate.EntityArrays;
+
+/**
+ * A buffered writer for the compiled templates. It escapes html without creating intermediate strings
+ * and renders <code>null</code> values the same way as velocity does, that is as the reference, that
+ * couldn't be resolved. This way the compiled templates create exactly the same output as the velocity
+ * templates.
+ */
+public class HtmlWriter extends Writer
+{
+    /** The default size of the buffer. */
+    public static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * The html entities by character, the same ones as used by
+     * {@link org.apache.commons.text.StringEscapeUtils#escapeHtml4(String)}.
+     */
+    private static final String[] ENTITIES = createEntities( EntityArrays.BASIC_ESCAPE,
+            EntityArrays.ISO8859_1_ESCAPE, EntityArrays.HTML40_EXTENDED_ESCAPE );
+
+    private final Writer out;
+    private final char[] buffer;
+    private int count;
+
+    /**
+     * Creates a new writer with a buffer of the default size.
+     *
+     * @param out the underlying writer
+     */
+    public HtmlWriter( Writer out )
+    {
+        this( out, DEFAULT_BUFFER_SIZE );
+    }
+
+    /**
+     * Creates a new writer.
+     *
+     * @param out the underlying writer
+     * @param bufferSize the size of the buffer
+     */
+    public HtmlWriter( Writer out, int bufferSize )
+    {
+        this.out = out;
+        this.buffer = new char[bufferSize];
+    }
+
+    private static String[] createEntities( Map<CharSequence, CharSequence>... escapes )
+    {
+        int length = 0;
+        for ( Map<CharSequence, CharSequence> escape : escapes )
+        {
+            for ( CharSequence c : escape.keySet() )
+            {
+                length = Math.max( length, c.charAt( 0 ) + 1 );
+            }
+        }
+        String[] entities = new String[length];
+        for ( Map<CharSequence, CharSequence> escape : escapes )
+        {
+            for ( Map.Entry<CharSequence, CharSequence> entry : escape.entrySet() )
+            {
+                entities[entry.getKey().charAt( 0 )] = entry.getValue().toString();
+            }
+        }
+        return entities;
+    }
+
+    @Override
+    public void write( int c ) throws IOException
+    {
+        if ( count == buffer.length )
+        {
+            flushBuffer();
+        }
+        buffer[count++] = (char) c;
+    }
+
+    @Override
+    public void write( char[] cbuf, int off, int len ) throws IOException
+    {
+        if ( len >= buffer.length )
+        {
+            flushBuffer();
+            out.write( cbuf, off, len );
+            return;
+        }
+        if ( len > buffer.length - count )
+        {
+            flushBuffer();
+        }
+        System.arraycopy( cbuf, off, buffer, count, len );
+        count += len;
+    }
+
+    @Override
+    public void write( String s, int off, int len ) throws IOException
+    {
+        int offset = off;
+        int remaining = len;
+        while ( remaining > 0 )
+        {
+            if ( count == buffer.length )
+            {
+                flushBuffer();
+            }
+            int chunk = Math.min( remaining, buffer.length - count );
+            s.getChars( offset, offset + chunk, buffer, count );
+            count += chunk;
+            offset += chunk;
+            remaining -= chunk;
+        }
+    }
+
+    @Override
+    public void write( String s ) throws IOException
+    {
+        write( s, 0, s.length() );
+    }
+
+    /**
+     * Writes the given value like a velocity reference, e.g. <code>$lang.name</code>.
+     *
+     * @param value the value, might be <code>null</code>
+     * @param reference the reference, that is written instead of a <code>null</code> value
+     * @throws IOException any error while writing
+     */
+    public void value( Object value, String reference ) throws IOException
+    {
+        write( value != null ? value.toString() : reference );
+    }
+
+    /**
+     * Writes the given number.
+     *
+     * @param value the number
+     * @throws IOException any error while writing
+     */
+    public void value( int value ) throws IOException
+    {
+        write( Integer.toString( value ) );
+    }
+
+    /**
+     * Writes the given value html escaped like <code>$esc.html(...)</code> in a velocity template.
+     *
+     * @param value the value, might be <code>null</code>
+     * @param reference the reference, that is written instead of a <code>null</code> value
+     * @throws IOException any error while writing
+     */
+    public void escaped( String value, String reference ) throws IOException
+    {
+        if ( value == null )
+        {
+            write( reference );
+            return;
+        }
+        int start = 0;
+        for ( int i = 0; i < value.length(); i++ )
+        {
+            char c = value.charAt( i );
+            if ( c < ENTITIES.length && ENTITIES[c] != null )
+            {
+                write( value, start, i - start );
+                write( ENTITIES[c] );
+                start = i + 1;
+            }
+        }
+        write( value, start, value.length() - start );
+    }
+
+    private void flushBuffer() throws IOException
+    {
+        if ( count > 0 )
+        {
+            out.write( buffer, 0, count );
+            count = 0;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        flushBuffer();
+        out.close();
+    }
+}
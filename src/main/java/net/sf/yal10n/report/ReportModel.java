@@ -33,9 +33,6 @@ public class ReportModel
     /** The relative report url. */
     private String relativeReportUrl;
 
-    /** The generation date. */
-    private String generationDate;
-
     /** The version. */
     private String version;
 
@@ -130,26 +127,6 @@ public class ReportModel
         this.mavenCoordinates = mavenCoordinates;
     }
 
-    /**
-     * Gets the generation date.
-     *
-     * @return the generation date
-     */
-    public String getGenerationDate()
-    {
-        return generationDate;
-    }
-
-    /**
-     * Sets the generation date.
-     *
-     * @param generationDate the new generation date
-     */
-    public void setGenerationDate( String generationDate )
-    {
-        this.generationDate = generationDate;
-    }
-
     /**
      * Gets the base path.
      *
@@ -15,37 +15,56 @@ package net.sf.yal10n.report;
  */
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
-import java.util.Properties;
+
+import net.sf.yal10n.ReplaceIfChangedOutputStream;
 
 import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
-import org.apache.velocity.app.VelocityEngine;
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.IOUtil;
 
 /**
- * The report renderer creates a html report of single file with velocity.
+ * The report renderer creates a html report of single file with velocity or with the compiled template,
+ * which creates the same output without resolving the references by reflection.
+ * The template is parsed once, the reports of several bundles can be rendered concurrently.
  */
 @Component( role = ReportRenderer.class, hint = "ReportRenderer" )
 public class ReportRenderer
 {
+    private final Template template = VelocityTemplates.load( "velocity/report.vm" );
     private String reportDirectory;
+    private boolean compiled;
+
+    /**
+     * Sets whether the compiled template should be used instead of the velocity template.
+     *
+     * @param compiled <code>true</code> to use the compiled template
+     */
+    public void setCompiled( boolean compiled )
+    {
+        this.compiled = compiled;
+    }
 
     void render( ReportModel model, Writer out )
     {
-        VelocityEngine ve = new VelocityEngine();
-        Properties vProperties = new Properties();
-        vProperties.put( "resource.loader", "class" );
-        vProperties.put( "class.resource.loader.description", "Velocity Classpath Resource Loader" );
-        vProperties.put( "class.resource.loader.class",
-                "org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader" );
-        ve.init( vProperties );
-        Template template = ve.getTemplate( "velocity/report.vm" );
+        if ( compiled )
+        {
+            HtmlWriter html = new HtmlWriter( out );
+            try
+            {
+                CompiledReportTemplate.render( model, html );
+                html.flush();
+            }
+            catch ( IOException e )
+            {
+                throw new RuntimeException( e );
+            }
+            return;
+        }
         VelocityContext ctx = new VelocityContext();
         ctx.put( "report", model );
         ctx.put( "esc", new EscapeTool() );
@@ -53,19 +72,22 @@ public class ReportRenderer
     }
 
     /**
-     * Renders the given report model.
+     * Renders the given report model. The file is only written, if its content changed.
      *
      * @param model the report to render.
      * @param outputDirectory the output directory
      */
     public void render( ReportModel model, String outputDirectory )
     {
-        Writer out = null;
+        ReplaceIfChangedOutputStream stream = null;
         try
         {
-            out = new OutputStreamWriter( new FileOutputStream( FileUtils.normalize( outputDirectory + "/reports/"
-                    + model.getRelativeReportUrl() ) ), "UTF-8" );
+            stream = new ReplaceIfChangedOutputStream( new File( FileUtils.normalize( outputDirectory + "/reports/"
+                    + model.getRelativeReportUrl() ) ) );
+            Writer out = new OutputStreamWriter( stream, "UTF-8" );
             render( model, out );
+            out.flush();
+            stream.commit();
         }
         catch ( IOException e )
         {
@@ -73,7 +95,7 @@ public class ReportRenderer
         }
         finally
         {
-            IOUtil.close( out );
+            IOUtil.close( stream );
         }
     }
 
@@ -0,0 +1,64 @@
+package net.sf.yal10n.report;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Properties;
+
+import org.apache.velocity.Template;
+import org.apache.velocity.app.VelocityEngine;
+
+/**
+ * Loads the velocity templates from the classpath. The renderers load their template once and keep it,
+ * as initializing the engine and parsing the template is much more expensive than merging the template.
+ * A loaded template can be merged by several threads at the same time.
+ */
+public final class VelocityTemplates
+{
+    private VelocityTemplates()
+    {
+        // utility class
+    }
+
+    /**
+     * Creates a new velocity engine, that loads and caches the templates from the classpath.
+     *
+     * @return the initialized engine
+     */
+    public static VelocityEngine createEngine()
+    {
+        VelocityEngine ve = new VelocityEngine();
+        Properties vProperties = new Properties();
+        vProperties.put( "resource.loader", "class" );
+        vProperties.put( "class.resource.loader.description", "Velocity Classpath Resource Loader" );
+        vProperties.put( "class.resource.loader.class",
+                "org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader" );
+        // the templates in the jar don't change, no need to check them for modifications
+        vProperties.put( "class.resource.loader.cache", "true" );
+        vProperties.put( "class.resource.loader.modificationCheckInterval", "0" );
+        ve.init( vProperties );
+        return ve;
+    }
+
+    /**
+     * Loads the given template with a new engine.
+     *
+     * @param name the name of the template on the classpath, e.g. <code>velocity/report.vm</code>
+     * @return the parsed template
+     */
+    public static Template load( String name )
+    {
+        return createEngine().getTemplate( name );
+    }
+}
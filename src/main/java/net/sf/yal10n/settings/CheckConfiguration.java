@@ -16,7 +16,10 @@ package net.sf.yal10n.settings;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
 
 /**
  * Configures various aspects of messages.properties file checks.
@@ -28,6 +31,8 @@ public class CheckConfiguration
     private boolean checkFileHeaders = false;
     private String fileHeaderRegexp = "";
     private List<String> ignoreKeys = new ArrayList<String>();
+    private KeyMatcher ignoreKeyMatcher;
+    private final Map<String, Pattern> fileHeaderPatterns = new HashMap<String, Pattern>();
     private int issuesThreshold = 5;
 
     /**
@@ -90,8 +95,31 @@ public class CheckConfiguration
         this.fileHeaderRegexp = fileHeaderRegexp;
     }
 
+    /**
+     * Gets the compiled file header pattern for the given repository. If the repository doesn't
+     * define its own regular expression, the global one is used. Each regular expression is
+     * compiled only once.
+     * @param repo the repository, can be <code>null</code>
+     * @return the pattern
+     * @see #getFileHeaderRegexp()
+     */
+    public synchronized Pattern getFileHeaderPattern( Repository repo )
+    {
+        String regexp = repo != null && repo.getFileHeaderRegexp() != null ? repo.getFileHeaderRegexp()
+                : fileHeaderRegexp;
+        Pattern pattern = fileHeaderPatterns.get( regexp );
+        if ( pattern == null )
+        {
+            pattern = Pattern.compile( regexp, Pattern.MULTILINE );
+            fileHeaderPatterns.put( regexp, pattern );
+        }
+        return pattern;
+    }
+
     /**
      * Gets the list of messages keys, that should be ignored in any statistic.
+     * Besides literal keys, globs like <code>*.tooltip</code> and regular expressions like
+     * <code>%regex[debug\..*]</code> can be used, see {@link KeyMatcher}.
      * @return the list of keys that should be ignored.
      */
     public List<String> getIgnoreKeys()
@@ -103,9 +131,24 @@ public class CheckConfiguration
      * Sets the list of messages keys, that should be ignored in any statistic.
      * @param ignoreKeys the list of keys that should be ignored.
      */
-    public void setIgnoreKeys( List<String> ignoreKeys )
+    public synchronized void setIgnoreKeys( List<String> ignoreKeys )
     {
         this.ignoreKeys = ignoreKeys;
+        this.ignoreKeyMatcher = null;
+    }
+
+    /**
+     * Gets the matcher for the keys, that should be ignored. The patterns are compiled only once.
+     * @return the matcher
+     * @see #getIgnoreKeys()
+     */
+    public synchronized KeyMatcher getIgnoreKeyMatcher()
+    {
+        if ( ignoreKeyMatcher == null )
+        {
+            ignoreKeyMatcher = new KeyMatcher( ignoreKeys );
+        }
+        return ignoreKeyMatcher;
     }
 
     /**
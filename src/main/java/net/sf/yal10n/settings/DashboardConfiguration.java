@@ -29,6 +29,7 @@ import net.sf.yal10n.svn.SVNUtil;
  */
 public class DashboardConfiguration
 {
+    private static final int DEFAULT_ANALYSIS_CACHE_SIZE = 10000;
     private String repoPrefix = "";
     private String mirrorPrefix = "";
     private String viewvcPrefix = "";
@@ -40,6 +41,16 @@ public class DashboardConfiguration
     private LanguageComparator languageComparator = LanguageComparator.ALPHABETICAL_VARIANTS_LAST;
     private CheckConfiguration checks = new CheckConfiguration();
     private Notification notification = new Notification();
+    private int checkoutThreads = 1;
+    private int analysisThreads = 1;
+    private int renderThreads = 1;
+    private boolean compiledTemplates;
+    private boolean sparseCheckout;
+    private boolean reuseAnalysis = true;
+    private int analysisCacheSize = DEFAULT_ANALYSIS_CACHE_SIZE;
+    private boolean skipUnchangedRepositories;
+    private boolean inProcessGit;
+    private boolean bareGitMirror;
 
 
     /**
@@ -245,6 +256,205 @@ public class DashboardConfiguration
         this.notification = notification;
     }
 
+    /**
+     * Gets the number of repositories, that are checked out concurrently.
+     * Default is 1, which means, the repositories are checked out one after another.
+     * @return the number of concurrent checkouts
+     */
+    public int getCheckoutThreads()
+    {
+        return checkoutThreads;
+    }
+
+    /**
+     * Sets the number of repositories, that are checked out concurrently.
+     * @param checkoutThreads the number of concurrent checkouts
+     */
+    public void setCheckoutThreads( int checkoutThreads )
+    {
+        this.checkoutThreads = checkoutThreads;
+    }
+
+    /**
+     * Gets the number of threads, that load the messages files of a repository concurrently.
+     * Default is 1, which means, the files are loaded one after another, when they are needed.
+     * @return the number of threads for loading the messages files
+     */
+    public int getAnalysisThreads()
+    {
+        return analysisThreads;
+    }
+
+    /**
+     * Sets the number of threads, that load the messages files of a repository concurrently.
+     * @param analysisThreads the number of threads for loading the messages files
+     */
+    public void setAnalysisThreads( int analysisThreads )
+    {
+        this.analysisThreads = analysisThreads;
+    }
+
+    /**
+     * Gets the number of threads, that render the reports and tmx files of the bundles concurrently.
+     * Default is 1, which means, the bundles are rendered one after another.
+     * @return the number of threads for rendering
+     */
+    public int getRenderThreads()
+    {
+        return renderThreads;
+    }
+
+    /**
+     * Sets the number of threads, that render the reports and tmx files of the bundles concurrently.
+     * @param renderThreads the number of threads for rendering
+     */
+    public void setRenderThreads( int renderThreads )
+    {
+        this.renderThreads = renderThreads;
+    }
+
+    /**
+     * Whether the dashboard and the reports should be rendered with the compiled templates instead of
+     * the velocity templates. Both create the same output, the compiled templates are faster.
+     * Default is <code>false</code>.
+     * @return <code>true</code> if the compiled templates should be used
+     */
+    public boolean isCompiledTemplates()
+    {
+        return compiledTemplates;
+    }
+
+    /**
+     * Sets whether the dashboard and the reports should be rendered with the compiled templates.
+     * @param compiledTemplates <code>true</code> if the compiled templates should be used
+     */
+    public void setCompiledTemplates( boolean compiledTemplates )
+    {
+        this.compiledTemplates = compiledTemplates;
+    }
+
+    /**
+     * Whether only the files needed for the analysis should be checked out. These are the files
+     * matching the include and exclude patterns and all pom.xml files.
+     * Default is <code>false</code>, which means, the complete repositories are checked out.
+     * @return <code>true</code> if sparse checkouts should be done
+     */
+    public boolean isSparseCheckout()
+    {
+        return sparseCheckout;
+    }
+
+    /**
+     * Sets whether only the files needed for the analysis should be checked out.
+     * @param sparseCheckout <code>true</code> if sparse checkouts should be done
+     */
+    public void setSparseCheckout( boolean sparseCheckout )
+    {
+        this.sparseCheckout = sparseCheckout;
+    }
+
+    /**
+     * Whether the analysis results of a repository should be reused by the dashboard mojo,
+     * if the repository has not been changed since the last run. The results are stored in the
+     * snapshot directory of the mojo.
+     * Default is <code>true</code>.
+     * @return <code>true</code> if the analysis results should be reused
+     */
+    public boolean isReuseAnalysis()
+    {
+        return reuseAnalysis;
+    }
+
+    /**
+     * Sets whether the analysis results of unchanged repositories should be reused.
+     * @param reuseAnalysis <code>true</code> if the analysis results should be reused
+     */
+    public void setReuseAnalysis( boolean reuseAnalysis )
+    {
+        this.reuseAnalysis = reuseAnalysis;
+    }
+
+    /**
+     * Gets the maximum number of messages files, whose analysis results are stored by their content
+     * in the analysis cache directory of the mojo. Files with the same content are
+     * not parsed and checked again. Default is 10000, 0 disables the cache.
+     * @return the maximum number of cached files
+     */
+    public int getAnalysisCacheSize()
+    {
+        return analysisCacheSize;
+    }
+
+    /**
+     * Sets the maximum number of messages files, whose analysis results are cached.
+     * @param analysisCacheSize the maximum number of cached files, 0 disables the cache
+     */
+    public void setAnalysisCacheSize( int analysisCacheSize )
+    {
+        this.analysisCacheSize = analysisCacheSize;
+    }
+
+    /**
+     * Whether the detect-changes mojo should ask the remote repository for its current revision first
+     * and skip checkout, analysis and change detection, if the repository has not been changed
+     * since the last run. The working copy of such a repository is not updated.
+     * Default is <code>false</code>.
+     * @return <code>true</code> if unchanged repositories should be skipped
+     */
+    public boolean isSkipUnchangedRepositories()
+    {
+        return skipUnchangedRepositories;
+    }
+
+    /**
+     * Sets whether unchanged repositories should be skipped by the detect-changes mojo.
+     * @param skipUnchangedRepositories <code>true</code> if unchanged repositories should be skipped
+     */
+    public void setSkipUnchangedRepositories( boolean skipUnchangedRepositories )
+    {
+        this.skipUnchangedRepositories = skipUnchangedRepositories;
+    }
+
+    /**
+     * Whether the file information, change logs and diffs of git repositories should be read
+     * directly from the git object database (using JGit) instead of executing git for each request.
+     * Default is <code>false</code>.
+     * @return <code>true</code> if the in-process git backend should be used
+     */
+    public boolean isInProcessGit()
+    {
+        return inProcessGit;
+    }
+
+    /**
+     * Sets whether the in-process git backend should be used.
+     * @param inProcessGit <code>true</code> if the in-process git backend should be used
+     */
+    public void setInProcessGit( boolean inProcessGit )
+    {
+        this.inProcessGit = inProcessGit;
+    }
+
+    /**
+     * Whether git repositories should be kept as bare repositories without a working tree.
+     * The messages files and poms are then read directly from the git objects.
+     * Default is <code>false</code>.
+     * @return <code>true</code> if git repositories should be mirrored without working tree
+     */
+    public boolean isBareGitMirror()
+    {
+        return bareGitMirror;
+    }
+
+    /**
+     * Sets whether git repositories should be kept as bare repositories without a working tree.
+     * @param bareGitMirror <code>true</code> if git repositories should be mirrored without working tree
+     */
+    public void setBareGitMirror( boolean bareGitMirror )
+    {
+        this.bareGitMirror = bareGitMirror;
+    }
+
     /**
      * Lookup a repository configuration by id.
      * @param repoId the repo id
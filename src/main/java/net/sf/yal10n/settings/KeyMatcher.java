@@ -0,0 +1,116 @@
+package net.sf.yal10n.settings;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Matches message keys against a list of patterns. A pattern is either
+ * <ul>
+ * <li>a literal key, e.g. <code>button.ok</code>,</li>
+ * <li>a glob, that contains <code>*</code> (any characters) or <code>?</code> (one character),
+ *     e.g. <code>*.tooltip</code>, or</li>
+ * <li>a regular expression in the form <code>%regex[...]</code>, e.g. <code>%regex[debug\..*]</code>.</li>
+ * </ul>
+ * The literal keys are looked up in a hash set, all other patterns are combined into one regular expression.
+ */
+public class KeyMatcher
+{
+    private static final String REGEX_PREFIX = "%regex[";
+    private static final String REGEX_SUFFIX = "]";
+
+    private final Set<String> literals = new HashSet<String>();
+    private final Pattern combined;
+
+    /**
+     * Compiles the given patterns.
+     *
+     * @param patterns the patterns, can be <code>null</code>
+     */
+    public KeyMatcher( Collection<String> patterns )
+    {
+        StringBuilder regex = new StringBuilder();
+        if ( patterns != null )
+        {
+            for ( String pattern : patterns )
+            {
+                String compiled = toRegex( pattern );
+                if ( compiled == null )
+                {
+                    literals.add( pattern );
+                }
+                else
+                {
+                    if ( regex.length() > 0 )
+                    {
+                        regex.append( '|' );
+                    }
+                    regex.append( "(?:" ).append( compiled ).append( ')' );
+                }
+            }
+        }
+        combined = regex.length() > 0 ? Pattern.compile( regex.toString() ) : null;
+    }
+
+    /**
+     * Converts the pattern into a regular expression.
+     * @return the regular expression or <code>null</code> if the pattern is a literal key
+     */
+    private static String toRegex( String pattern )
+    {
+        if ( pattern.startsWith( REGEX_PREFIX ) && pattern.endsWith( REGEX_SUFFIX ) )
+        {
+            return pattern.substring( REGEX_PREFIX.length(), pattern.length() - REGEX_SUFFIX.length() );
+        }
+        if ( pattern.indexOf( '*' ) == -1 && pattern.indexOf( '?' ) == -1 )
+        {
+            return null;
+        }
+        StringBuilder regex = new StringBuilder();
+        int literalStart = 0;
+        for ( int i = 0; i < pattern.length(); i++ )
+        {
+            char c = pattern.charAt( i );
+            if ( c == '*' || c == '?' )
+            {
+                if ( i > literalStart )
+                {
+                    regex.append( Pattern.quote( pattern.substring( literalStart, i ) ) );
+                }
+                regex.append( c == '*' ? ".*" : "." );
+                literalStart = i + 1;
+            }
+        }
+        if ( literalStart < pattern.length() )
+        {
+            regex.append( Pattern.quote( pattern.substring( literalStart ) ) );
+        }
+        return regex.toString();
+    }
+
+    /**
+     * Checks whether the given key matches any of the patterns.
+     *
+     * @param key the key
+     * @return <code>true</code> if the key matches
+     */
+    public boolean matches( String key )
+    {
+        return literals.contains( key ) || combined != null && combined.matcher( key ).matches();
+    }
+}
@@ -29,6 +29,7 @@ public class Repository
     private String viewvcUrl;
     private List<String> includes;
     private List<String> excludes;
+    private String fileHeaderRegexp;
     private Notification notification = new Notification();
 
     /**
@@ -125,6 +126,25 @@ public class Repository
         this.excludes = excludes;
     }
 
+    /**
+     * Gets the regular expression used to check the file headers of this repository.
+     * @return the regular expression or <code>null</code>, if the global one should be used.
+     * @see CheckConfiguration#getFileHeaderRegexp()
+     */
+    public String getFileHeaderRegexp()
+    {
+        return fileHeaderRegexp;
+    }
+
+    /**
+     * Sets the regular expression used to check the file headers of this repository.
+     * @param fileHeaderRegexp the regular expression
+     */
+    public void setFileHeaderRegexp( String fileHeaderRegexp )
+    {
+        this.fileHeaderRegexp = fileHeaderRegexp;
+    }
+
     /**
      * Gets the web-URL, that fits to the SCM URL, to have access to the repository via web.
      * @return the web-URL
@@ -0,0 +1,181 @@
+package net.sf.yal10n.status;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.util.Map;
+import java.util.TreeMap;
+
+import net.sf.yal10n.dashboard.LanguageModel;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+/**
+ * Contains the analysis results of all resource files of one repository at a specific revision.
+ * Used by the dashboard mojo to skip the analysis of repositories, that have not been changed.
+ */
+public class AnalysisSnapshot
+{
+    private String revision;
+    private String version;
+    private String settingsChecksum;
+    private Map<String, LanguageModel> languageModels = new TreeMap<String, LanguageModel>();
+
+    /**
+     * Gets the revision of the repository, at which the analysis has been done.
+     *
+     * @return the revision
+     */
+    public String getRevision()
+    {
+        return revision;
+    }
+
+    /**
+     * Sets the revision.
+     *
+     * @param revision the new revision
+     */
+    public void setRevision( String revision )
+    {
+        this.revision = revision;
+    }
+
+    /**
+     * Gets the version of yal10n, which did the analysis.
+     *
+     * @return the version
+     */
+    public String getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * Sets the version.
+     *
+     * @param version the new version
+     */
+    public void setVersion( String version )
+    {
+        this.version = version;
+    }
+
+    /**
+     * Gets the checksum of the settings file, that has been used for the analysis.
+     *
+     * @return the settings checksum
+     */
+    public String getSettingsChecksum()
+    {
+        return settingsChecksum;
+    }
+
+    /**
+     * Sets the settings checksum.
+     *
+     * @param settingsChecksum the new settings checksum
+     */
+    public void setSettingsChecksum( String settingsChecksum )
+    {
+        this.settingsChecksum = settingsChecksum;
+    }
+
+    /**
+     * Gets the language models by the file path relative to the checkout directory.
+     *
+     * @return the language models
+     */
+    public Map<String, LanguageModel> getLanguageModels()
+    {
+        return languageModels;
+    }
+
+    /**
+     * Sets the language models.
+     *
+     * @param languageModels the language models
+     */
+    public void setLanguageModels( Map<String, LanguageModel> languageModels )
+    {
+        this.languageModels = languageModels;
+    }
+
+    /**
+     * Checks whether this snapshot can be reused.
+     *
+     * @param currentRevision the current revision of the repository
+     * @param currentVersion the current version of yal10n
+     * @param currentSettingsChecksum the checksum of the current settings file
+     * @return <code>true</code> if nothing changed since the snapshot has been taken
+     */
+    public boolean isUpToDate( String currentRevision, String currentVersion, String currentSettingsChecksum )
+    {
+        return revision != null && revision.equals( currentRevision )
+                && version != null && version.equals( currentVersion )
+                && settingsChecksum != null && settingsChecksum.equals( currentSettingsChecksum );
+    }
+
+    /**
+     * Reads the snapshot file.
+     * @param file the file to read
+     * @return the snapshot or <code>null</code>, if there is no snapshot or it couldn't be read.
+     */
+    public static AnalysisSnapshot readFromFile( String file )
+    {
+        AnalysisSnapshot snapshot = null;
+        try
+        {
+            File f = new File( file ).getCanonicalFile();
+            if ( f.exists() )
+            {
+                JsonMapper mapper = JsonMapper.builder()
+                        .configure( DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false )
+                        .build();
+                snapshot = mapper.readerFor( AnalysisSnapshot.class ).readValue( f );
+            }
+        }
+        catch ( Exception e )
+        {
+            // a broken snapshot just means, the analysis needs to be done again
+            snapshot = null;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Writes this snapshot into the given file.
+     * @param file the file
+     */
+    public void writeToFile( String file )
+    {
+        try
+        {
+            File f = new File( file ).getCanonicalFile();
+            if ( !f.getParentFile().isDirectory() && !f.getParentFile().mkdirs() )
+            {
+                throw new RuntimeException( "Couldn't create directory " + f.getParentFile() );
+            }
+            ObjectMapper mapper = new ObjectMapper();
+            mapper.writeValue( f, this );
+        }
+        catch ( Exception e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package net.sf.yal10n.svn;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.cli.CommandLineUtils;
+import org.codehaus.plexus.util.cli.StreamPumper;
+
+/**
+ * Reads the contents of many files of one revision with a single "git cat-file --batch" process.
+ * The requests are written by a separate thread, while the contents are read, so that neither
+ * side blocks on a full pipe.
+ */
+final class GitCatFile
+{
+    private GitCatFile()
+    {
+        // utility class
+    }
+
+    /**
+     * Reads the given files.
+     *
+     * @param log the log
+     * @param gitDir the git directory, e.g. a bare repository
+     * @param revision the revision, e.g. "HEAD"
+     * @param paths the files relative to the repository root, separated by "/"
+     * @return the contents by path. Files, that don't exist in the revision, are not contained.
+     */
+    static Map<String, byte[]> readFiles( Log log, File gitDir, String revision, Collection<String> paths )
+    {
+        final List<String> requests = new ArrayList<String>( paths );
+        Map<String, byte[]> result = new HashMap<String, byte[]>();
+        if ( requests.isEmpty() )
+        {
+            return result;
+        }
+
+        ProcessBuilder builder = new ProcessBuilder( "git", "--git-dir=" + gitDir.getAbsolutePath(),
+                "cat-file", "--batch" );
+        log.debug( "Executing: " + builder.command() + " for " + requests.size() + " files" );
+        final Process process;
+        try
+        {
+            process = builder.start();
+        }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( e );
+        }
+
+        CommandLineUtils.StringStreamConsumer err = new CommandLineUtils.StringStreamConsumer();
+        StreamPumper errorPumper = new StreamPumper( process.getErrorStream(), err );
+        errorPumper.start();
+        final String prefix = revision + ":";
+        Thread writer = new Thread( "git cat-file writer" )
+        {
+            @Override
+            public void run()
+            {
+                OutputStream out = process.getOutputStream();
+                try
+                {
+                    for ( String path : requests )
+                    {
+                        out.write( ( prefix + path + "\n" ).getBytes( "UTF-8" ) );
+                    }
+                }
+                catch ( IOException e )
+                {
+                    // git died, so the reader must not wait for more output
+                    process.destroy();
+                }
+                finally
+                {
+                    IOUtil.close( out );
+                }
+            }
+        };
+        // never keep the JVM alive, if the reader failed and git doesn't consume the requests anymore
+        writer.setDaemon( true );
+        writer.start();
+
+        InputStream in = new BufferedInputStream( process.getInputStream() );
+        boolean completed = false;
+        try
+        {
+            for ( String path : requests )
+            {
+                byte[] content = readObject( in );
+                if ( content != null )
+                {
+                    result.put( path, content );
+                }
+            }
+            writer.join();
+            int exitCode = process.waitFor();
+            completed = true;
+            errorPumper.waitUntilDone();
+            if ( exitCode != 0 )
+            {
+                throw new RuntimeException( "git cat-file failed (exit code " + exitCode + "): " + err.getOutput() );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( e );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException( e );
+        }
+        finally
+        {
+            // e.g. an unexpected response, that couldn't be parsed
+            if ( !completed )
+            {
+                process.destroy();
+            }
+            IOUtil.close( in );
+        }
+        return result;
+    }
+
+    /**
+     * Reads one response: "&lt;sha&gt; &lt;type&gt; &lt;size&gt;\n&lt;content&gt;\n" or "&lt;request&gt; missing\n".
+     * @return the content or <code>null</code> if the object is missing or not a file.
+     */
+    private static byte[] readObject( InputStream in ) throws IOException
+    {
+        String header = readLine( in );
+        if ( header.endsWith( " missing" ) || header.endsWith( " ambiguous" ) )
+        {
+            return null;
+        }
+        String[] parts = header.split( " " );
+        int size = Integer.parseInt( parts[parts.length - 1] );
+        byte[] content = new byte[size];
+        int offset = 0;
+        while ( offset < size )
+        {
+            int read = in.read( content, offset, size - offset );
+            if ( read < 0 )
+            {
+                throw new EOFException( "Unexpected end of git cat-file output" );
+            }
+            offset += read;
+        }
+        // the content is followed by a newline
+        in.read();
+        return "blob".equals( parts[1] ) ? content : null;
+    }
+
+    private static String readLine( InputStream in ) throws IOException
+    {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int c;
+        while ( ( c = in.read() ) != '\n' )
+        {
+            if ( c < 0 )
+            {
+                throw new EOFException( "Unexpected end of git cat-file output" );
+            }
+            line.write( c );
+        }
+        return line.toString( "UTF-8" );
+    }
+}
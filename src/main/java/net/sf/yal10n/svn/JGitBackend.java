@@ -0,0 +1,352 @@
+package net.sf.yal10n.svn;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.scm.ScmFileStatus;
+import org.eclipse.jgit.diff.DiffAlgorithm;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.diff.EditList;
+import org.eclipse.jgit.diff.RawText;
+import org.eclipse.jgit.diff.RawTextComparator;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
+
+/**
+ * Answers the read-only questions about git working copies directly from the object database
+ * using JGit, instead of starting a git process for each question. Each repository is opened only
+ * once and then kept open until {@link #close()}.
+ */
+class JGitBackend
+{
+    private static final String HEAD = "HEAD";
+
+    private final Map<File, Repository> repositories = new HashMap<File, Repository>();
+
+    /**
+     * Opens the repository of the given working copy or returns the already opened repository.
+     */
+    private synchronized Repository open( String workingCopy )
+    {
+        try
+        {
+            File gitDir = SVNUtil.getGitDir( new File( workingCopy ) ).getCanonicalFile();
+            Repository repository = repositories.get( gitDir );
+            if ( repository == null )
+            {
+                repository = new FileRepositoryBuilder().setGitDir( gitDir ).setMustExist( true ).build();
+                repositories.put( gitDir, repository );
+            }
+            return repository;
+        }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
+
+    /**
+     * Closes all opened repositories, so that their pack files are released.
+     */
+    synchronized void close()
+    {
+        for ( Repository repository : repositories.values() )
+        {
+            repository.close();
+        }
+        repositories.clear();
+    }
+
+    /**
+     * Finds the last commit for each of the given files, by walking the history backwards from HEAD.
+     * Like "git log --name-only", merge commits are not considered.
+     *
+     * @param workingCopy the root of the working copy
+     * @param wanted the files, relative to the working copy, separated by "/"
+     * @return the information for the files, that have been found in the history
+     */
+    Map<String, SVNInfo> checkFiles( String workingCopy, Collection<String> wanted )
+    {
+        Map<String, SVNInfo> result = new HashMap<String, SVNInfo>();
+        Set<String> remaining = new HashSet<String>( wanted );
+        Repository repository = open( workingCopy );
+        RevWalk walk = new RevWalk( repository );
+        // the files, that have been found already, are skipped below, so the filter is created only once
+        DiffFormatter formatter = createFormatter( repository, PathFilterGroup.createFromStrings( wanted ) );
+        try
+        {
+            walk.markStart( walk.parseCommit( resolve( repository, HEAD ) ) );
+            for ( RevCommit commit : walk )
+            {
+                if ( remaining.isEmpty() )
+                {
+                    break;
+                }
+                if ( commit.getParentCount() > 1 )
+                {
+                    continue;
+                }
+                SVNInfo info = null;
+                for ( DiffEntry entry : diff( formatter, walk, commit ) )
+                {
+                    String path = entry.getChangeType() == DiffEntry.ChangeType.DELETE ? entry.getOldPath()
+                            : entry.getNewPath();
+                    if ( remaining.remove( path ) )
+                    {
+                        if ( info == null )
+                        {
+                            info = new SVNInfo( commit.name(), formatDate( commit.getCommitterIdent() ) );
+                        }
+                        result.put( path, info );
+                    }
+                }
+            }
+            return result;
+        }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( e );
+        }
+        finally
+        {
+            formatter.release();
+            walk.release();
+        }
+    }
+
+    /**
+     * Gets the current commit of the working copy.
+     *
+     * @param workingCopy the root of the working copy
+     * @return the commit id
+     */
+    String getHead( String workingCopy )
+    {
+        return resolve( open( workingCopy ), HEAD ).name();
+    }
+
+    /**
+     * Determines all files, that have been changed by the commits reachable from the new revision,
+     * but not from the base revision. Merge commits are not considered, like "git whatchanged".
+     *
+     * @param workingCopy the root of the working copy
+     * @param baseRevision the old revision (exclusive)
+     * @param newRevision the new revision (inclusive)
+     * @return the changed files
+     */
+    SVNChangeLog changeLog( String workingCopy, String baseRevision, String newRevision )
+    {
+        Map<String, Set<String>> changedFiles = new HashMap<String, Set<String>>();
+        Repository repository = open( workingCopy );
+        RevWalk walk = new RevWalk( repository );
+        DiffFormatter formatter = createFormatter( repository, TreeFilter.ALL );
+        try
+        {
+            walk.markStart( walk.parseCommit( resolve( repository, newRevision ) ) );
+            walk.markUninteresting( walk.parseCommit( resolve( repository, baseRevision ) ) );
+            for ( RevCommit commit : walk )
+            {
+                if ( commit.getParentCount() > 1 )
+                {
+                    continue;
+                }
+                for ( DiffEntry entry : diff( formatter, walk, commit ) )
+                {
+                    addChange( changedFiles, entry );
+                }
+            }
+            return new SVNChangeLog( changedFiles );
+        }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( e );
+        }
+        finally
+        {
+            formatter.release();
+            walk.release();
+        }
+    }
+
+    private static void addChange( Map<String, Set<String>> changedFiles, DiffEntry entry )
+    {
+        String path;
+        ScmFileStatus status;
+        switch ( entry.getChangeType() )
+        {
+        case ADD:
+            path = entry.getNewPath();
+            status = ScmFileStatus.ADDED;
+            break;
+        case DELETE:
+            path = entry.getOldPath();
+            status = ScmFileStatus.DELETED;
+            break;
+        default:
+            path = entry.getNewPath();
+            status = ScmFileStatus.MODIFIED;
+            break;
+        }
+        Set<String> changeTypes = changedFiles.get( path );
+        if ( changeTypes == null )
+        {
+            changeTypes = new HashSet<String>();
+            changedFiles.put( path, changeTypes );
+        }
+        changeTypes.add( status.toString() );
+    }
+
+    /**
+     * Creates a unified diff of one file between two revisions in the same format as "svn diff",
+     * so that it can be parsed by {@link net.sf.yal10n.diff.UnifiedDiff}.
+     *
+     * @param workingCopy the root of the working copy
+     * @param relativeFilePath the file, relative to the working copy, separated by "/"
+     * @param baseRevision the old revision
+     * @param newRevision the new revision
+     * @return the diff or an empty string, if the file has not been changed
+     */
+    String diff( String workingCopy, String relativeFilePath, String baseRevision, String newRevision )
+    {
+        Repository repository = open( workingCopy );
+        try
+        {
+            RawText oldText = readFile( repository, baseRevision, relativeFilePath );
+            RawText newText = readFile( repository, newRevision, relativeFilePath );
+            EditList edits = DiffAlgorithm.getAlgorithm( DiffAlgorithm.SupportedAlgorithm.HISTOGRAM )
+                    .diff( RawTextComparator.DEFAULT, oldText, newText );
+            if ( edits.isEmpty() )
+            {
+                return "";
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            DiffFormatter formatter = new DiffFormatter( out );
+            formatter.format( edits, oldText, newText );
+            formatter.flush();
+
+            StringBuilder patch = new StringBuilder();
+            patch.append( "Index: " ).append( relativeFilePath ).append( '\n' );
+            patch.append( "===================================================================\n" );
+            patch.append( "--- " ).append( relativeFilePath ).append( "\t(revision " ).append( baseRevision )
+                .append( ")\n" );
+            patch.append( "+++ " ).append( relativeFilePath ).append( "\t(revision " ).append( newRevision )
+                .append( ")\n" );
+            patch.append( out.toString( "UTF-8" ) );
+            return patch.toString();
+        }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
+
+    private static RawText readFile( Repository repository, String revision, String path ) throws IOException
+    {
+        RevWalk walk = new RevWalk( repository );
+        try
+        {
+            RevCommit commit = walk.parseCommit( resolve( repository, revision ) );
+            TreeWalk treeWalk = TreeWalk.forPath( repository, path, commit.getTree() );
+            if ( treeWalk == null )
+            {
+                return new RawText( new byte[0] );
+            }
+            ObjectReader reader = repository.newObjectReader();
+            try
+            {
+                return new RawText( reader.open( treeWalk.getObjectId( 0 ) ).getCachedBytes() );
+            }
+            finally
+            {
+                reader.release();
+            }
+        }
+        finally
+        {
+            walk.release();
+        }
+    }
+
+    private static DiffFormatter createFormatter( Repository repository, TreeFilter filter )
+    {
+        DiffFormatter formatter = new DiffFormatter( DisabledOutputStream.INSTANCE );
+        formatter.setRepository( repository );
+        formatter.setDetectRenames( false );
+        formatter.setPathFilter( filter );
+        return formatter;
+    }
+
+    /**
+     * Compares the commit with its parent (or the empty tree for the first commit).
+     */
+    private static Iterable<DiffEntry> diff( DiffFormatter formatter, RevWalk walk, RevCommit commit )
+        throws IOException
+    {
+        ObjectId parentTree = null;
+        if ( commit.getParentCount() == 1 )
+        {
+            parentTree = walk.parseCommit( commit.getParent( 0 ) ).getTree();
+        }
+        return formatter.scan( parentTree, commit.getTree() );
+    }
+
+    private static ObjectId resolve( Repository repository, String revision )
+    {
+        try
+        {
+            ObjectId id = repository.resolve( revision );
+            if ( id == null )
+            {
+                throw new RuntimeException( "Unknown revision " + revision + " in " + repository.getDirectory() );
+            }
+            return id;
+        }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
+
+    /**
+     * Formats the date the same way as git's "%ci", e.g. "2013-02-23 20:51:23 +0100".
+     */
+    private static String formatDate( PersonIdent ident )
+    {
+        SimpleDateFormat format = new SimpleDateFormat( "yyyy-MM-dd HH:mm:ss Z", Locale.ENGLISH );
+        format.setTimeZone( ident.getTimeZone() );
+        return format.format( ident.getWhen() );
+    }
+}
@@ -14,10 +14,16 @@ package net.sf.yal10n.svn;
  * limitations under the License.
  */
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
 import org.apache.commons.lang.StringUtils;
 
 import net.sf.yal10n.settings.DashboardConfiguration;
 import net.sf.yal10n.settings.Repository;
+import net.sf.yal10n.settings.ScmType;
 
 /**
  * Utility to deal with repository settings.
@@ -52,4 +58,73 @@ public class RepositoryUtil
         String svnCheckoutUrl = SVNUtil.toCompleteUrl( config.getRepoPrefix(), repo.getUrl() );
         return svnCheckoutUrl;
     }
+
+    /**
+     * Gets the include patterns for the messages files of the repository. These are the global
+     * patterns and the patterns of the repository.
+     *
+     * @param config the config
+     * @param repo the repo
+     * @return the include patterns
+     */
+    public static List<String> getIncludes( DashboardConfiguration config, Repository repo )
+    {
+        return merge( config.getIncludes(), repo.getIncludes() );
+    }
+
+    /**
+     * Gets the exclude patterns for the messages files of the repository. These are the global
+     * patterns and the patterns of the repository.
+     *
+     * @param config the config
+     * @param repo the repo
+     * @return the exclude patterns
+     */
+    public static List<String> getExcludes( DashboardConfiguration config, Repository repo )
+    {
+        return merge( config.getExcludes(), repo.getExcludes() );
+    }
+
+    private static List<String> merge( List<String> global, List<String> local )
+    {
+        Set<String> result = new LinkedHashSet<String>();
+        if ( global != null )
+        {
+            result.addAll( global );
+        }
+        if ( local != null )
+        {
+            result.addAll( local );
+        }
+        return new ArrayList<String>( result );
+    }
+
+    /**
+     * Whether the repository is kept as a bare git repository without working tree.
+     * See {@link SVNUtil#mirror(org.apache.maven.plugin.logging.Log, String, String, String)}.
+     *
+     * @param config the config
+     * @param repo the repo
+     * @return <code>true</code> if the files need to be read from the git objects
+     */
+    public static boolean isBareGitMirror( DashboardConfiguration config, Repository repo )
+    {
+        return config.isBareGitMirror() && repo.getType() == ScmType.GIT;
+    }
+
+    /**
+     * Gets the files, that need to be checked out.
+     *
+     * @param config the config
+     * @param repo the repo
+     * @return the sparse checkout or <code>null</code>, if the complete repository should be checked out
+     */
+    public static SparseCheckout getSparseCheckout( DashboardConfiguration config, Repository repo )
+    {
+        if ( !config.isSparseCheckout() )
+        {
+            return null;
+        }
+        return new SparseCheckout( getIncludes( config, repo ), getExcludes( config, repo ) );
+    }
 }
@@ -0,0 +1,126 @@
+package net.sf.yal10n.svn;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.scm.ScmFileStatus;
+
+/**
+ * The files, that have been changed in a repository between two revisions. The files are indexed
+ * by their path relative to the working copy, so that looking up a file doesn't depend on the number
+ * of changed files.
+ */
+public class SVNChangeLog
+{
+    private final Map<String, Set<String>> changedFiles;
+
+    /**
+     * Creates a new change log for file names, that are relative to the working copy, like git reports them.
+     * @param changedFiles the changed files with their change actions, see {@link ScmFileStatus}.
+     *  The file names are relative to the working copy, separated by "/".
+     */
+    public SVNChangeLog( Map<String, Set<String>> changedFiles )
+    {
+        this( changedFiles, null );
+    }
+
+    /**
+     * Creates a new change log for file names, that are relative to the repository root, like svn reports them.
+     * Changed files outside of the working copy, e.g. on another branch, that has been changed in the same
+     * revision, are ignored.
+     * @param changedFiles the changed files with their change actions, see {@link ScmFileStatus}.
+     *  The file names are the names reported by the scm, separated by "/".
+     * @param workingCopyPath the path of the working copy within the repository, e.g. <code>/project/trunk</code>,
+     *  or <code>null</code>, if the file names are already relative to the working copy
+     */
+    public SVNChangeLog( Map<String, Set<String>> changedFiles, String workingCopyPath )
+    {
+        this.changedFiles = new HashMap<String, Set<String>>();
+        String prefix = null;
+        if ( workingCopyPath != null )
+        {
+            prefix = workingCopyPath.endsWith( "/" ) ? workingCopyPath : workingCopyPath + "/";
+            prefix = prefix.startsWith( "/" ) ? prefix : "/" + prefix;
+        }
+        for ( Map.Entry<String, Set<String>> file : changedFiles.entrySet() )
+        {
+            String name = file.getKey();
+            if ( prefix != null )
+            {
+                name = name.startsWith( "/" ) ? name : "/" + name;
+                if ( !name.startsWith( prefix ) )
+                {
+                    continue;
+                }
+                name = name.substring( prefix.length() );
+            }
+            Set<String> changeTypes = this.changedFiles.get( name );
+            if ( changeTypes == null )
+            {
+                changeTypes = new HashSet<String>();
+                this.changedFiles.put( name, changeTypes );
+            }
+            changeTypes.addAll( file.getValue() );
+        }
+    }
+
+    /**
+     * Whether no file of the working copy has been changed at all.
+     * @return <code>true</code> if there are no changes
+     */
+    public boolean isEmpty()
+    {
+        return changedFiles.isEmpty();
+    }
+
+    /**
+     * Gets the changed file names.
+     * @return the changed files relative to the working copy
+     */
+    public Set<String> getChangedFiles()
+    {
+        return Collections.unmodifiableSet( changedFiles.keySet() );
+    }
+
+    /**
+     * Determines how the given file has been changed.
+     * @param relativeFilePath the file relative to the checkout directory
+     * @return the change type, e.g. ADD, MODIFICATION or NONE
+     */
+    public SVNLogChange getChange( String relativeFilePath )
+    {
+        Set<String> changeTypes = changedFiles.get( relativeFilePath.replace( '\\', '/' ) );
+
+        SVNLogChange result;
+        if ( changeTypes == null || changeTypes.isEmpty() )
+        {
+            result = SVNLogChange.NONE;
+        }
+        else if ( changeTypes.contains( ScmFileStatus.ADDED.toString() ) )
+        {
+            result = SVNLogChange.ADD;
+        }
+        else
+        {
+            result = SVNLogChange.MODIFICATION;
+        }
+        return result;
+    }
+}
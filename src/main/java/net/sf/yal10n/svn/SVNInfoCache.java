@@ -0,0 +1,84 @@
+package net.sf.yal10n.svn;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.yal10n.settings.ScmType;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Provides the {@link SVNInfo} for all resource files of one repository. The information
+ * is fetched for all files at once, when it is needed the first time.
+ */
+public class SVNInfoCache
+{
+    private final SVNUtil svn;
+    private final ScmType type;
+    private final String svnUrl;
+    private final String baseDir;
+    private final List<String> relativeFilePaths;
+    private Map<String, SVNInfo> infos;
+
+    /**
+     * Creates a new cache for the given files.
+     *
+     * @param svn the svn utility
+     * @param type the scm type
+     * @param svnUrl the repository url
+     * @param baseDir the root of the working directory
+     * @param relativeFilePaths the files relative to the base dir
+     */
+    public SVNInfoCache( SVNUtil svn, ScmType type, String svnUrl, String baseDir,
+            Collection<String> relativeFilePaths )
+    {
+        this.svn = svn;
+        this.type = type;
+        this.svnUrl = svnUrl;
+        this.baseDir = baseDir;
+        this.relativeFilePaths = new ArrayList<String>( relativeFilePaths );
+    }
+
+    /**
+     * Gets the information about the given file. If the file has not been found
+     * in the bulk lookup, the file is checked on its own.
+     *
+     * @param log the log
+     * @param relativeFilePath the file relative to the base dir
+     * @return the information
+     */
+    public SVNInfo get( Log log, String relativeFilePath )
+    {
+        SVNInfo info = getInfos( log ).get( relativeFilePath.replace( '\\', '/' ) );
+        if ( info == null )
+        {
+            info = svn.checkFile( log, type, svnUrl, baseDir, relativeFilePath );
+        }
+        return info;
+    }
+
+    private synchronized Map<String, SVNInfo> getInfos( Log log )
+    {
+        if ( infos == null )
+        {
+            infos = svn.checkFiles( log, type, baseDir, relativeFilePaths );
+        }
+        return infos;
+    }
+}
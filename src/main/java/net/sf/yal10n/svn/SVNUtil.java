@@ -18,10 +18,29 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.StringReader;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.security.MessageDigest;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.TimeZone;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 
 import net.sf.yal10n.settings.ScmType;
 
@@ -30,17 +49,20 @@ import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.scm.ChangeFile;
 import org.apache.maven.scm.ChangeSet;
 import org.apache.maven.scm.CommandParameters;
+import org.apache.maven.scm.ScmBranch;
 import org.apache.maven.scm.ScmException;
 import org.apache.maven.scm.ScmFileSet;
-import org.apache.maven.scm.ScmFileStatus;
 import org.apache.maven.scm.ScmResult;
 import org.apache.maven.scm.ScmRevision;
+import org.apache.maven.scm.ScmVersion;
 import org.apache.maven.scm.command.changelog.ChangeLogScmRequest;
 import org.apache.maven.scm.command.changelog.ChangeLogScmResult;
 import org.apache.maven.scm.command.checkout.CheckOutScmResult;
 import org.apache.maven.scm.command.diff.DiffScmResult;
 import org.apache.maven.scm.command.info.InfoItem;
 import org.apache.maven.scm.command.info.InfoScmResult;
+import org.apache.maven.scm.command.update.UpdateScmResult;
+import org.apache.maven.scm.command.update.UpdateScmResultWithRevision;
 import org.apache.maven.scm.manager.BasicScmManager;
 import org.apache.maven.scm.manager.ScmManager;
 import org.apache.maven.scm.provider.ScmProvider;
@@ -49,6 +71,12 @@ import org.apache.maven.scm.provider.git.gitexe.GitExeScmProvider;
 import org.apache.maven.scm.provider.svn.svnexe.SvnExeScmProvider;
 import org.apache.maven.scm.repository.ScmRepository;
 import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.util.FileUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
 
 /**
  * Simple SVN utility for checking out files from subversion.
@@ -57,8 +85,19 @@ import org.codehaus.plexus.component.annotations.Component;
 public class SVNUtil
 {
     private static final int BYTE_MASK = 0xff;
+    private static final String HEAD = "HEAD";
+    private static final String GIT_DIR = ".git";
+    private static final String GIT_SPARSE_CHECKOUT_FILE = GIT_DIR + "/info/sparse-checkout";
+    private static final int SVN_UPDATE_BATCH_SIZE = 100;
+    private static final String GIT_LOG_COMMIT_MARKER = "\u0001";
+    private static final Pattern SVN_INFO_REVISION = Pattern.compile( "revision=\"(\\d+)\"" );
+    private static final Pattern SVN_INFO_COMMIT_REVISION = Pattern.compile( "<commit\\s+revision=\"(\\d+)\"" );
+    private static final Pattern SVN_INFO_DEPTH = Pattern.compile( "<depth>(\\w+)</depth>" );
+    private static final Pattern SVN_INFO_URL = Pattern.compile( "<url>([^<]*)</url>" );
+    private static final Pattern SVN_INFO_ROOT = Pattern.compile( "<root>([^<]*)</root>" );
 
     private ScmManager scmManager;
+    private volatile JGitBackend jgit;
 
     /**
      * Instantiates a new SVN util.
@@ -70,6 +109,47 @@ public class SVNUtil
         scmManager.setScmProvider( "git", new GitExeScmProvider() );
     }
 
+    /**
+     * Enables or disables the in-process git backend. If enabled, the file information, change logs
+     * and diffs of git working copies are read directly from the git object database instead of
+     * executing git for each request. Checkouts and updates are still done by the git executable.
+     * Sparse working copies are partial clones, which the in-process backend can't read, so the
+     * git executable is used for them anyway.
+     *
+     * @param inProcessGit <code>true</code> to use the in-process git backend
+     */
+    public void setInProcessGit( boolean inProcessGit )
+    {
+        if ( inProcessGit && jgit == null )
+        {
+            jgit = new JGitBackend();
+        }
+        else if ( !inProcessGit && jgit != null )
+        {
+            jgit.close();
+            jgit = null;
+        }
+    }
+
+    /**
+     * Closes the repositories, that have been opened by the in-process git backend, e.g. at the end
+     * of a run. They are opened again, if they are needed later on.
+     */
+    public void close()
+    {
+        JGitBackend backend = jgit;
+        if ( backend != null )
+        {
+            backend.close();
+        }
+    }
+
+    private boolean useJGit( ScmType type, String workingCopy )
+    {
+        return type == ScmType.GIT && jgit != null
+                && !new File( workingCopy, GIT_SPARSE_CHECKOUT_FILE ).exists();
+    }
+
     /**
      * Determines the correct url. The url can start with a dot or two dots,
      * which will be interpreted as a relative file url.
@@ -124,14 +204,19 @@ public class SVNUtil
 
     /**
      * Checkout from the given svn url to the destination directory.
+     * If the destination directory is already a working copy, it is updated instead.
+     * Only if the update fails, e.g. because the working copy is corrupt, a fresh checkout is done.
      *
      * @param log the log
      * @param type the scm type
      * @param svnUrl the svn url
+     * @param tag the tag or branch to checkout. Only used for git, e.g. "HEAD".
+     * @param sparse the files to checkout or <code>null</code>, if the complete repository should be checked out
      * @param destination the destination
      * @return the current checked out version
      */
-    public String checkout( Log log, ScmType type, String svnUrl, String destination )
+    public String checkout( Log log, ScmType type, String svnUrl, String tag, SparseCheckout sparse,
+            String destination )
     {
         try
         {
@@ -153,9 +238,32 @@ public class SVNUtil
             {
                 throw new RuntimeException( "Couldn't create directory " + dstPath );
             }
-            CheckOutScmResult checkOutResult = scm.checkOut( repository, new ScmFileSet( dstPath ) );
-            checkResult( checkOutResult );
-            String revision = checkOutResult.getRevision();
+
+            String revision;
+            if ( isWorkingCopy( type, dstPath ) )
+            {
+                try
+                {
+                    revision = update( log, type, repository, svnUrl, tag, sparse, dstPath );
+                }
+                catch ( RuntimeException e )
+                {
+                    log.warn( "Couldn't update working copy " + dstPath + ", checking out again: " + e.getMessage() );
+                    FileUtils.cleanDirectory( dstPath );
+                    revision = freshCheckout( log, type, repository, svnUrl, tag, sparse, dstPath );
+                }
+            }
+            else
+            {
+                String[] leftovers = dstPath.list();
+                if ( leftovers != null && leftovers.length > 0 )
+                {
+                    log.warn( "Directory " + dstPath + " is not a working copy, checking out again" );
+                    FileUtils.cleanDirectory( dstPath );
+                }
+                revision = freshCheckout( log, type, repository, svnUrl, tag, sparse, dstPath );
+            }
+
             if ( revision == null )
             {
                 InfoScmResult info = scm.info( providerRepository, new ScmFileSet( dstPath ), null );
@@ -169,6 +277,425 @@ public class SVNUtil
         {
             throw new RuntimeException( e );
         }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
+
+    /**
+     * Asks the remote repository, whether there are any changes after the given revision.
+     * This is much cheaper than updating the working copy. For svn, the last changed revision of
+     * the url is compared, for git the commit, the tag or branch points to.
+     *
+     * @param log the log
+     * @param type the scm type
+     * @param svnUrl the svn url
+     * @param tag the tag or branch, only used for git, e.g. "HEAD"
+     * @param revision the revision of the last checkout
+     * @return <code>true</code> if the repository has not been changed. If the remote revision
+     * couldn't be determined, <code>false</code> is returned.
+     */
+    public boolean isUpToDate( Log log, ScmType type, String svnUrl, String tag, String revision )
+    {
+        try
+        {
+            boolean upToDate;
+            if ( type == ScmType.GIT )
+            {
+                String output = ScmCommandLine.execute( log, null, "git", "ls-remote", toPlainUrl( svnUrl ),
+                        tag == null ? HEAD : tag );
+                upToDate = revision.equals( parseLsRemote( output ) );
+            }
+            else
+            {
+                Matcher commit = SVN_INFO_COMMIT_REVISION.matcher( svn( log, null, "info", "--xml",
+                        toPlainUrl( svnUrl ) ) );
+                upToDate = commit.find() && Long.parseLong( commit.group( 1 ) ) <= Long.parseLong( revision );
+            }
+            return upToDate;
+        }
+        catch ( RuntimeException e )
+        {
+            log.warn( "Couldn't determine the remote revision of " + svnUrl + ": " + e.getMessage() );
+            return false;
+        }
+    }
+
+    /**
+     * Gets the commit from the output of "git ls-remote". For annotated tags, the tagged commit
+     * is used instead of the tag object.
+     */
+    private static String parseLsRemote( String output )
+    {
+        String result = null;
+        for ( String line : StringUtils.split( output, "\r\n" ) )
+        {
+            String[] parts = StringUtils.split( line, "\t" );
+            if ( parts.length == 2 && parts[1].endsWith( "^{}" ) )
+            {
+                return parts[0];
+            }
+            else if ( result == null && parts.length == 2 )
+            {
+                result = parts[0];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Fetches the given tag or branch into a bare git repository, that contains no working tree.
+     * If the destination is not yet a bare repository, it is created. The files can then be
+     * read with {@link #listFiles(Log, String)} and {@link #readFiles(Log, String, Collection)}.
+     *
+     * @param log the log
+     * @param svnUrl the git url
+     * @param tag the tag or branch, e.g. "HEAD"
+     * @param destination the directory of the bare repository
+     * @return the fetched commit
+     */
+    public String mirror( Log log, String svnUrl, String tag, String destination )
+    {
+        log.info( "Updating mirror of " + svnUrl );
+        File dstPath = new File( destination );
+        try
+        {
+            if ( dstPath.exists() && !dstPath.isDirectory() )
+            {
+                throw new RuntimeException( "Path is not a directory: " + dstPath );
+            }
+            else if ( !dstPath.exists() && !dstPath.mkdirs() )
+            {
+                throw new RuntimeException( "Couldn't create directory " + dstPath );
+            }
+
+            if ( isBareRepository( dstPath ) )
+            {
+                try
+                {
+                    fetchIntoMirror( log, svnUrl, tag, dstPath );
+                }
+                catch ( RuntimeException e )
+                {
+                    log.warn( "Couldn't update mirror " + dstPath + ", creating it again: " + e.getMessage() );
+                    FileUtils.cleanDirectory( dstPath );
+                    createMirror( log, svnUrl, tag, dstPath );
+                }
+            }
+            else
+            {
+                String[] leftovers = dstPath.list();
+                if ( leftovers != null && leftovers.length > 0 )
+                {
+                    log.warn( "Directory " + dstPath + " is not a bare git repository, creating it again" );
+                    FileUtils.cleanDirectory( dstPath );
+                }
+                createMirror( log, svnUrl, tag, dstPath );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( e );
+        }
+        String revision = ScmCommandLine.execute( log, dstPath, "git", "--git-dir=" + dstPath.getAbsolutePath(),
+                "rev-parse", HEAD ).trim();
+        log.info( "At revision " + revision );
+        return revision;
+    }
+
+    private void createMirror( Log log, String svnUrl, String tag, File dstPath )
+    {
+        ScmCommandLine.execute( log, dstPath, "git", "init", "--quiet", "--bare", dstPath.getAbsolutePath() );
+        fetchIntoMirror( log, svnUrl, tag, dstPath );
+    }
+
+    /**
+     * Fetches the tag and detaches HEAD of the bare repository at the fetched commit.
+     * Nothing else references the previous commits, so they can be garbage collected by git.
+     */
+    private void fetchIntoMirror( Log log, String svnUrl, String tag, File dstPath )
+    {
+        String gitDir = "--git-dir=" + dstPath.getAbsolutePath();
+        ScmCommandLine.execute( log, dstPath, "git", gitDir, "fetch", "--quiet", "--no-tags", toPlainUrl( svnUrl ),
+                tag == null ? HEAD : tag );
+        ScmCommandLine.execute( log, dstPath, "git", gitDir, "update-ref", "--no-deref", HEAD,
+                "FETCH_HEAD^{commit}" );
+    }
+
+    /**
+     * Lists all files of the current revision (HEAD) of a bare git repository.
+     *
+     * @param log the log
+     * @param mirror the directory of the bare repository
+     * @return the files relative to the repository root, separated by "/"
+     */
+    public List<String> listFiles( Log log, String mirror )
+    {
+        File dstPath = new File( mirror );
+        String output = ScmCommandLine.execute( log, dstPath, "git", "--git-dir=" + dstPath.getAbsolutePath(),
+                "-c", "core.quotePath=false", "ls-tree", "-r", "-z", "--name-only", HEAD );
+        List<String> result = new ArrayList<String>();
+        for ( String path : StringUtils.split( output, "\u0000" ) )
+        {
+            String trimmed = StringUtils.strip( path, "\r\n" );
+            if ( !trimmed.isEmpty() )
+            {
+                result.add( trimmed );
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads the contents of the given files in the current revision (HEAD) of a bare git repository.
+     * All files are read through a single git process.
+     *
+     * @param log the log
+     * @param mirror the directory of the bare repository
+     * @param relativeFilePaths the files relative to the repository root, separated by "/"
+     * @return the file contents by path. Files, that don't exist, are not contained.
+     */
+    public Map<String, byte[]> readFiles( Log log, String mirror, Collection<String> relativeFilePaths )
+    {
+        return GitCatFile.readFiles( log, new File( mirror ), HEAD, relativeFilePaths );
+    }
+
+    /**
+     * Gets the git directory of a working copy. For a bare repository, this is the directory itself.
+     */
+    static File getGitDir( File workingCopy )
+    {
+        return isBareRepository( workingCopy ) ? workingCopy : new File( workingCopy, GIT_DIR );
+    }
+
+    private static boolean isBareRepository( File dstPath )
+    {
+        return new File( dstPath, HEAD ).isFile() && new File( dstPath, "objects" ).isDirectory()
+                && !new File( dstPath, GIT_DIR ).exists();
+    }
+
+    private static boolean isWorkingCopy( ScmType type, File dstPath )
+    {
+        String metadataDirectory = type == ScmType.GIT ? GIT_DIR : ".svn";
+        return new File( dstPath, metadataDirectory ).isDirectory();
+    }
+
+    private String freshCheckout( Log log, ScmType type, ScmRepository repository, String svnUrl, String tag,
+            SparseCheckout sparse, File dstPath ) throws ScmException
+    {
+        if ( sparse != null && type == ScmType.GIT )
+        {
+            return gitSparseClone( log, svnUrl, tag, sparse, dstPath );
+        }
+        else if ( sparse != null )
+        {
+            svn( log, dstPath, "checkout", "--quiet", "--depth", "empty", toPlainUrl( svnUrl ),
+                    dstPath.getAbsolutePath() );
+            return svnSparseUpdate( log, svnUrl, sparse, dstPath );
+        }
+
+        ScmVersion version = null;
+        if ( type == ScmType.GIT && tag != null && !HEAD.equals( tag ) )
+        {
+            version = new ScmBranch( tag );
+        }
+        ScmProvider scm = scmManager.getProviderByRepository( repository );
+        CheckOutScmResult checkOutResult = scm.checkOut( repository, new ScmFileSet( dstPath ), version );
+        checkResult( checkOutResult );
+        return checkOutResult.getRevision();
+    }
+
+    /**
+     * Updates an existing working copy.
+     * @return the new revision or <code>null</code>, if the revision is not known yet.
+     */
+    private String update( Log log, ScmType type, ScmRepository repository, String svnUrl, String tag,
+            SparseCheckout sparse, File dstPath )
+    {
+        String revision = null;
+        boolean sparseWorkingCopy = isSparseWorkingCopy( log, type, dstPath );
+        if ( sparseWorkingCopy != ( sparse != null ) )
+        {
+            throw new RuntimeException( "The working copy " + dstPath + " has been checked out "
+                    + ( sparseWorkingCopy ? "sparse" : "completely" ) );
+        }
+
+        if ( sparse != null && type == ScmType.GIT )
+        {
+            writeGitSparsePatterns( sparse, dstPath );
+            // fetching from the remote of the partial clone keeps omitting the blobs
+            git( log, dstPath, "remote", "set-url", "origin", toPlainUrl( svnUrl ) );
+            git( log, dstPath, "fetch", "--quiet", "origin", tag == null ? HEAD : tag );
+            git( log, dstPath, "reset", "--quiet", "--hard", "FETCH_HEAD" );
+            git( log, dstPath, "read-tree", "-mu", HEAD );
+        }
+        else if ( sparse != null )
+        {
+            revision = svnSparseUpdate( log, svnUrl, sparse, dstPath );
+        }
+        else if ( type == ScmType.GIT )
+        {
+            // "git pull" would merge, so fetch and move the working copy to exactly the fetched commit
+            git( log, dstPath, "fetch", "--quiet", toPlainUrl( svnUrl ), tag == null ? HEAD : tag );
+            git( log, dstPath, "reset", "--quiet", "--hard", "FETCH_HEAD" );
+        }
+        else
+        {
+            try
+            {
+                ScmProvider scm = scmManager.getProviderByRepository( repository );
+                UpdateScmResult updateResult = scm.update( repository, new ScmFileSet( dstPath ) );
+                checkResult( updateResult );
+                if ( updateResult instanceof UpdateScmResultWithRevision )
+                {
+                    revision = ( (UpdateScmResultWithRevision) updateResult ).getRevision();
+                }
+            }
+            catch ( ScmException e )
+            {
+                throw new RuntimeException( e );
+            }
+        }
+        return revision;
+    }
+
+    private static boolean isSparseWorkingCopy( Log log, ScmType type, File dstPath )
+    {
+        if ( type == ScmType.GIT )
+        {
+            return new File( dstPath, GIT_SPARSE_CHECKOUT_FILE ).exists();
+        }
+        Matcher depth = SVN_INFO_DEPTH.matcher( svn( log, dstPath, "info", "--xml", dstPath.getAbsolutePath() ) );
+        return depth.find() && "empty".equals( depth.group( 1 ) );
+    }
+
+    /**
+     * Clones the git repository without checking out any files and without downloading any file contents.
+     * Then only the needed files are checked out, which downloads just these files.
+     */
+    private String gitSparseClone( Log log, String svnUrl, String tag, SparseCheckout sparse, File dstPath )
+    {
+        List<String> arguments = new ArrayList<String>();
+        arguments.add( "clone" );
+        arguments.add( "--quiet" );
+        arguments.add( "--no-checkout" );
+        arguments.add( "--filter=blob:none" );
+        if ( tag != null && !HEAD.equals( tag ) )
+        {
+            arguments.add( "--branch" );
+            arguments.add( tag );
+        }
+        arguments.add( toPlainUrl( svnUrl ) );
+        arguments.add( dstPath.getAbsolutePath() );
+        ScmCommandLine.execute( log, dstPath, "git", arguments.toArray( new String[arguments.size()] ) );
+
+        git( log, dstPath, "config", "core.sparseCheckout", "true" );
+        writeGitSparsePatterns( sparse, dstPath );
+        git( log, dstPath, "read-tree", "-mu", HEAD );
+        return git( log, dstPath, "rev-parse", HEAD ).trim();
+    }
+
+    private static void writeGitSparsePatterns( SparseCheckout sparse, File dstPath )
+    {
+        File sparseCheckoutFile = new File( dstPath, GIT_SPARSE_CHECKOUT_FILE );
+        StringBuilder patterns = new StringBuilder();
+        for ( String pattern : sparse.toGitPatterns() )
+        {
+            patterns.append( pattern ).append( '\n' );
+        }
+        try
+        {
+            FileUtils.mkdir( sparseCheckoutFile.getParent() );
+            FileUtils.fileWrite( sparseCheckoutFile, "UTF-8", patterns.toString() );
+        }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
+
+    /**
+     * Updates a svn working copy, that has been checked out with depth "empty". All files, that
+     * are present, are updated. Then the needed files are searched in the repository and only the ones,
+     * that are missing in the working copy, are added including their parent directories.
+     * @return the new revision
+     */
+    private String svnSparseUpdate( Log log, String svnUrl, SparseCheckout sparse, File dstPath )
+    {
+        svn( log, dstPath, "update", "--quiet" );
+        Matcher revisionMatcher = SVN_INFO_REVISION.matcher( svn( log, dstPath, "info", "--xml",
+                dstPath.getAbsolutePath() ) );
+        if ( !revisionMatcher.find() )
+        {
+            throw new RuntimeException( "Couldn't determine revision of " + dstPath );
+        }
+        String revision = revisionMatcher.group( 1 );
+
+        String listing = svn( log, dstPath, "list", "--recursive", "--revision", revision, toPlainUrl( svnUrl ) );
+        List<String> neededFiles = new ArrayList<String>();
+        for ( String path : StringUtils.split( listing, "\r\n" ) )
+        {
+            // the files in the working copy have been updated already
+            if ( !path.endsWith( "/" ) && sparse.isNeeded( path ) && !new File( dstPath, path ).exists() )
+            {
+                // the trailing @ prevents svn from interpreting an @ in the file name as peg revision
+                neededFiles.add( path + "@" );
+            }
+        }
+        log.debug( "Sparse checkout of " + neededFiles.size() + " new files" );
+
+        for ( int i = 0; i < neededFiles.size(); i += SVN_UPDATE_BATCH_SIZE )
+        {
+            List<String> batch = neededFiles.subList( i, Math.min( i + SVN_UPDATE_BATCH_SIZE, neededFiles.size() ) );
+            List<String> arguments = new ArrayList<String>( Arrays.asList( "update", "--quiet", "--parents",
+                    "--revision", revision ) );
+            arguments.addAll( batch );
+            svn( log, dstPath, arguments.toArray( new String[arguments.size()] ) );
+        }
+        return revision;
+    }
+
+    private static String svn( Log log, File workingCopy, String... arguments )
+    {
+        String[] allArguments = new String[arguments.length + 1];
+        allArguments[0] = "--non-interactive";
+        System.arraycopy( arguments, 0, allArguments, 1, arguments.length );
+        return ScmCommandLine.execute( log, workingCopy, "svn", allArguments );
+    }
+
+    /**
+     * Executes a git command in the given working copy. The git directory is given explicitly,
+     * so that git never falls back to a repository in one of the parent directories, if the
+     * working copy is corrupt.
+     */
+    private static String git( Log log, File workingCopy, String... arguments )
+    {
+        String[] allArguments = new String[arguments.length + 2];
+        allArguments[0] = "--git-dir=" + new File( workingCopy, GIT_DIR ).getAbsolutePath();
+        allArguments[1] = "--work-tree=" + workingCopy.getAbsolutePath();
+        System.arraycopy( arguments, 0, allArguments, 2, arguments.length );
+        return ScmCommandLine.execute( log, workingCopy, "git", allArguments );
+    }
+
+    /**
+     * Removes the scm provider prefix (e.g. "scm:git:") from the url, so that it can
+     * be used directly with the svn or git executable. Local paths are made absolute.
+     */
+    private String toPlainUrl( String svnUrl )
+    {
+        String result = getUrl( svnUrl );
+        if ( result.startsWith( "scm:" ) )
+        {
+            result = result.substring( result.indexOf( ':', "scm:".length() ) + 1 );
+        }
+        // the commands are executed in the working copy, so relative local paths need to be resolved first
+        File localPath = new File( result );
+        if ( localPath.exists() )
+        {
+            result = localPath.getAbsolutePath();
+        }
+        return result;
     }
 
     /**
@@ -183,6 +710,13 @@ public class SVNUtil
      */
     public SVNInfo checkFile( Log log, ScmType type, String svnUrl, String baseDir, String relativeFilePath )
     {
+        if ( useJGit( type, baseDir ) )
+        {
+            String path = relativeFilePath.replace( '\\', '/' );
+            SVNInfo info = jgit.checkFiles( baseDir, Collections.singleton( path ) ).get( path );
+            // same as "git rev-parse HEAD", which is used by the git executable provider
+            return info != null ? info : new SVNInfo( jgit.getHead( baseDir ), null );
+        }
         try
         {
             String scmUrl = createScmSvnUrl( type, svnUrl );
@@ -201,6 +735,133 @@ public class SVNUtil
         }
     }
 
+    /**
+     * Gets the information about many files in a local working directory at once. For svn, a single
+     * recursive "svn info" is executed, for git a single "git log" over all the files.
+     * Files, for which no information could be found, are not contained in the result.
+     *
+     * @param log the log
+     * @param type the scm type
+     * @param baseDir the base dir, the root of the working directory
+     * @param relativeFilePaths the files relative to the base dir
+     * @return the information, keyed by the relative file path using "/" as separator
+     */
+    public Map<String, SVNInfo> checkFiles( Log log, ScmType type, String baseDir,
+            Collection<String> relativeFilePaths )
+    {
+        Set<String> wanted = new HashSet<String>();
+        for ( String path : relativeFilePaths )
+        {
+            wanted.add( path.replace( '\\', '/' ) );
+        }
+        Map<String, SVNInfo> result = new HashMap<String, SVNInfo>();
+        if ( wanted.isEmpty() )
+        {
+            return result;
+        }
+
+        File workingCopy = new File( baseDir );
+        if ( useJGit( type, baseDir ) )
+        {
+            result.putAll( jgit.checkFiles( baseDir, wanted ) );
+        }
+        else if ( type == ScmType.GIT )
+        {
+            readGitLog( log, workingCopy, wanted, result );
+        }
+        else
+        {
+            readSvnInfo( log, workingCopy, wanted, result );
+        }
+        log.debug( "Found scm info for " + result.size() + " of " + wanted.size() + " files" );
+        return result;
+    }
+
+    private static void readGitLog( Log log, File workingCopy, Set<String> wanted, Map<String, SVNInfo> result )
+    {
+        // the paths are given via stdin, as there might be too many for the command line
+        StringBuilder pathspecs = new StringBuilder( "--\n" );
+        for ( String path : wanted )
+        {
+            pathspecs.append( path ).append( '\n' );
+        }
+        String[] arguments = { "--git-dir=" + getGitDir( workingCopy ).getAbsolutePath(),
+            "--work-tree=" + workingCopy.getAbsolutePath(), "-c", "core.quotePath=false", "log",
+            "--format=" + GIT_LOG_COMMIT_MARKER + "%H %ci", "--name-only", "--no-renames", "--stdin", HEAD };
+        String output = ScmCommandLine.executeWithInput( log, workingCopy, pathspecs.toString(), "git", arguments );
+
+        SVNInfo current = null;
+        for ( String line : StringUtils.split( output, "\r\n" ) )
+        {
+            if ( line.startsWith( GIT_LOG_COMMIT_MARKER ) )
+            {
+                int separator = line.indexOf( ' ' );
+                current = new SVNInfo( line.substring( GIT_LOG_COMMIT_MARKER.length(), separator ),
+                        line.substring( separator + 1 ) );
+            }
+            else if ( current != null && wanted.contains( line ) && !result.containsKey( line ) )
+            {
+                // the log is ordered from newest to oldest, so the first commit is the last change
+                result.put( line, current );
+            }
+        }
+    }
+
+    private static void readSvnInfo( Log log, File workingCopy, Set<String> wanted, Map<String, SVNInfo> result )
+    {
+        String output = svn( log, workingCopy, "info", "--xml", "--recursive", "." );
+        try
+        {
+            DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+            Document document = builder.parse( new InputSource( new StringReader( output ) ) );
+            NodeList entries = document.getElementsByTagName( "entry" );
+            for ( int i = 0; i < entries.getLength(); i++ )
+            {
+                Element entry = (Element) entries.item( i );
+                String path = entry.getAttribute( "path" ).replace( '\\', '/' );
+                NodeList commits = entry.getElementsByTagName( "commit" );
+                if ( wanted.contains( path ) && commits.getLength() > 0 )
+                {
+                    Element commit = (Element) commits.item( 0 );
+                    NodeList dates = commit.getElementsByTagName( "date" );
+                    String date = dates.getLength() > 0 ? formatSvnDate( dates.item( 0 ).getTextContent() ) : null;
+                    result.put( path, new SVNInfo( commit.getAttribute( "revision" ), date ) );
+                }
+            }
+        }
+        catch ( ParserConfigurationException e )
+        {
+            throw new RuntimeException( e );
+        }
+        catch ( SAXException e )
+        {
+            throw new RuntimeException( e );
+        }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
+
+    /**
+     * Converts the date from the xml output of svn into the same format, that "svn info" uses
+     * for "Last Changed Date", e.g. "2013-02-23 20:51:23 +0100 (Sat, 23 Feb 2013)".
+     */
+    private static String formatSvnDate( String xmlDate )
+    {
+        try
+        {
+            SimpleDateFormat parser = new SimpleDateFormat( "yyyy-MM-dd'T'HH:mm:ss", Locale.ENGLISH );
+            parser.setTimeZone( TimeZone.getTimeZone( "UTC" ) );
+            Date date = parser.parse( xmlDate );
+            return new SimpleDateFormat( "yyyy-MM-dd HH:mm:ss Z (EEE, dd MMM yyyy)", Locale.ENGLISH ).format( date );
+        }
+        catch ( ParseException e )
+        {
+            return xmlDate;
+        }
+    }
+
     /**
      * Determines whether a given file has been modified between two revisions.
      *
@@ -215,20 +876,56 @@ public class SVNUtil
      */
     public SVNLogChange log( Log log, ScmType type, String svnUrl, String checkoutDir, String relativeFilePath,
             String baseRevision, String newRevision )
+    {
+        if ( useJGit( type, checkoutDir ) )
+        {
+            return changeLog( log, type, svnUrl, checkoutDir, baseRevision, newRevision ).getChange( relativeFilePath );
+        }
+        ScmFileSet fileSet = new ScmFileSet( new File( checkoutDir ), new File( relativeFilePath ) );
+        return changeLog( log, type, svnUrl, fileSet, baseRevision, newRevision ).getChange( relativeFilePath );
+    }
+
+    /**
+     * Determines all files of a working copy, that have been modified between two revisions.
+     * This needs only one request to the scm, regardless of the number of files.
+     *
+     * @param log the log
+     * @param type the scm type
+     * @param svnUrl the repository url
+     * @param checkoutDir the checkout directory
+     * @param baseRevision the old revision (exclusive)
+     * @param newRevision the new revision (inclusive)
+     * @return the changed files
+     */
+    public SVNChangeLog changeLog( Log log, ScmType type, String svnUrl, String checkoutDir,
+            String baseRevision, String newRevision )
+    {
+        if ( baseRevision.equals( newRevision ) )
+        {
+            return new SVNChangeLog( Collections.<String, Set<String>>emptyMap() );
+        }
+        if ( useJGit( type, checkoutDir ) )
+        {
+            return jgit.changeLog( checkoutDir, baseRevision, newRevision );
+        }
+        return changeLog( log, type, svnUrl, new ScmFileSet( new File( checkoutDir ) ), baseRevision, newRevision );
+    }
+
+    private SVNChangeLog changeLog( Log log, ScmType type, String svnUrl, ScmFileSet fileSet, String baseRevision,
+            String newRevision )
     {
         try
         {
             String scmUrl = createScmSvnUrl( type, svnUrl );
             ScmProvider scm = scmManager.getProviderByUrl( scmUrl );
             ScmRepository repository = scmManager.makeScmRepository( scmUrl );
-            ChangeLogScmRequest scmRequest = new ChangeLogScmRequest( repository,
-                    new ScmFileSet( new File( checkoutDir ), new File ( relativeFilePath ) ) );
+            ChangeLogScmRequest scmRequest = new ChangeLogScmRequest( repository, fileSet );
             scmRequest.setStartRevision( new ScmRevision( baseRevision ) );
             scmRequest.setEndRevision( new ScmRevision( newRevision ) );
             ChangeLogScmResult changeLog = scm.changeLog( scmRequest );
             checkResult( changeLog );
 
-            Set<String> changeTypes = new HashSet<String>();
+            Map<String, Set<String>> changedFiles = new HashMap<String, Set<String>>();
             List<ChangeSet> changeSets = changeLog.getChangeLog().getChangeSets();
             for ( ChangeSet cs : changeSets )
             {
@@ -238,26 +935,18 @@ public class SVNUtil
                 }
                 for ( ChangeFile f : cs.getFiles() )
                 {
-                    if ( f.getName().endsWith( relativeFilePath ) )
+                    Set<String> changeTypes = changedFiles.get( f.getName() );
+                    if ( changeTypes == null )
                     {
-                        changeTypes.add( String.valueOf( f.getAction() ) );
+                        changeTypes = new HashSet<String>();
+                        changedFiles.put( f.getName(), changeTypes );
                     }
+                    changeTypes.add( String.valueOf( f.getAction() ) );
                 }
             }
-            SVNLogChange result;
-            if ( changeTypes.isEmpty() )
-            {
-                result = SVNLogChange.NONE;
-            }
-            else if ( changeTypes.contains( ScmFileStatus.ADDED.toString() ) )
-            {
-                result = SVNLogChange.ADD;
-            }
-            else
-            {
-                result = SVNLogChange.MODIFICATION;
-            }
-            return result;
+            // svn reports the files from the repository root, git relative to the working copy
+            String workingCopyPath = type == ScmType.SVN ? getRepositoryPath( log, fileSet.getBasedir() ) : null;
+            return new SVNChangeLog( changedFiles, workingCopyPath );
         }
         catch ( ScmException e )
         {
@@ -265,6 +954,37 @@ public class SVNUtil
         }
     }
 
+    /**
+     * Determines the path of the svn working copy within its repository, e.g. <code>/project/trunk</code>.
+     */
+    static String getRepositoryPath( Log log, File workingCopy )
+    {
+        String info = svn( log, workingCopy, "info", "--xml", workingCopy.getAbsolutePath() );
+        Matcher url = SVN_INFO_URL.matcher( info );
+        Matcher root = SVN_INFO_ROOT.matcher( info );
+        if ( !url.find() || !root.find() )
+        {
+            throw new RuntimeException( "Couldn't determine the repository path of " + workingCopy );
+        }
+        return toRepositoryPath( url.group( 1 ), root.group( 1 ) );
+    }
+
+    /**
+     * Converts the url of a working copy into the path within the repository, as svn reports the changed files.
+     */
+    static String toRepositoryPath( String url, String root )
+    {
+        try
+        {
+            String path = new URI( url ).getPath().substring( new URI( root ).getPath().length() );
+            return path.startsWith( "/" ) ? path : "/" + path;
+        }
+        catch ( URISyntaxException e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
+
     /**
      * Retrieves a unified diff for a given file and revision.
      *
@@ -280,6 +1000,10 @@ public class SVNUtil
     public String diff( Log log, ScmType type, String svnUrl, String checkoutDir, String relativeFilePath,
             String baseRevision, String newRevision )
     {
+        if ( useJGit( type, checkoutDir ) )
+        {
+            return jgit.diff( checkoutDir, relativeFilePath.replace( '\\', '/' ), baseRevision, newRevision );
+        }
         try
         {
             String scmUrl = createScmSvnUrl( type, svnUrl );
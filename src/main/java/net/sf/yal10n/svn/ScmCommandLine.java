@@ -0,0 +1,101 @@
+package net.sf.yal10n.svn;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.util.cli.CommandLineException;
+import org.codehaus.plexus.util.cli.CommandLineUtils;
+import org.codehaus.plexus.util.cli.Commandline;
+
+/**
+ * Executes svn or git commands directly, for the cases which are not covered by maven-scm.
+ */
+final class ScmCommandLine
+{
+    private ScmCommandLine()
+    {
+        // utility class
+    }
+
+    /**
+     * Executes the given command and returns the standard output.
+     *
+     * @param log the log
+     * @param workingDirectory the working directory, can be <code>null</code>
+     * @param executable the executable, e.g. "svn" or "git"
+     * @param arguments the arguments
+     * @return the standard output of the command
+     * @throws RuntimeException if the command couldn't be executed or returned with a non-zero exit code
+     */
+    static String execute( Log log, File workingDirectory, String executable, String... arguments )
+    {
+        return executeWithInput( log, workingDirectory, null, executable, arguments );
+    }
+
+    /**
+     * Executes the given command, passes the given input as standard input and returns the standard output.
+     *
+     * @param log the log
+     * @param workingDirectory the working directory, can be <code>null</code>
+     * @param input the standard input for the command, can be <code>null</code>
+     * @param executable the executable, e.g. "svn" or "git"
+     * @param arguments the arguments
+     * @return the standard output of the command
+     * @throws RuntimeException if the command couldn't be executed or returned with a non-zero exit code
+     */
+    static String executeWithInput( Log log, File workingDirectory, String input, String executable,
+            String... arguments )
+    {
+        Commandline cl = new Commandline();
+        cl.setExecutable( executable );
+        if ( workingDirectory != null )
+        {
+            cl.setWorkingDirectory( workingDirectory );
+        }
+        cl.addArguments( arguments );
+
+        CommandLineUtils.StringStreamConsumer out = new CommandLineUtils.StringStreamConsumer();
+        CommandLineUtils.StringStreamConsumer err = new CommandLineUtils.StringStreamConsumer();
+        log.debug( "Executing: " + cl );
+        try
+        {
+            InputStream in = null;
+            if ( input != null )
+            {
+                in = new ByteArrayInputStream( input.getBytes( "UTF-8" ) );
+            }
+            int exitCode = CommandLineUtils.executeCommandLine( cl, in, out, err );
+            if ( exitCode != 0 )
+            {
+                throw new RuntimeException( "Command failed (exit code " + exitCode + "): " + cl
+                        + "\n" + err.getOutput() );
+            }
+        }
+        catch ( CommandLineException e )
+        {
+            throw new RuntimeException( e );
+        }
+        catch ( UnsupportedEncodingException e )
+        {
+            throw new RuntimeException( e );
+        }
+        return out.getOutput();
+    }
+}
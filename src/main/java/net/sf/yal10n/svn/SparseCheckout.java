@@ -0,0 +1,172 @@
+package net.sf.yal10n.svn;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.codehaus.plexus.util.SelectorUtils;
+
+/**
+ * Describes which files of a repository are needed, if only a part of the repository
+ * should be checked out. The files are selected by the same ant-style include and exclude patterns,
+ * that are used to find the messages files. Additionally all pom.xml files are always needed,
+ * as they are used to determine the project name of a resource bundle.
+ * <p>
+ * The patterns might also be regular expressions (<code>%regex[...]</code>), as supported by the
+ * DirectoryScanner. These are only evaluated by {@link #isNeeded(String)}, git's sparse checkout can't
+ * express them.
+ * </p>
+ */
+public class SparseCheckout
+{
+    private static final String POM = "pom.xml";
+
+    private final List<String> includes;
+    private final List<String> excludes;
+
+    /**
+     * Creates a new sparse checkout description.
+     * @param includes the ant-style include patterns. If empty, every file is included.
+     * @param excludes the ant-style exclude patterns
+     */
+    public SparseCheckout( Collection<String> includes, Collection<String> excludes )
+    {
+        this.includes = normalize( includes.isEmpty() ? Collections.singleton( "**" ) : includes );
+        this.excludes = normalize( excludes );
+    }
+
+    private static List<String> normalize( Collection<String> patterns )
+    {
+        List<String> result = new ArrayList<String>( patterns.size() );
+        for ( String pattern : patterns )
+        {
+            String normalized = pattern.trim();
+            if ( isRegex( normalized ) )
+            {
+                // backslashes are escapes in a regular expression
+                result.add( normalized );
+                continue;
+            }
+            if ( normalized.startsWith( SelectorUtils.ANT_HANDLER_PREFIX )
+                    && normalized.endsWith( SelectorUtils.PATTERN_HANDLER_SUFFIX ) )
+            {
+                normalized = normalized.substring( SelectorUtils.ANT_HANDLER_PREFIX.length(),
+                        normalized.length() - SelectorUtils.PATTERN_HANDLER_SUFFIX.length() );
+            }
+            normalized = normalized.replace( '\\', '/' );
+            // same as the DirectoryScanner: "foo/" means "foo/**"
+            if ( normalized.endsWith( "/" ) )
+            {
+                normalized += "**";
+            }
+            result.add( normalized );
+        }
+        return result;
+    }
+
+    private static boolean isRegex( String pattern )
+    {
+        return pattern.startsWith( SelectorUtils.REGEX_HANDLER_PREFIX )
+                && pattern.endsWith( SelectorUtils.PATTERN_HANDLER_SUFFIX );
+    }
+
+    /**
+     * Determines whether the given file is needed.
+     * @param path the path of the file relative to the repository root, separated by "/"
+     * @return <code>true</code> if the file needs to be checked out
+     */
+    public boolean isNeeded( String path )
+    {
+        return isPOM( path ) || isIncluded( path );
+    }
+
+    /**
+     * Determines whether the given file is a messages file, that is selected by the include
+     * and exclude patterns.
+     * @param path the path of the file relative to the repository root, separated by "/"
+     * @return <code>true</code> if the file is included
+     */
+    public boolean isIncluded( String path )
+    {
+        return matchesAny( includes, path ) && !matchesAny( excludes, path );
+    }
+
+    /**
+     * Determines whether the given file is a maven project file (pom.xml).
+     * @param path the path of the file relative to the repository root, separated by "/"
+     * @return <code>true</code> if the file is a pom.xml
+     */
+    public static boolean isPOM( String path )
+    {
+        return path.equals( POM ) || path.endsWith( "/" + POM );
+    }
+
+    private static boolean matchesAny( List<String> patterns, String path )
+    {
+        String localPath = path.replace( '/', File.separatorChar );
+        for ( String pattern : patterns )
+        {
+            String localPattern = isRegex( pattern ) ? pattern : pattern.replace( '/', File.separatorChar );
+            if ( SelectorUtils.matchPath( localPattern, localPath ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Converts the patterns into the format used by git's sparse-checkout file (non-cone mode),
+     * which has the same syntax as .gitignore. Regular expressions can't be converted: if one of the
+     * includes is a regular expression, all files are checked out, and excludes, that are regular
+     * expressions, are left out. The messages files are selected again when the working copy is scanned,
+     * so checking out too many files is harmless.
+     * @return the lines for the sparse-checkout file
+     */
+    public List<String> toGitPatterns()
+    {
+        List<String> result = new ArrayList<String>();
+        boolean allFiles = false;
+        for ( String include : includes )
+        {
+            allFiles |= isRegex( include );
+        }
+        if ( allFiles )
+        {
+            result.add( "/**" );
+        }
+        else
+        {
+            for ( String include : includes )
+            {
+                result.add( "/" + include );
+            }
+        }
+        for ( String exclude : excludes )
+        {
+            if ( !isRegex( exclude ) )
+            {
+                result.add( "!/" + exclude );
+            }
+        }
+        // poms must be present, even if they are excluded, so they come last
+        result.add( POM );
+        return result;
+    }
+}
@@ -14,12 +14,11 @@ package net.sf.yal10n.tmx;
  * limitations under the License.
  */
 
-import java.io.FileOutputStream;
+import java.io.File;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Properties;
 import java.util.Set;
 
 import javax.xml.stream.XMLOutputFactory;
@@ -27,17 +26,14 @@ import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 
 import net.sf.yal10n.DashboardMojo;
+import net.sf.yal10n.ReplaceIfChangedOutputStream;
+import net.sf.yal10n.analyzer.Messages;
 import net.sf.yal10n.analyzer.ResourceBundle;
-import net.sf.yal10n.dashboard.BundleModel;
 
 import org.apache.maven.plugin.logging.Log;
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.IOUtil;
-import org.joda.time.DateTime;
-import org.joda.time.DateTimeZone;
-import org.joda.time.format.DateTimeFormat;
-import org.joda.time.format.DateTimeFormatter;
 
 /**
  * Creates a translation memory exchange file from one or more {@link ResourceBundle}s.
@@ -53,10 +49,11 @@ public class TranslationMemoryRenderer
      */
     public void render( Collection<ResourceBundle> bundles, String outputDirectory )
     {
-        FileOutputStream stream = null;
+        ReplaceIfChangedOutputStream stream = null;
         try
         {
-            stream = new FileOutputStream( FileUtils.normalize( outputDirectory + "/all-translations.tmx" ) );
+            stream = new ReplaceIfChangedOutputStream( new File( FileUtils.normalize( outputDirectory
+                    + "/all-translations.tmx" ) ) );
             XMLOutputFactory factory = XMLOutputFactory.newInstance();
             XMLStreamWriter out = new IndentingXMLStreamWriter( factory.createXMLStreamWriter( stream, "UTF-8" ) );
 
@@ -74,6 +71,7 @@ public class TranslationMemoryRenderer
             }
 
             writeEnd( out );
+            stream.commit();
         }
         catch ( Exception e )
         {
@@ -90,18 +88,20 @@ public class TranslationMemoryRenderer
         out.writeEndElement();
         out.writeEndElement();
         out.writeEndDocument();
+        out.flush();
         out.close();
     }
 
     private void writeBundle( XMLStreamWriter out, Set<String> languages, ResourceBundle b ) throws XMLStreamException
     {
-        Map<String, Properties> allProperties = b.getAllProperties();
-        if ( allProperties.containsKey( "default" ) )
+        Map<String, Messages> allMessages = b.getAllMessages();
+        if ( allMessages.containsKey( "default" ) )
         {
-            Properties defaultProps = allProperties.get( "default" );
-            for ( Object o : defaultProps.keySet() )
+            Messages defaultMessages = allMessages.get( "default" );
+            for ( int i = 0; i < defaultMessages.size(); i++ )
             {
-                String s = (String) o;
+                int ordinal = defaultMessages.getOrdinal( i );
+                String s = defaultMessages.getKey( ordinal );
 
                 out.writeStartElement( "tu" );
 
@@ -110,13 +110,13 @@ public class TranslationMemoryRenderer
                 writeProperty( out, "x-svn-base-path", b.getSvnUrl() );
                 writeProperty( out, "x-key", s );
 
-                writeMessage( out, "en", defaultProps.getProperty( s ) );
+                writeMessage( out, "en", defaultMessages.get( ordinal ) );
                 for ( String l : languages )
                 {
-                    Properties langfile = allProperties.get( l );
+                    Messages langfile = allMessages.get( l );
                     if ( langfile != null )
                     {
-                        writeMessage( out, l, langfile.getProperty( s ) );
+                        writeMessage( out, l, langfile.get( ordinal ) );
                     }
                 }
                 out.writeEndElement();
@@ -145,8 +145,7 @@ public class TranslationMemoryRenderer
         out.writeAttribute( "segtype", "sentence" );
         out.writeAttribute( "adminlang", "en-us" );
         out.writeAttribute( "srclang", "en" );
-        DateTimeFormatter formatter = DateTimeFormat.forPattern( "yyyyMMdd'T'HHmmss'Z'" );
-        out.writeAttribute( "creationdate", DateTime.now( DateTimeZone.UTC ).toString( formatter ) );
+        // no creationdate, the file would change with every run otherwise
         out.writeEndElement();
         out.writeStartElement( "body" );
     }
@@ -174,12 +173,11 @@ public class TranslationMemoryRenderer
      */
     public void render( Log log, ResourceBundle bundle, String outputDirectory, List<String> includeVariants )
     {
-        BundleModel bundleModel = bundle.toBundleModel( log, bundle.getLanguages(), includeVariants );
-        FileOutputStream stream = null;
+        ReplaceIfChangedOutputStream stream = null;
         try
         {
-            stream = new FileOutputStream( FileUtils.normalize( outputDirectory + "/reports/"
-                    + bundleModel.getRelativeTmxUrl() ) );
+            stream = new ReplaceIfChangedOutputStream( new File( FileUtils.normalize( outputDirectory + "/reports/"
+                    + bundle.getRelativeTmxUrl() ) ) );
             XMLOutputFactory factory = XMLOutputFactory.newInstance();
             XMLStreamWriter out = new IndentingXMLStreamWriter( factory.createXMLStreamWriter( stream, "UTF-8" ) );
 
@@ -191,6 +189,7 @@ public class TranslationMemoryRenderer
             writeBundle( out, languages, bundle );
 
             writeEnd( out );
+            stream.commit();
         }
         catch ( Exception e )
         {
@@ -14,10 +14,13 @@ package net.sf.yal10n;
  * limitations under the License.
  */
 
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -25,8 +28,14 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
 
+import net.sf.yal10n.analyzer.AnalysisCache;
+import net.sf.yal10n.analyzer.NullLog;
 import net.sf.yal10n.analyzer.ResourceAnalyzer;
 import net.sf.yal10n.analyzer.ResourceBundle;
 import net.sf.yal10n.dashboard.DashboardModel;
@@ -36,10 +45,14 @@ import net.sf.yal10n.report.ReportRenderer;
 import net.sf.yal10n.settings.DashboardConfiguration;
 import net.sf.yal10n.settings.Repository;
 import net.sf.yal10n.settings.ScmType;
+import net.sf.yal10n.svn.SVNInfo;
 import net.sf.yal10n.svn.SVNUtil;
+import net.sf.yal10n.svn.SVNUtilMock;
+import net.sf.yal10n.svn.SparseCheckout;
 import net.sf.yal10n.tmx.TranslationMemoryRenderer;
 
 import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.util.FileUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -68,7 +81,8 @@ public class DashboardMojoTest
     public void testExecute() throws Exception
     {
         SVNUtil svn = mock( SVNUtil.class );
-        when( svn.checkout( (Log) anyObject(), (ScmType) anyObject(), anyString(), anyString() ) ).thenReturn( "1" );
+        when( svn.checkout( (Log) anyObject(), (ScmType) anyObject(), anyString(), anyString(),
+                (SparseCheckout) anyObject(), anyString() ) ).thenReturn( "1" );
         ResourceAnalyzer analyzer = mock( ResourceAnalyzer.class );
         doNothing().when( analyzer ).analyze( (Log) anyObject(), anyString(), anyString(),
                 (DashboardConfiguration) anyObject(),
@@ -85,13 +99,21 @@ public class DashboardMojoTest
                 tmxRenderer );
         mojo.setYal10nSettings( settings.getAbsolutePath() );
         mojo.setOutputDirectory( System.getProperty( "java.io.tmpdir" ) );
+        mojo.setAnalysisCacheDirectory( "target/test-output/analysis-cache-mojo" );
         mojo.execute();
 
-        verify( svn, times( 3 ) ).checkout( (Log) anyObject(), (ScmType) anyObject(), anyString(), anyString() );
+        verify( svn, times( 1 ) ).setInProcessGit( false );
+        verify( svn ).close();
+        verify( svn, times( 3 ) ).checkout( (Log) anyObject(), (ScmType) anyObject(), anyString(), anyString(),
+                (SparseCheckout) anyObject(), anyString() );
         verify( analyzer, times( 3 ) ).analyze( (Log) anyObject(), anyString(), anyString(),
                 (DashboardConfiguration) anyObject(), (Repository) anyObject(), anyString() );
         verify( analyzer, times( 1 ) ).getBundles();
+        verify( analyzer ).setAnalysisCache( any( AnalysisCache.class ) );
+        verify( analyzer ).preload( any( Log.class ), anyListOf( ResourceBundle.class ), anyInt() );
+        verify( dashboardRenderer ).setCompiled( false );
         verify( dashboardRenderer, times( 1 ) ).render( (DashboardModel) anyObject(), anyString() );
+        verify( reportRenderer ).setCompiled( false );
         verify( reportRenderer, times( 1 ) ).prepareOutputDirectory( anyString() );
         verify( reportRenderer, times( 0 ) ).render( (ReportModel) anyObject(), anyString() );
         verify( tmxRenderer, times( 1 ) ).render( (Collection<ResourceBundle>) anyObject(), anyString() );
@@ -100,4 +122,149 @@ public class DashboardMojoTest
 
         verifyNoMoreInteractions( svn, analyzer, dashboardRenderer, reportRenderer, tmxRenderer );
     }
+
+    /**
+     * The analysis of a repository is reused in the next run, if the revision didn't change.
+     * @throws Exception any error
+     */
+    @Test
+    public void testExecuteReusesAnalysis() throws Exception
+    {
+        File outputDirectory = new File( "target/test-output/reuse-analysis-" + UUID.randomUUID().toString() );
+        String repoId = SVNUtil.toRepoId( "file:///svnrepos/", "repo1/trunk" );
+        FileUtils.copyDirectory( new File( "target/test-classes/unit/subdirectory" ),
+                new File( outputDirectory, "checkouts/" + repoId + "/subdirectory" ) );
+        File settings = new File( "target/test-classes/settings/yal10n-settings-sample.json" );
+
+        CountingSVNUtil svn = new CountingSVNUtil( "1" );
+        executeWithRenderMocks( svn, settings, outputDirectory );
+        int firstRunCheckFiles = svn.checkFileCount;
+        Assert.assertTrue( firstRunCheckFiles > 0 );
+        Assert.assertTrue( new File( outputDirectory + "-snapshots", repoId + ".json" ).exists() );
+        Assert.assertFalse( new File( outputDirectory, "snapshots" ).exists() );
+
+        // same revision: nothing to analyze
+        svn = new CountingSVNUtil( "1" );
+        executeWithRenderMocks( svn, settings, outputDirectory );
+        Assert.assertEquals( 0, svn.checkFileCount );
+
+        // new revision: analyze again
+        svn = new CountingSVNUtil( "2" );
+        executeWithRenderMocks( svn, settings, outputDirectory );
+        Assert.assertEquals( firstRunCheckFiles, svn.checkFileCount );
+    }
+
+    /**
+     * The bundles are rendered concurrently, the log shows them in their order.
+     * @throws Exception any error
+     */
+    @Test
+    public void testParallelRendering() throws Exception
+    {
+        ReportRenderer reportRenderer = mock( ReportRenderer.class );
+        when( reportRenderer.prepareOutputDirectory( anyString() ) ).thenReturn( true );
+        TranslationMemoryRenderer tmxRenderer = mock( TranslationMemoryRenderer.class );
+        final List<String> infos = new ArrayList<String>();
+        ResourceAnalyzer analyzer = executeWithRenderThreads( reportRenderer, tmxRenderer, new NullLog()
+        {
+            @Override
+            public void info( CharSequence content )
+            {
+                infos.add( content.toString() );
+            }
+        } );
+
+        List<ResourceBundle> bundles = analyzer.getBundles();
+        Assert.assertEquals( 2, bundles.size() );
+        verify( reportRenderer, times( 2 ) ).render( (ReportModel) anyObject(), anyString() );
+        verify( tmxRenderer, times( 2 ) ).render( (Log) anyObject(), (ResourceBundle) anyObject(), anyString(),
+                anyListOf( String.class ) );
+        int first = infos.indexOf( "  " + bundles.get( 0 ).getLocaleBasePath() );
+        int second = infos.indexOf( "  " + bundles.get( 1 ).getLocaleBasePath() );
+        Assert.assertTrue( first > -1 );
+        Assert.assertTrue( second > first );
+    }
+
+    /**
+     * A failure while rendering a bundle fails the mojo.
+     * @throws Exception any error
+     */
+    @Test( expected = IllegalStateException.class )
+    public void testParallelRenderingFailure() throws Exception
+    {
+        ReportRenderer reportRenderer = mock( ReportRenderer.class );
+        when( reportRenderer.prepareOutputDirectory( anyString() ) ).thenReturn( true );
+        doThrow( new IllegalStateException( "broken" ) ).when( reportRenderer ).render( (ReportModel) anyObject(),
+                anyString() );
+        executeWithRenderThreads( reportRenderer, mock( TranslationMemoryRenderer.class ), new NullLog() );
+    }
+
+    private static ResourceAnalyzer executeWithRenderThreads( ReportRenderer reportRenderer,
+            TranslationMemoryRenderer tmxRenderer, Log log ) throws Exception
+    {
+        File outputDirectory = new File( "target/test-output/parallel-rendering-" + UUID.randomUUID().toString() );
+        String repoId = SVNUtil.toRepoId( "file:///svnrepos/", "repo1/trunk" );
+        for ( String directory : Arrays.asList( "first", "second" ) )
+        {
+            FileUtils.copyDirectory( new File( "target/test-classes/unit/subdirectory" ),
+                    new File( outputDirectory, "checkouts/" + repoId + "/" + directory ) );
+        }
+        File settings = new File( outputDirectory, "yal10n-settings.json" );
+        FileUtils.fileWrite( settings, "UTF-8", FileUtils.fileRead(
+                new File( "target/test-classes/settings/yal10n-settings-sample.json" ), "UTF-8" )
+                .replace( "\"createTMX\": true,", "\"createTMX\": true, \"renderThreads\": 4," ) );
+
+        SVNUtil svn = new CountingSVNUtil( "1" );
+        ResourceAnalyzer analyzer = new ResourceAnalyzer( svn );
+        DashboardMojo mojo = new DashboardMojo( svn, analyzer, mock( DashboardRenderer.class ),
+                reportRenderer, tmxRenderer );
+        mojo.setLog( log );
+        mojo.setYal10nSettings( settings.getAbsolutePath() );
+        mojo.setOutputDirectory( outputDirectory.getAbsolutePath() );
+        mojo.execute();
+        return analyzer;
+    }
+
+    private static void executeWithRenderMocks( SVNUtil svn, File settings, File outputDirectory ) throws Exception
+    {
+        ReportRenderer reportRenderer = mock( ReportRenderer.class );
+        when( reportRenderer.prepareOutputDirectory( anyString() ) ).thenReturn( true );
+        DashboardMojo mojo = new DashboardMojo( svn, new ResourceAnalyzer( svn ), mock( DashboardRenderer.class ),
+                reportRenderer, mock( TranslationMemoryRenderer.class ) );
+        mojo.setYal10nSettings( settings.getAbsolutePath() );
+        mojo.setOutputDirectory( outputDirectory.getAbsolutePath() );
+        mojo.setSnapshotDirectory( outputDirectory.getAbsolutePath() + "-snapshots" );
+        mojo.execute();
+    }
+
+    /**
+     * Doesn't checkout anything, but counts the svn info requests.
+     */
+    private static class CountingSVNUtil extends SVNUtilMock
+    {
+        private final String revision;
+        private int checkFileCount;
+
+        CountingSVNUtil( String revision )
+        {
+            super( null );
+            this.revision = revision;
+        }
+
+        @Override
+        public String checkout( Log log, ScmType type, String svnUrl, String tag, SparseCheckout sparse,
+                String destination )
+        {
+            File checkoutDir = new File( destination );
+            Assert.assertTrue( checkoutDir.isDirectory() || checkoutDir.mkdirs() );
+            return revision;
+        }
+
+        @Override
+        public SVNInfo checkFile( Log log, ScmType type, String svnUrl, String baseDir, String relativeFilePath )
+        {
+            checkFileCount++;
+            return super.checkFile( log, type, svnUrl, baseDir, relativeFilePath );
+        }
+    }
 }
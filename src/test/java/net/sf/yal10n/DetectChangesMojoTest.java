@@ -16,11 +16,14 @@ package net.sf.yal10n;
 
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -28,22 +31,35 @@ import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
 
 import javax.mail.Address;
 import javax.mail.internet.InternetAddress;
 
+import net.sf.yal10n.analyzer.AnalysisCache;
 import net.sf.yal10n.analyzer.ResourceAnalyzer;
+import net.sf.yal10n.analyzer.ResourceBundle;
+import net.sf.yal10n.analyzer.ResourceFile;
 import net.sf.yal10n.diff.UnifiedDiff;
 import net.sf.yal10n.email.Emailer;
 import net.sf.yal10n.settings.DashboardConfiguration;
 import net.sf.yal10n.settings.Notification;
 import net.sf.yal10n.settings.Repository;
 import net.sf.yal10n.settings.ScmType;
+import net.sf.yal10n.status.DetectChangesStatus;
+import net.sf.yal10n.svn.SVNChangeLog;
 import net.sf.yal10n.svn.SVNUtil;
+import net.sf.yal10n.svn.SparseCheckout;
 
 import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.scm.ScmFileStatus;
+import org.codehaus.plexus.util.FileUtils;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
@@ -54,6 +70,8 @@ import org.mockito.ArgumentCaptor;
  */
 public class DetectChangesMojoTest
 {
+    private static final long SLOW_CHECKOUT_MILLIS = 200L;
+    private static final long FAST_CHECKOUT_MILLIS = 10L;
 
     /**
      * Test execution of the detect changes mojo.
@@ -64,7 +82,8 @@ public class DetectChangesMojoTest
     public void testExecute() throws Exception
     {
         SVNUtil svn = mock( SVNUtil.class );
-        when( svn.checkout( (Log) anyObject(), (ScmType) anyObject(), anyString(), anyString() ) ).thenReturn( "1" );
+        when( svn.checkout( (Log) anyObject(), (ScmType) anyObject(), anyString(), anyString(),
+                (SparseCheckout) anyObject(), anyString() ) ).thenReturn( "1" );
         ResourceAnalyzer analyzer = mock( ResourceAnalyzer.class );
         doNothing().when( analyzer ).analyze( (Log) anyObject(), anyString(), anyString(),
                 (DashboardConfiguration) anyObject(),
@@ -78,17 +97,176 @@ public class DetectChangesMojoTest
         mojo.setYal10nSettings( settings.getAbsolutePath() );
         mojo.setOutputDirectory( System.getProperty( "java.io.tmpdir" ) );
         mojo.setYal10nStatus( status.getAbsolutePath() );
+        mojo.setAnalysisCacheDirectory( "target/test-output/analysis-cache-mojo" );
         mojo.execute();
 
-        verify( svn, times( 3 ) ).checkout( any( Log.class ), any( ScmType.class ), anyString(), anyString() );
+        verify( svn, times( 1 ) ).setInProcessGit( false );
+        verify( svn ).close();
+        verify( svn, times( 3 ) ).checkout( any( Log.class ), any( ScmType.class ), anyString(), anyString(),
+                any( SparseCheckout.class ), anyString() );
         verify( analyzer, times( 3 ) ).analyze( any( Log.class ), anyString(), anyString(),
                 any( DashboardConfiguration.class ), any( Repository.class ), anyString() );
         verify( analyzer, times( 1 ) ).getBundles();
+        verify( analyzer ).setAnalysisCache( any( AnalysisCache.class ) );
+        verify( analyzer ).preload( any( Log.class ), anyListOf( ResourceBundle.class ), anyInt() );
         verify( emailer, times( 1 ) ).setLog( any( Log.class ) );
 
         verifyNoMoreInteractions( svn, analyzer, emailer );
     }
 
+    /**
+     * The repositories are checked out concurrently, but the status is still written
+     * in the order of the configuration.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testExecuteConcurrentCheckout() throws Exception
+    {
+        SVNUtil svn = new SVNUtil()
+        {
+            @Override
+            public String checkout( Log log, ScmType type, String svnUrl, String tag, SparseCheckout sparse,
+                    String destination )
+            {
+                try
+                {
+                    // the first repository is the slowest
+                    Thread.sleep( svnUrl.endsWith( "repo1/trunk" ) ? SLOW_CHECKOUT_MILLIS : FAST_CHECKOUT_MILLIS );
+                }
+                catch ( InterruptedException e )
+                {
+                    throw new RuntimeException( e );
+                }
+                return svnUrl;
+            }
+        };
+        ResourceAnalyzer analyzer = mock( ResourceAnalyzer.class );
+        Emailer emailer = mock( Emailer.class );
+
+        File settings = new File( "target/test-classes/settings/yal10n-settings-sample.json" );
+        File status = new File( "target/test-output/status/status-" + UUID.randomUUID().toString() + ".json" );
+        Assert.assertTrue( status.getParentFile().isDirectory() || status.getParentFile().mkdirs() );
+
+        DetectChangesMojo mojo = new DetectChangesMojo( svn, analyzer, emailer );
+        mojo.setYal10nSettings( settings.getAbsolutePath() );
+        mojo.setOutputDirectory( System.getProperty( "java.io.tmpdir" ) );
+        mojo.setYal10nStatus( status.getAbsolutePath() );
+        mojo.setCheckoutThreads( 3 );
+        mojo.execute();
+
+        DetectChangesStatus newStatus = DetectChangesStatus.readFromFile( status.getAbsolutePath() );
+        Assert.assertEquals( 3, newStatus.getRepos().size() );
+        Assert.assertEquals( "file:///svnrepos/repo1/trunk", newStatus.getRepos().get( 0 ).getRevision() );
+        Assert.assertEquals( "file:///svnrepos/repo1/a/trunk", newStatus.getRepos().get( 1 ).getRevision() );
+        Assert.assertEquals( "file:///svnrepos/repo2/trunk", newStatus.getRepos().get( 2 ).getRevision() );
+        verify( analyzer, times( 3 ) ).analyze( any( Log.class ), anyString(), anyString(),
+                any( DashboardConfiguration.class ), any( Repository.class ), anyString() );
+    }
+
+    /**
+     * All bundles of one repository share a single change log request and only
+     * the changed default files are diffed.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testExecuteSingleChangeLogPerRepository() throws Exception
+    {
+        String repoId = "988ca054179a22a2ed4b9f9a8c3a9b6d";
+        SVNUtil svn = mock( SVNUtil.class );
+        when( svn.checkout( any( Log.class ), any( ScmType.class ), anyString(), anyString(),
+                any( SparseCheckout.class ), anyString() ) ).thenReturn( "2" );
+        Map<String, Set<String>> changedFiles = new HashMap<String, Set<String>>();
+        changedFiles.put( "/repo1/trunk/changed/messages.properties",
+                Collections.singleton( ScmFileStatus.MODIFIED.toString() ) );
+        when( svn.changeLog( any( Log.class ), any( ScmType.class ), anyString(), anyString(), eq( "1" ),
+                eq( "2" ) ) ).thenReturn( new SVNChangeLog( changedFiles, "/repo1/trunk" ) );
+
+        List<ResourceBundle> bundles = new ArrayList<ResourceBundle>();
+        bundles.add( mockBundle( repoId, "changed/messages.properties" ) );
+        bundles.add( mockBundle( repoId, "unchanged/messages.properties" ) );
+        ResourceAnalyzer analyzer = mock( ResourceAnalyzer.class );
+        when( analyzer.getBundles() ).thenReturn( bundles );
+        Emailer emailer = mock( Emailer.class );
+
+        File settings = new File( "target/test-classes/settings/yal10n-settings-sample.json" );
+        File status = new File( "target/test-output/status/status-" + UUID.randomUUID().toString() + ".json" );
+        FileUtils.copyFile( new File( "target/test-classes/status/yal10n-status-sample.json" ), status );
+
+        DetectChangesMojo mojo = new DetectChangesMojo( svn, analyzer, emailer );
+        mojo.setYal10nSettings( settings.getAbsolutePath() );
+        mojo.setOutputDirectory( System.getProperty( "java.io.tmpdir" ) );
+        mojo.setYal10nStatus( status.getAbsolutePath() );
+        mojo.execute();
+
+        verify( svn, times( 1 ) ).changeLog( any( Log.class ), any( ScmType.class ), anyString(), anyString(),
+                eq( "1" ), eq( "2" ) );
+        verify( svn, times( 1 ) ).diff( any( Log.class ), any( ScmType.class ), anyString(), anyString(),
+                eq( "changed/messages.properties" ), eq( "1" ), eq( "2" ) );
+        verify( svn, never() ).log( any( Log.class ), any( ScmType.class ), anyString(), anyString(), anyString(),
+                anyString(), anyString() );
+    }
+
+    /**
+     * Repositories, whose remote revision didn't change, are neither checked out nor analyzed,
+     * but their status is kept.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testExecuteSkipUnchangedRepositories() throws Exception
+    {
+        SVNUtil svn = mock( SVNUtil.class );
+        when( svn.isUpToDate( any( Log.class ), any( ScmType.class ), eq( "file:///svnrepos/repo1/trunk" ),
+                anyString(), eq( "1" ) ) ).thenReturn( true );
+        when( svn.checkout( any( Log.class ), any( ScmType.class ), anyString(), anyString(),
+                any( SparseCheckout.class ), anyString() ) ).thenReturn( "2" );
+        ResourceAnalyzer analyzer = mock( ResourceAnalyzer.class );
+        Emailer emailer = mock( Emailer.class );
+
+        File settings = new File( "target/test-output/settings/settings-" + UUID.randomUUID().toString() + ".json" );
+        String settingsJson = FileUtils.fileRead( "target/test-classes/settings/yal10n-settings-sample.json" );
+        FileUtils.mkdir( settings.getParent() );
+        FileUtils.fileWrite( settings.getAbsolutePath(),
+                settingsJson.replaceFirst( "\\{", "{ \"skipUnchangedRepositories\": true," ) );
+        File status = new File( "target/test-output/status/status-" + UUID.randomUUID().toString() + ".json" );
+        FileUtils.copyFile( new File( "target/test-classes/status/yal10n-status-sample.json" ), status );
+
+        DetectChangesMojo mojo = new DetectChangesMojo( svn, analyzer, emailer );
+        mojo.setYal10nSettings( settings.getAbsolutePath() );
+        mojo.setOutputDirectory( System.getProperty( "java.io.tmpdir" ) );
+        mojo.setYal10nStatus( status.getAbsolutePath() );
+        mojo.execute();
+
+        verify( svn, times( 3 ) ).isUpToDate( any( Log.class ), any( ScmType.class ), anyString(), anyString(),
+                eq( "1" ) );
+        verify( svn, times( 2 ) ).checkout( any( Log.class ), any( ScmType.class ), anyString(), anyString(),
+                any( SparseCheckout.class ), anyString() );
+        verify( svn, never() ).checkout( any( Log.class ), any( ScmType.class ), eq( "file:///svnrepos/repo1/trunk" ),
+                anyString(), any( SparseCheckout.class ), anyString() );
+        verify( analyzer, times( 2 ) ).analyze( any( Log.class ), anyString(), anyString(),
+                any( DashboardConfiguration.class ), any( Repository.class ), anyString() );
+
+        DetectChangesStatus newStatus = DetectChangesStatus.readFromFile( status.getAbsolutePath() );
+        Assert.assertEquals( 3, newStatus.getRepos().size() );
+        Assert.assertEquals( "1", newStatus.getRepos().get( 0 ).getRevision() );
+        Assert.assertEquals( "2", newStatus.getRepos().get( 1 ).getRevision() );
+        Assert.assertEquals( "2", newStatus.getRepos().get( 2 ).getRevision() );
+    }
+
+    private static ResourceBundle mockBundle( String repoId, String relativeFilePath )
+    {
+        ResourceFile defaultFile = mock( ResourceFile.class );
+        when( defaultFile.getRelativeFilePath() ).thenReturn( relativeFilePath );
+        when( defaultFile.getFullLocalPath() ).thenReturn( "/checkouts/" + repoId + "/" + relativeFilePath );
+        ResourceBundle bundle = mock( ResourceBundle.class );
+        when( bundle.getRepoId() ).thenReturn( repoId );
+        when( bundle.getDefaultFile() ).thenReturn( defaultFile );
+        when( bundle.getLocaleBasePath() ).thenReturn( relativeFilePath );
+        return bundle;
+    }
+
     /**
      * Verify the email creation.
      * @throws Exception any error
@@ -0,0 +1,87 @@
+package net.sf.yal10n;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ReplaceIfChangedOutputStream}.
+ */
+public class ReplaceIfChangedOutputStreamTest
+{
+    private static final long OLD_MODIFICATION = 1000000000000L;
+    private File directory;
+    private File file;
+
+    /**
+     * Starts with an empty directory.
+     * @throws Exception any error
+     */
+    @Before
+    public void createDirectory() throws Exception
+    {
+        directory = new File( "./target/test-output/replace-if-changed" );
+        FileUtils.deleteDirectory( directory );
+        file = new File( directory, "sub/file.html" );
+    }
+
+    /**
+     * A new file is written, an unchanged file is not touched, a changed file is replaced.
+     * @throws Exception any error
+     */
+    @Test
+    public void testWriteIfChanged() throws Exception
+    {
+        Assert.assertTrue( write( "content" ) );
+        Assert.assertEquals( "content", FileUtils.fileRead( file, "UTF-8" ) );
+        Assert.assertTrue( file.setLastModified( OLD_MODIFICATION ) );
+
+        Assert.assertFalse( write( "content" ) );
+        Assert.assertEquals( OLD_MODIFICATION, file.lastModified() );
+
+        Assert.assertTrue( write( "contenT" ) );
+        Assert.assertEquals( "contenT", FileUtils.fileRead( file, "UTF-8" ) );
+        Assert.assertTrue( write( "longer content" ) );
+        Assert.assertEquals( "longer content", FileUtils.fileRead( file, "UTF-8" ) );
+        Assert.assertEquals( 1, file.getParentFile().list().length );
+    }
+
+    /**
+     * Without commit, e.g. after an error, the existing file is kept.
+     * @throws Exception any error
+     */
+    @Test
+    public void testCloseWithoutCommit() throws Exception
+    {
+        write( "content" );
+        ReplaceIfChangedOutputStream out = new ReplaceIfChangedOutputStream( file );
+        out.write( "partial".getBytes( "UTF-8" ) );
+        out.close();
+
+        Assert.assertEquals( "content", FileUtils.fileRead( file, "UTF-8" ) );
+        Assert.assertEquals( 1, file.getParentFile().list().length );
+    }
+
+    private boolean write( String content ) throws Exception
+    {
+        return ReplaceIfChangedOutputStream.copy( new ByteArrayInputStream( content.getBytes( "UTF-8" ) ), file );
+    }
+}
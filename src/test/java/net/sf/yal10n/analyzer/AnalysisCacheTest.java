@@ -0,0 +1,156 @@
+package net.sf.yal10n.analyzer;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link AnalysisCache}.
+ */
+public class AnalysisCacheTest
+{
+    private static final String VERSION = "1.0";
+    private File directory;
+
+    /**
+     * Starts with an empty cache directory.
+     * @throws Exception any error
+     */
+    @Before
+    public void deleteCache() throws Exception
+    {
+        directory = new File( "./target/test-output/analysis-cache" );
+        FileUtils.deleteDirectory( directory );
+    }
+
+    /**
+     * The entries survive a new cache instance, e.g. the next run.
+     */
+    @Test
+    public void testStoredOnDisk()
+    {
+        FileAnalysis analysis = new FileAnalysis();
+        analysis.getMessages().put( "b", "second" );
+        analysis.getMessages().put( "a", "first" );
+        analysis.setEncoding( new EncodingResult() );
+        analysis.getEncoding().setDetected( Encoding.UTF8_BOM );
+        analysis.setFileHeader( Boolean.TRUE );
+        new AnalysisCache( directory, 10, VERSION ).put( "key", analysis );
+
+        FileAnalysis read = new AnalysisCache( directory, 10, VERSION ).get( "key" );
+        Assert.assertEquals( "{b=second, a=first}", read.getMessages().toString() );
+        Assert.assertEquals( Encoding.UTF8_BOM, read.getEncoding().getDetected() );
+        Assert.assertEquals( Boolean.TRUE, read.getFileHeader() );
+        Assert.assertNull( new AnalysisCache( directory, 10, VERSION ).get( "other" ) );
+    }
+
+    /**
+     * The least recently used entries are removed, if the cache is full.
+     */
+    @Test
+    public void testLeastRecentlyUsedEntriesAreRemoved()
+    {
+        AnalysisCache cache = new AnalysisCache( directory, 2, VERSION );
+        cache.put( "a", new FileAnalysis() );
+        cache.put( "b", new FileAnalysis() );
+        Assert.assertNotNull( cache.get( "a" ) );
+        cache.put( "c", new FileAnalysis() );
+
+        Assert.assertNotNull( cache.get( "a" ) );
+        Assert.assertNull( cache.get( "b" ) );
+        Assert.assertNotNull( cache.get( "c" ) );
+        Assert.assertEquals( 2, directory.list().length );
+    }
+
+    /**
+     * The cache directory can be deleted while the cache is used.
+     * @throws Exception any error
+     */
+    @Test
+    public void testDeletedCache() throws Exception
+    {
+        AnalysisCache cache = new AnalysisCache( directory, 10, VERSION );
+        cache.put( "a", new FileAnalysis() );
+        FileUtils.deleteDirectory( directory );
+        Assert.assertNull( cache.get( "a" ) );
+        cache.put( "a", new FileAnalysis() );
+        Assert.assertNotNull( cache.get( "a" ) );
+    }
+
+    /**
+     * The key depends on the content, the checks and the plugin version.
+     * @throws Exception any error
+     */
+    @Test
+    public void testKey() throws Exception
+    {
+        AnalysisCache cache = new AnalysisCache( directory, 10, VERSION );
+        byte[] content = "a=b".getBytes( "UTF-8" );
+        Assert.assertEquals( cache.toKey( content, "" ), cache.toKey( "a=b".getBytes( "UTF-8" ), "" ) );
+        Assert.assertFalse( cache.toKey( content, "" ).equals( cache.toKey( content, "^#" ) ) );
+        Assert.assertFalse( cache.toKey( content, "" ).equals( cache.toKey( "a=c".getBytes( "UTF-8" ), "" ) ) );
+        Assert.assertFalse( cache.toKey( content, "" ).equals( new AnalysisCache( directory, 10, "1.1" )
+                .toKey( content, "" ) ) );
+    }
+
+    /**
+     * The usage of the entries is stored, when the cache is closed, so that the least recently used
+     * entries are removed in the next run.
+     */
+    @Test
+    public void testUsageIsStoredOnClose()
+    {
+        final long hour = 60L * 60L * 1000L;
+        AnalysisCache cache = new AnalysisCache( directory, 2, VERSION );
+        cache.put( "a", new FileAnalysis() );
+        cache.put( "b", new FileAnalysis() );
+        long now = System.currentTimeMillis();
+        new File( directory, "a.json" ).setLastModified( now - 2 * hour );
+        new File( directory, "b.json" ).setLastModified( now - hour );
+        Assert.assertNotNull( cache.get( "a" ) );
+        Assert.assertTrue( new File( directory, "a.json" ).lastModified() < now - hour );
+        cache.close();
+
+        cache = new AnalysisCache( directory, 2, VERSION );
+        cache.put( "c", new FileAnalysis() );
+        Assert.assertNotNull( cache.get( "a" ) );
+        Assert.assertNull( cache.get( "b" ) );
+    }
+
+    /**
+     * Temporary files of an aborted run are deleted, when the cache is created. Young temporary files
+     * might be written by a concurrent run, they are kept.
+     * @throws Exception any error
+     */
+    @Test
+    public void testTemporaryFilesAreDeleted() throws Exception
+    {
+        final long twoHours = 2L * 60L * 60L * 1000L;
+        new AnalysisCache( directory, 10, VERSION ).put( "a", new FileAnalysis() );
+        File old = File.createTempFile( "analysis", ".tmp", directory );
+        old.setLastModified( System.currentTimeMillis() - twoHours );
+        File young = File.createTempFile( "analysis", ".tmp", directory );
+
+        AnalysisCache cache = new AnalysisCache( directory, 10, VERSION );
+        Assert.assertFalse( old.exists() );
+        Assert.assertTrue( young.exists() );
+        Assert.assertNotNull( cache.get( "a" ) );
+    }
+}
@@ -0,0 +1,135 @@
+package net.sf.yal10n.analyzer;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link Messages} and {@link KeyDictionary}.
+ */
+public class MessagesTest
+{
+    /**
+     * The files of a bundle share the ordinals of the keys.
+     * @throws Exception any error
+     */
+    @Test
+    public void testSharedDictionary() throws Exception
+    {
+        KeyDictionary dictionary = new KeyDictionary();
+        Messages defaultMessages = Messages.load( new StringReader( "b=B\na=A\nc=C\n" ), dictionary );
+        Messages german = Messages.load( new StringReader( "a=A de\nd=D de\n" ), dictionary );
+
+        Assert.assertEquals( 4, dictionary.size() );
+        Assert.assertEquals( 3, defaultMessages.size() );
+        Assert.assertEquals( 2, german.size() );
+        Assert.assertEquals( "b", defaultMessages.getKey( defaultMessages.getOrdinal( 0 ) ) );
+        Assert.assertEquals( "a", defaultMessages.getKey( defaultMessages.getOrdinal( 1 ) ) );
+        Assert.assertEquals( defaultMessages.getOrdinal( 1 ), german.getOrdinal( 0 ) );
+
+        Assert.assertEquals( "A de", german.get( defaultMessages.getOrdinal( 1 ) ) );
+        Assert.assertNull( german.get( defaultMessages.getOrdinal( 0 ) ) );
+        Assert.assertNull( defaultMessages.get( german.getOrdinal( 1 ) ) );
+        Assert.assertNull( german.get( "unknown" ) );
+        Assert.assertSame( dictionary.getKey( 1 ), german.getKey( german.getOrdinal( 0 ) ) );
+    }
+
+    /**
+     * The messages are parsed like {@link java.util.Properties}.
+     * @throws Exception any error
+     */
+    @Test
+    public void testPropertiesFormat() throws Exception
+    {
+        Messages messages = Messages.load( new StringReader( "# comment\nkey\\ 1 = first \\\n  line\n"
+                + "key2:\\u00e4\nkey2=second\n" ), new KeyDictionary() );
+        Assert.assertEquals( 2, messages.size() );
+        Assert.assertEquals( "first line", messages.get( "key 1" ) );
+        Assert.assertEquals( "second", messages.get( "key2" ) );
+        Assert.assertEquals( "{key 1=first line, key2=second}",
+                new TreeMap<Object, Object>( messages.toProperties() ).toString() );
+    }
+
+    /**
+     * Messages can be moved to another dictionary.
+     * @throws Exception any error
+     */
+    @Test
+    public void testWithDictionary() throws Exception
+    {
+        KeyDictionary other = new KeyDictionary();
+        other.intern( "x" );
+        Messages messages = Messages.load( new StringReader( "a=A\n" ), new KeyDictionary() );
+        Messages moved = messages.withDictionary( other );
+        Assert.assertSame( other, moved.getDictionary() );
+        Assert.assertEquals( 1, moved.getOrdinal( 0 ) );
+        Assert.assertEquals( "A", moved.get( "a" ) );
+        Assert.assertEquals( -1, other.getOrdinal( "b" ) );
+    }
+
+    /**
+     * The keys can be interned and looked up concurrently, while the dictionary grows.
+     * @throws Exception any error
+     */
+    @Test
+    public void testConcurrentDictionary() throws Exception
+    {
+        final int threads = 4;
+        final int keys = 5000;
+        final KeyDictionary dictionary = new KeyDictionary();
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try
+        {
+            List<Future<Void>> results = new ArrayList<Future<Void>>();
+            for ( int t = 0; t < threads; t++ )
+            {
+                results.add( executor.submit( new Callable<Void>()
+                {
+                    @Override
+                    public Void call()
+                    {
+                        for ( int i = 0; i < keys; i++ )
+                        {
+                            String key = "key" + i;
+                            int ordinal = dictionary.intern( key );
+                            Assert.assertEquals( key, dictionary.getKey( ordinal ) );
+                            Assert.assertEquals( ordinal, dictionary.getOrdinal( key ) );
+                        }
+                        return null;
+                    }
+                } ) );
+            }
+            for ( Future<Void> result : results )
+            {
+                result.get();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+        Assert.assertEquals( keys, dictionary.size() );
+    }
+}
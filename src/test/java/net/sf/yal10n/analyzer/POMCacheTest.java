@@ -0,0 +1,81 @@
+package net.sf.yal10n.analyzer;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Collections;
+import java.util.Map;
+
+import org.apache.maven.model.Model;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link POMCache}.
+ */
+public class POMCacheTest
+{
+    /**
+     * A directory is checked only once, also if it doesn't contain a pom.
+     * @throws Exception any error
+     */
+    @Test
+    public void testExistsIsRemembered() throws Exception
+    {
+        File directory = new File( "./target/test-output/pomcache" );
+        directory.mkdirs();
+        File pomFile = new File( directory, "pom.xml" );
+        pomFile.delete();
+
+        POMCache cache = new POMCache();
+        Assert.assertFalse( cache.exists( pomFile, null ) );
+        FileOutputStream out = new FileOutputStream( pomFile );
+        out.write( "<project><artifactId>late</artifactId></project>".getBytes( "UTF-8" ) );
+        out.close();
+        Assert.assertFalse( cache.exists( pomFile, null ) );
+        Assert.assertTrue( new POMCache().exists( pomFile, null ) );
+    }
+
+    /**
+     * Each pom is parsed only once.
+     */
+    @Test
+    public void testModelIsParsedOnce()
+    {
+        File pomFile = new File( "./target/test-classes/unit/testpom2/pom.xml" );
+        POMCache cache = new POMCache();
+        Assert.assertTrue( cache.exists( pomFile, null ) );
+        Model model = cache.getModel( pomFile, null );
+        Assert.assertNotNull( model );
+        Assert.assertSame( model, cache.getModel( pomFile, null ) );
+    }
+
+    /**
+     * The poms can be provided as contents, e.g. from a bare git repository.
+     * @throws Exception any error
+     */
+    @Test
+    public void testContents() throws Exception
+    {
+        File pomFile = new File( "/mirror/project-a/pom.xml" );
+        Map<String, byte[]> poms = Collections.singletonMap( pomFile.getPath(),
+                "<project><artifactId>project-a</artifactId></project>".getBytes( "UTF-8" ) );
+        POMCache cache = new POMCache();
+        Assert.assertTrue( cache.exists( pomFile, poms ) );
+        Assert.assertFalse( cache.exists( new File( "/mirror/pom.xml" ), poms ) );
+        Assert.assertEquals( "project-a", cache.getModel( pomFile, poms ).getArtifactId() );
+    }
+}
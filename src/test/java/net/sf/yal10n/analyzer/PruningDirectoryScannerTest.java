@@ -0,0 +1,117 @@
+package net.sf.yal10n.analyzer;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.codehaus.plexus.util.DirectoryScanner;
+import org.codehaus.plexus.util.FileUtils;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link PruningDirectoryScanner}.
+ */
+public class PruningDirectoryScannerTest
+{
+    private static final String[] INCLUDES = { "**/messages*.properties" };
+    private static final String[] EXCLUDES = { "target/**", "**/node_modules/**" };
+    private static File basedir;
+
+    /**
+     * Creates a directory tree with included, excluded and version control files.
+     * @throws Exception any error
+     */
+    @BeforeClass
+    public static void createTree() throws Exception
+    {
+        basedir = new File( "./target/test-output/scanner" );
+        FileUtils.deleteDirectory( basedir );
+        for ( String path : Arrays.asList( "a/messages.properties", "a/.git/x/messages.properties",
+                "target/messages.properties", "target/classes/messages.properties",
+                "node_modules/y/messages.properties", "b/messages_de.properties", "b/other.properties" ) )
+        {
+            File file = new File( basedir, path );
+            file.getParentFile().mkdirs();
+            FileUtils.fileWrite( file, "UTF-8", "key=value\n" );
+        }
+    }
+
+    /**
+     * The included files are the same as with the plain scanner, except the version control files.
+     */
+    @Test
+    public void testSameIncludedFiles()
+    {
+        DirectoryScanner plain = new DirectoryScanner();
+        List<String> expected = new ArrayList<String>( Arrays.asList( scan( plain ) ) );
+        Assert.assertTrue( expected.remove( path( "a/.git/x/messages.properties" ) ) );
+
+        Assert.assertEquals( expected, Arrays.asList( scan( new PruningDirectoryScanner() ) ) );
+        Assert.assertEquals( Arrays.asList( path( "a/messages.properties" ), path( "b/messages_de.properties" ) ),
+                expected );
+    }
+
+    /**
+     * Excluded directories and version control directories are not walked into.
+     */
+    @Test
+    public void testExcludedDirectoriesArePruned()
+    {
+        final List<String> visited = new ArrayList<String>();
+        PruningDirectoryScanner scanner = new PruningDirectoryScanner()
+        {
+            @Override
+            protected boolean couldHoldIncluded( String name )
+            {
+                boolean result = super.couldHoldIncluded( name );
+                if ( result )
+                {
+                    visited.add( name );
+                }
+                return result;
+            }
+        };
+        scan( scanner );
+        Assert.assertTrue( visited.contains( "a" ) );
+        Assert.assertTrue( visited.contains( "b" ) );
+        for ( String directory : visited )
+        {
+            Assert.assertFalse( directory, directory.startsWith( "target" ) );
+            Assert.assertFalse( directory, directory.startsWith( "node_modules" ) );
+            Assert.assertFalse( directory, directory.contains( ".git" ) );
+        }
+    }
+
+    private static String[] scan( DirectoryScanner scanner )
+    {
+        scanner.setBasedir( basedir );
+        scanner.setIncludes( INCLUDES );
+        scanner.setExcludes( EXCLUDES );
+        scanner.scan();
+        String[] files = scanner.getIncludedFiles();
+        Arrays.sort( files );
+        return files;
+    }
+
+    private static String path( String path )
+    {
+        return path.replace( '/', File.separatorChar );
+    }
+}
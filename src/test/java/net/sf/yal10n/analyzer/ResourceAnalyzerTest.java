@@ -14,12 +14,28 @@ package net.sf.yal10n.analyzer;
  * limitations under the License.
  */
 
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import net.sf.yal10n.dashboard.LanguageModel;
 import net.sf.yal10n.settings.DashboardConfiguration;
 import net.sf.yal10n.settings.Repository;
+import net.sf.yal10n.settings.ScmType;
+import net.sf.yal10n.svn.SVNUtil;
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.util.FileUtils;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -76,6 +92,70 @@ public class ResourceAnalyzerTest
         Assert.assertNotNull( bundle.getLocaleBasePath() );
     }
 
+    /**
+     * Loading the files concurrently gives the same bundles in the same order with the same ids.
+     * @throws Exception any error
+     */
+    @Test
+    public void testAnalyzeConcurrently() throws Exception
+    {
+        DashboardConfiguration config = new DashboardConfiguration();
+        config.setIncludes( Arrays.asList( "**/*.properties" ) );
+        Repository repo = new Repository();
+        analyzer.analyze( new NullLog(), null, dstPath, config, repo, "repoId" );
+        List<ResourceBundle> expected = analyzer.getBundles();
+
+        config.setAnalysisThreads( 4 );
+        ResourceAnalyzer concurrentAnalyzer = new ResourceAnalyzer( null );
+        concurrentAnalyzer.analyze( new NullLog(), null, dstPath, config, repo, "repoId" );
+        List<ResourceBundle> bundles = concurrentAnalyzer.getBundles();
+        concurrentAnalyzer.preload( new NullLog(), bundles, config.getAnalysisThreads() );
+
+        Assert.assertEquals( expected.size(), bundles.size() );
+        for ( int i = 0; i < bundles.size(); i++ )
+        {
+            Assert.assertEquals( expected.get( i ).getLocaleBasePath(), bundles.get( i ).getLocaleBasePath() );
+            Assert.assertEquals( expected.get( i ).getLanguages(), bundles.get( i ).getLanguages() );
+            Assert.assertEquals( expected.get( i ).getAllProperties(), bundles.get( i ).getAllProperties() );
+            Assert.assertEquals( expected.get( i ).getId(), bundles.get( i ).getId() );
+        }
+    }
+
+    /**
+     * Files, whose language model has been restored, are not loaded concurrently. All other files are.
+     * @throws Exception any error
+     */
+    @Test
+    public void testPreloadSkipsRestoredFiles() throws Exception
+    {
+        File checkout = new File( "./target/test-output/preload" );
+        FileUtils.deleteDirectory( checkout );
+        FileUtils.copyDirectoryStructure( new File( TARGET_TEST_CLASSES_UNIT, "subdirectory" ), checkout );
+        DashboardConfiguration config = new DashboardConfiguration();
+        config.setIncludes( Arrays.asList( "**/*.properties" ) );
+        analyzer.analyze( new NullLog(), null, checkout.getCanonicalPath(), config, new Repository(), "repoId" );
+        List<ResourceBundle> bundles = analyzer.getBundles();
+        List<ResourceFile> files = new ArrayList<ResourceFile>();
+        for ( ResourceBundle bundle : bundles )
+        {
+            files.addAll( bundle.getFiles() );
+        }
+        Assert.assertTrue( files.size() > 2 );
+
+        ResourceFile restored = files.get( 0 );
+        restored.setLanguageModel( new LanguageModel(), config.getChecks() );
+        // a restored file would fail to load now
+        Assert.assertTrue( new File( restored.getFullLocalPath() ).delete() );
+        analyzer.preload( new NullLog(), bundles, 4 );
+
+        // all other files are loaded already
+        FileUtils.deleteDirectory( checkout );
+        for ( ResourceFile file : files.subList( 1, files.size() ) )
+        {
+            Assert.assertNotNull( file.getMessages() );
+        }
+    }
+
     /**
      * Tests the whether include patterns are correctly used.
      * @throws Exception any error
@@ -158,4 +238,46 @@ public class ResourceAnalyzerTest
         String repoId = "repoId";
         analyzer.analyze( new NullLog(), svnUrl, notExistingDstPath, config , repo, repoId  );
     }
+
+    /**
+     * Tests that the files of a bare git repository are read from the git objects and not
+     * from the file system.
+     * @throws Exception any error
+     */
+    @Test
+    public void testAnalyzeBareGitMirror() throws Exception
+    {
+        String mirror = new File( "./target/test-output/mirror" ).getCanonicalPath();
+        SVNUtil svn = mock( SVNUtil.class );
+        when( svn.listFiles( any( Log.class ), eq( mirror ) ) ).thenReturn( Arrays.asList( "pom.xml",
+                "module/pom.xml", "module/src/messages.properties", "module/src/messages_de.properties",
+                "module/src/someother.properties", "module/README.txt" ) );
+        Map<String, byte[]> contents = new HashMap<String, byte[]>();
+        contents.put( "pom.xml", "<project><name>parent</name></project>".getBytes( "UTF-8" ) );
+        contents.put( "module/pom.xml", "<project><name>module</name></project>".getBytes( "UTF-8" ) );
+        contents.put( "module/src/messages.properties", "key=default".getBytes( "UTF-8" ) );
+        contents.put( "module/src/messages_de.properties", "key=deutsch".getBytes( "UTF-8" ) );
+        when( svn.readFiles( any( Log.class ), eq( mirror ), anyCollectionOf( String.class ) ) )
+            .thenReturn( contents );
+
+        DashboardConfiguration config = new DashboardConfiguration();
+        config.setIncludes( Arrays.asList( "**/*.properties" ) );
+        config.setExcludes( Arrays.asList( "**/someother.properties" ) );
+        config.setBareGitMirror( true );
+        Repository repo = new Repository();
+        repo.setType( ScmType.GIT );
+        analyzer = new ResourceAnalyzer( svn );
+        analyzer.analyze( new NullLog(), "scm:git:mirror", mirror, config, repo, "repoId" );
+
+        verify( svn ).readFiles( any( Log.class ), eq( mirror ), eq( Arrays.asList( "pom.xml", "module/pom.xml",
+                "module/src/messages.properties", "module/src/messages_de.properties" ) ) );
+        List<ResourceBundle> bundles = analyzer.getBundles();
+        Assert.assertEquals( 1, bundles.size() );
+        ResourceBundle bundle = bundles.get( 0 );
+        Assert.assertEquals( "[de]", bundle.getLanguages().toString() );
+        Assert.assertEquals( "module", bundle.getProjectName() );
+        Assert.assertEquals( "default", bundle.getDefaultFile().getProperties().getProperty( "key" ) );
+        Assert.assertEquals( "deutsch", bundle.getByLanguage( "de" ).getProperties().getProperty( "key" ) );
+        Assert.assertFalse( new File( mirror ).exists() );
+    }
 }
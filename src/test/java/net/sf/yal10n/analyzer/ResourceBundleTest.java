@@ -54,7 +54,6 @@ public class ResourceBundleTest
         String repoId = null;
         String checkoutDir = new File( "./target/test-classes/unit" ).getCanonicalPath();
         String localBasePath = checkoutDir + "/subdirectory";
-        ResourceBundle.COUNTER.set( -1 );
         bundle = new ResourceBundle( config, svnUrl, repoId, localBasePath, checkoutDir );
         resourceFile = new File( "./target/test-classes/unit/subdirectory/messages.properties" )
             .getCanonicalPath();
@@ -122,7 +121,7 @@ public class ResourceBundleTest
     @Test
     public void testProjectName() throws Exception
     {
-        Assert.assertEquals( "Unknown Project 0", bundle.getProjectName() );
+        Assert.assertEquals( "Unknown Project 94b90d88897d", bundle.getProjectName() );
         String pomDir = new File( "./target/test-classes/unit/testpom" ).getCanonicalPath();
         ResourceBundle bundlePOM = new ResourceBundle( null, null, null, pomDir, pomDir );
         Assert.assertEquals( "Test Sample Project", bundlePOM.getProjectName() );
@@ -140,8 +139,8 @@ public class ResourceBundleTest
         Assert.assertEquals( "default", bundleModel.getBase().getName() );
         Assert.assertEquals( 5, bundleModel.getBase().getCountOfMessages() );
         Assert.assertEquals( "messages", bundleModel.getBundleName() );
-        Assert.assertEquals( "Unknown_Project_0_0.html", bundleModel.getRelativeReportUrl() );
-        Assert.assertEquals( "Unknown_Project_0_0.tmx", bundleModel.getRelativeTmxUrl() );
+        Assert.assertEquals( "Unknown_Project_94b90d88897d.html", bundleModel.getRelativeReportUrl() );
+        Assert.assertEquals( "Unknown_Project_94b90d88897d.tmx", bundleModel.getRelativeTmxUrl() );
         Assert.assertEquals( 4, bundleModel.getLanguages().size() );
         assertLanguageModel( bundleModel.getLanguages().get( 0 ), "de", true, false, StatusClass.MINOR_ISSUES );
         assertLanguageModel( bundleModel.getLanguages().get( 1 ), "fr", false, false, StatusClass.MAJOR_ISSUES );
@@ -171,15 +170,71 @@ public class ResourceBundleTest
     }
 
     /**
-     * Test whether the id can be used as a filename, e.g. the slash "/" is removed.
+     * The duplicate messages of the default file are determined once for all languages.
+     */
+    @Test
+    public void testDuplicateDefaultMessages()
+    {
+        List<DuplicateMessage> duplicates = bundle.getDuplicateDefaultMessages();
+        Assert.assertSame( duplicates, bundle.getDuplicateDefaultMessages() );
+        Assert.assertEquals( 1, duplicates.size() );
+        Assert.assertEquals( "this is a sample for for unit testing", duplicates.get( 0 ).getMessage() );
+        Assert.assertEquals( "[different.key.same.message, file]", duplicates.get( 0 ).getKeys().toString() );
+        Assert.assertEquals( bundle.getKeyDictionary().getOrdinal( "file" ), duplicates.get( 0 ).getOrdinals()[1] );
+    }
+
+    /**
+     * The dashboard, the report and the tmx file use the same analysis result of a file.
+     */
+    @Test
+    public void testAnalysisIsShared()
+    {
+        BundleModel bundleModel = bundle.toBundleModel( new NullLog(), allLanguages, Arrays.asList( "zh_CN" ) );
+        ReportModel report = bundle.getReport( new NullLog() );
+        Assert.assertSame( bundleModel.getBase(), report.getAllLanguages().get( 0 ) );
+        Assert.assertSame( bundleModel.getLanguages().get( 0 ), report.getAllLanguages().get( 1 ) );
+        Assert.assertEquals( bundleModel.getRelativeTmxUrl(), bundle.getRelativeTmxUrl() );
+    }
+
+    /**
+     * The id depends only on the repository and the path of the bundle within the checkout directory.
+     */
+    @Test
+    public void testIdIsStable()
+    {
+        String id = new ResourceBundle( null, null, "repo", "/a/checkout/dir/messages", "/a/checkout" ).getId();
+        Assert.assertEquals( id, new ResourceBundle( null, null, "repo", "/other/dir/messages", "/other" ).getId() );
+        Assert.assertFalse( id.equals( new ResourceBundle( null, null, "other-repo", "/other/dir/messages",
+                "/other" ).getId() ) );
+        Assert.assertFalse( id.equals( new ResourceBundle( null, null, "repo", "/other/dir/errors", "/other" )
+                .getId() ) );
+        Assert.assertEquals( ResourceBundle.createId( "repo", "dir/messages" ),
+                ResourceBundle.createId( "repo", "\\dir\\messages" ) );
+    }
+
+    /**
+     * A bundle, that has been reached by a symbolic link, might be outside of the checkout directory.
+     * Its id is derived from the path within the checkout.
+     */
+    @Test
+    public void testBundleOutsideOfCheckoutDirectory()
+    {
+        ResourceBundle linked = new ResourceBundle( null, null, "repo", "/somewhere/else/messages", "/a/checkout",
+                "dir/messages" );
+        Assert.assertEquals( "Unknown_Project_" + ResourceBundle.createId( "repo", "dir/messages" ), linked.getId() );
+        Assert.assertEquals( "Unknown_Project_" + ResourceBundle.createId( "repo", "/somewhere/else/messages" ),
+                new ResourceBundle( null, null, "repo", "/somewhere/else/messages", "/a/checkout" ).getId() );
+    }
+
+    /**
+     * Test whether the id can be used as a filename, e.g. the slash "/" of the project name is replaced.
      */
     @Test
     public void testGetId()
     {
         String localBasePath = "./target/test-classes/unit/testpom2";
         ResourceBundle testBundle = new ResourceBundle( null, null, null, localBasePath, localBasePath );
-        String id = testBundle.getId();
-        Assert.assertFalse( id.contains( "/" ) );
-        Assert.assertTrue( id.startsWith( "Test_Sample_Project___With_a_Slash_" ) );
+        Assert.assertEquals( "Test Sample Project / With a Slash", testBundle.getProjectName() );
+        Assert.assertTrue( testBundle.getId().matches( "Test_Sample_Project___With_a_Slash_[0-9a-f]{12}" ) );
     }
 }
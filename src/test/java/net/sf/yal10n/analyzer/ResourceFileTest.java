@@ -15,6 +15,7 @@ package net.sf.yal10n.analyzer;
  */
 
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.util.Arrays;
 import java.util.Locale;
@@ -27,6 +28,7 @@ import net.sf.yal10n.settings.DashboardConfiguration;
 import net.sf.yal10n.settings.Repository;
 import net.sf.yal10n.svn.SVNUtilMock;
 
+import org.codehaus.plexus.util.FileUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -54,6 +56,128 @@ public class ResourceFileTest
         Assert.assertEquals( "test de DE", properties.getProperty( "test" ) );
     }
 
+    /**
+     * The file is read only once. All checks work on the content, that has been read together
+     * with the properties, even if the file doesn't exist anymore. The content itself is not kept.
+     * @throws Exception any error
+     */
+    @Test
+    public void testFileIsReadOnlyOnce() throws Exception
+    {
+        File directory = new File( "./target/test-output/read-once" );
+        directory.mkdirs();
+        File messagesFile = new File( directory, "messages.properties" );
+        FileOutputStream out = new FileOutputStream( messagesFile );
+        out.write( "\ufeff# Copyright\ntest=test \u00e4\n".getBytes( "UTF-8" ) );
+        out.close();
+
+        DashboardConfiguration config = new DashboardConfiguration();
+        config.getChecks().setCheckFileHeaders( true );
+        config.getChecks().setFileHeaderRegexp( "^# Copyright$" );
+        ResourceBundle bundle = new ResourceBundle( null, null, null, "test", "test" );
+        ResourceFile file = new ResourceFile( config, new Repository(), null, directory.getPath(),
+                "messages.properties", new SVNUtilMock( "messages.properties" ), null );
+        bundle.addFile( file );
+        Assert.assertEquals( "test \u00e4", file.getProperties().getProperty( "test" ) );
+
+        Assert.assertTrue( messagesFile.delete() );
+        LanguageModel model = file.toLanguageModel( new NullLog(), config.getChecks() );
+        Assert.assertEquals( "UTF8_BOM", model.getEncoding() );
+        Assert.assertEquals( "[]", model.getIssues().toString() );
+        Assert.assertEquals( 1, model.getCountOfMessages() );
+        try
+        {
+            file.openStream();
+            Assert.fail( "the content has been kept" );
+        }
+        catch ( FileNotFoundException e )
+        {
+            // expected
+        }
+    }
+
+    /**
+     * Files with the same content are analyzed only once, the results are taken from the analysis cache.
+     * @throws Exception any error
+     */
+    @Test
+    public void testAnalysisCache() throws Exception
+    {
+        File directory = new File( "./target/test-output/analysis-cache-file" );
+        FileUtils.deleteDirectory( directory );
+        directory.mkdirs();
+        byte[] content = "test=test\n".getBytes( "UTF-8" );
+        FileOutputStream out = new FileOutputStream( new File( directory, "messages.properties" ) );
+        out.write( content );
+        out.close();
+        AnalysisCache cache = new AnalysisCache( new File( directory, "cache" ), 10, "1.0" );
+
+        ResourceFile file = new ResourceFile( new DashboardConfiguration(), new Repository(), null,
+                directory.getPath(), "messages.properties", null, null );
+        file.setAnalysisCache( cache );
+        Assert.assertEquals( "test", file.getProperties().getProperty( "test" ) );
+        FileAnalysis cached = cache.get( cache.toKey( content, "" ) );
+        Assert.assertEquals( Encoding.UTF8, cached.getEncoding().getDetected() );
+
+        cached.getMessages().put( "test", "from cache" );
+        cache.put( cache.toKey( content, "" ), cached );
+        file = new ResourceFile( new DashboardConfiguration(), new Repository(), null,
+                directory.getPath(), "messages.properties", null, null );
+        file.setAnalysisCache( cache );
+        Assert.assertEquals( "from cache", file.getProperties().getProperty( "test" ) );
+
+        DashboardConfiguration headerConfig = new DashboardConfiguration();
+        headerConfig.getChecks().setCheckFileHeaders( true );
+        file = new ResourceFile( headerConfig, new Repository(), null,
+                directory.getPath(), "messages.properties", null, null );
+        file.setAnalysisCache( cache );
+        Assert.assertEquals( "test", file.getProperties().getProperty( "test" ) );
+    }
+
+    /**
+     * A repository can use its own file header. Headers, that are longer than the checked
+     * beginning of the file, are found as well.
+     * @throws Exception any error
+     */
+    @Test
+    public void testFileHeaderOfRepository() throws Exception
+    {
+        final int longHeaderLines = 1000;
+        StringBuilder content = new StringBuilder( "# Repository Header\n" );
+        for ( int i = 0; i < longHeaderLines; i++ )
+        {
+            content.append( "# more header\n" );
+        }
+        content.append( "# End\ntest=test\n" );
+        File directory = new File( "./target/test-output/file-header" );
+        directory.mkdirs();
+        FileOutputStream out = new FileOutputStream( new File( directory, "messages.properties" ) );
+        out.write( content.toString().getBytes( "UTF-8" ) );
+        out.close();
+
+        DashboardConfiguration config = new DashboardConfiguration();
+        config.getChecks().setCheckFileHeaders( true );
+        config.getChecks().setFileHeaderRegexp( "^# Global Header$" );
+        Repository repo = new Repository();
+        repo.setFileHeaderRegexp( "^# Repository Header\\n(# more header\\n)*# End$" );
+        Assert.assertSame( config.getChecks().getFileHeaderPattern( repo ),
+                config.getChecks().getFileHeaderPattern( repo ) );
+
+        Assert.assertEquals( "[]", checkFileHeader( config, repo, directory ).getIssues().toString() );
+        Assert.assertEquals( "[File header missing or not at the beginning of the file]",
+                checkFileHeader( config, new Repository(), directory ).getIssues().toString() );
+    }
+
+    private static LanguageModel checkFileHeader( DashboardConfiguration config, Repository repo, File directory )
+        throws Exception
+    {
+        ResourceBundle bundle = new ResourceBundle( null, null, null, "test", "test" );
+        ResourceFile file = new ResourceFile( config, repo, null, directory.getPath(), "messages.properties",
+                new SVNUtilMock( "messages.properties" ), null );
+        bundle.addFile( file );
+        return file.toLanguageModel( new NullLog(), config.getChecks() );
+    }
+
     /**
      * Tests whether the language is correctly determined.
      * @throws Exception any error
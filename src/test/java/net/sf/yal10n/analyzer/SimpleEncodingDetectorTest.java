@@ -14,11 +14,20 @@ package net.sf.yal10n.analyzer;
  * limitations under the License.
  */
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
 import java.util.Arrays;
+import java.util.Random;
 
+import org.codehaus.plexus.util.IOUtil;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -224,10 +233,143 @@ public class SimpleEncodingDetectorTest
         Assert.assertNotNull( result.getError() );
         Assert.assertEquals( "UNMAPPABLE[1]", result.getError() );
         Assert.assertEquals( Encoding.OTHER, result.getDetected() );
-        final int expectedErrorPosition = 17;
+        // the byte offset of the replacement character
+        final int expectedErrorPosition = 15;
         Assert.assertEquals( expectedErrorPosition, result.getErrorPosition() );
     }
 
+    /**
+     * The detection of file contents, that are already in memory, gives the same results
+     * as the detection of files.
+     * @throws Exception any error
+     */
+    @Test
+    public void testContent() throws Exception
+    {
+        final int fileSize = 1200;
+        File[] files = {
+            prepareFile( true, "This is a string with umlauts: äöüß encoded as UTF-8 with BOM", "UTF-8" ),
+            prepareFile( false, "This is a file\nwith multiple\nlines äää and umlauts\nbut wrongly encoded",
+                    "ISO-8859-1" ),
+            prepareBigFile( false, "Test File\nwith\nmultiple\nlines\nbut äää wrong encoding", "ISO-8859-1",
+                    fileSize ),
+            prepareFile( new byte[0] ) };
+        for ( File f : files )
+        {
+            EncodingResult expected = detector.detectEncoding( f );
+            EncodingResult encodingResult = detector.detectEncoding( readBytes( f ) );
+            Assert.assertEquals( expected.getDetected(), encodingResult.getDetected() );
+            Assert.assertEquals( expected.getError(), encodingResult.getError() );
+            Assert.assertEquals( expected.getErrorPosition(), encodingResult.getErrorPosition() );
+            Assert.assertEquals( expected.getErrorLine(), encodingResult.getErrorLine() );
+            Assert.assertEquals( expected.getErrorColumn(), encodingResult.getErrorColumn() );
+        }
+    }
+
+    /**
+     * The line and column of an error in the content are counted while validating it, for all kinds
+     * of line breaks.
+     * @throws Exception any error
+     */
+    @Test
+    public void testContentErrorLineAndColumn() throws Exception
+    {
+        EncodingResult result = detector.detectEncoding( "first\r\nsecond\rthird\n\näöü".getBytes( "ISO-8859-1" ) );
+        Assert.assertEquals( Encoding.OTHER, result.getDetected() );
+        Assert.assertEquals( "MALFORMED[1]", result.getError() );
+        final int expectedErrorPosition = 21;
+        Assert.assertEquals( expectedErrorPosition, result.getErrorPosition() );
+        Assert.assertEquals( 5, result.getErrorLine() );
+        Assert.assertEquals( 1, result.getErrorColumn() );
+
+        result = detector.detectEncoding( "key=Bokmï¿½l".getBytes( "ISO-8859-1" ) );
+        Assert.assertEquals( "UNMAPPABLE[1]", result.getError() );
+        final int expectedReplacementPosition = 8;
+        Assert.assertEquals( expectedReplacementPosition, result.getErrorPosition() );
+        Assert.assertEquals( 1, result.getErrorLine() );
+        Assert.assertEquals( expectedReplacementPosition + 1, result.getErrorColumn() );
+    }
+
+    /**
+     * An error at the start of a line is reported at the same position, line and column for a file
+     * and for its content, also behind ASCII text, that is checked a word at a time.
+     * @throws Exception any error
+     */
+    @Test
+    public void testErrorAtLineStartFileAndContent() throws Exception
+    {
+        File f = prepareFile( false, "first line\r\nsecond\rthird line with more text\n\näöü", "ISO-8859-1" );
+        final int expectedErrorPosition = 46;
+        final int expectedLine = 5;
+        EncodingResult[] results = { detector.detectEncoding( f ), detector.detectEncoding( readBytes( f ) ) };
+        for ( EncodingResult result : results )
+        {
+            Assert.assertEquals( Encoding.OTHER, result.getDetected() );
+            Assert.assertEquals( "MALFORMED[1]", result.getError() );
+            Assert.assertEquals( expectedErrorPosition, result.getErrorPosition() );
+            Assert.assertEquals( expectedLine, result.getErrorLine() );
+            Assert.assertEquals( 1, result.getErrorColumn() );
+        }
+    }
+
+    /**
+     * The byte-level check for well-formed UTF-8 agrees with the decoder on random content, that mixes
+     * ASCII, valid multi-byte sequences and random bytes.
+     * @throws Exception any error
+     */
+    @Test
+    public void testWellFormedUTF8() throws Exception
+    {
+        final int iterations = 20000;
+        final int maxLength = 24;
+        final int letters = 26;
+        final long seed = 42;
+        Random random = new Random( seed );
+        for ( int i = 0; i < iterations; i++ )
+        {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            int length = random.nextInt( maxLength );
+            for ( int j = 0; j < length; j++ )
+            {
+                switch ( random.nextInt( 3 ) )
+                {
+                case 0:
+                    content.write( 'a' + random.nextInt( letters ) );
+                    break;
+                case 1:
+                    int codePoint = random.nextInt( Character.MAX_CODE_POINT + 1 );
+                    content.write( new String( Character.toChars( codePoint ) ).getBytes( "UTF-8" ) );
+                    break;
+                default:
+                    content.write( random.nextInt( 256 ) );
+                    break;
+                }
+            }
+            byte[] bytes = content.toByteArray();
+            Assert.assertEquals( Arrays.toString( bytes ), isAcceptedByDecoder( bytes ),
+                    SimpleEncodingDetector.isWellFormedUTF8( bytes, 0 ) );
+        }
+
+        Assert.assertFalse( SimpleEncodingDetector.isWellFormedUTF8( "ab�".getBytes( "UTF-8" ), 0 ) );
+        Assert.assertTrue( SimpleEncodingDetector.isWellFormedUTF8( "😀 plain ascii text"
+                .getBytes( "UTF-8" ), 0 ) );
+    }
+
+    private static boolean isAcceptedByDecoder( byte[] bytes )
+    {
+        CharsetDecoder decoder = Charset.forName( "UTF-8" ).newDecoder();
+        decoder.onMalformedInput( CodingErrorAction.REPORT );
+        decoder.onUnmappableCharacter( CodingErrorAction.REPORT );
+        try
+        {
+            return decoder.decode( ByteBuffer.wrap( bytes ) ).toString().indexOf( '�' ) == -1;
+        }
+        catch ( CharacterCodingException e )
+        {
+            return false;
+        }
+    }
+
     private File prepareFile( boolean withBOM, String text, String encoding ) throws IOException
     {
         File f = File.createTempFile( "yal10n", null );
@@ -272,4 +414,17 @@ public class SimpleEncodingDetectorTest
         out.close();
         return f;
     }
+
+    private static byte[] readBytes( File f ) throws IOException
+    {
+        FileInputStream in = new FileInputStream( f );
+        try
+        {
+            return IOUtil.toByteArray( in );
+        }
+        finally
+        {
+            in.close();
+        }
+    }
 }
@@ -24,6 +24,7 @@ import java.util.regex.Pattern;
 import net.sf.yal10n.DashboardMojo;
 import net.sf.yal10n.analyzer.ResourceFile;
 
+import org.codehaus.plexus.util.FileUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -86,6 +87,77 @@ public class DashboardRendererTest
         Assert.assertTrue( expectedFile.exists() );
     }
 
+    /**
+     * The generation date is written into a separate script, so that the dashboard stays the same,
+     * if nothing changed.
+     * @throws Exception any error
+     */
+    @Test
+    public void testGenerationDateIsSeparated() throws Exception
+    {
+        File outputDirectory = new File( "./target/test-output/dashboardrenderertest/generation-"
+                + UUID.randomUUID().toString() );
+        File dashboardFile = new File( outputDirectory, "dashboard.html" );
+        DashboardRenderer renderer = new DashboardRenderer();
+        DashboardModel model = createModel();
+        model.setGenerationDate( "first \"run\"" );
+        renderer.render( model, outputDirectory.getCanonicalPath() );
+        String dashboard = FileUtils.fileRead( dashboardFile, "UTF-8" );
+        Assert.assertFalse( dashboard.contains( "first" ) );
+        Assert.assertEquals( "var yal10nGenerationDate = \"first \\\"run\\\"\";\n",
+                FileUtils.fileRead( new File( outputDirectory, DashboardRenderer.GENERATION_SCRIPT ), "UTF-8" ) );
+
+        final long modified = 1000000000000L;
+        Assert.assertTrue( dashboardFile.setLastModified( modified ) );
+        model.setGenerationDate( "second run" );
+        renderer.render( model, outputDirectory.getCanonicalPath() );
+        Assert.assertEquals( modified, dashboardFile.lastModified() );
+        Assert.assertTrue( FileUtils.fileRead( new File( outputDirectory, DashboardRenderer.GENERATION_SCRIPT ),
+                "UTF-8" ).contains( "second run" ) );
+    }
+
+    /**
+     * The velocity template and the compiled template both create the golden dashboard.
+     * @throws Exception any error
+     */
+    @Test
+    public void testCompiledTemplateGolden() throws Exception
+    {
+        String golden = FileUtils.fileRead( new File( "./target/test-classes/golden/dashboard.html" ), "UTF-8" );
+        DashboardModel model = createModel();
+        model.setVersion( "1.0.0" );
+        model.setCreateTmx( true );
+        BundleModel withoutBase = createBundleModel( "Bundle 3", "bundle3", true );
+        withoutBase.setBase( null );
+        withoutBase.setRelativeTmxUrl( "bundle3.tmx" );
+        model.setProjects( Arrays.asList( model.getProjects().get( 0 ),
+                new ProjectModel( Arrays.asList( withoutBase ) ) ) );
+        Assert.assertEquals( golden, render( model, false ) );
+        Assert.assertEquals( golden, render( model, true ) );
+
+        model.setCreateTmx( false );
+        Assert.assertEquals( render( model, false ), render( model, true ) );
+    }
+
+    /**
+     * Missing values are rendered the same way by the velocity template and the compiled template.
+     */
+    @Test
+    public void testCompiledTemplateMissingValues()
+    {
+        DashboardModel model = new DashboardModel();
+        Assert.assertEquals( render( model, false ), render( model, true ) );
+    }
+
+    private static String render( DashboardModel model, boolean compiled )
+    {
+        DashboardRenderer renderer = new DashboardRenderer();
+        renderer.setCompiled( compiled );
+        StringWriter out = new StringWriter();
+        renderer.render( model, out );
+        return out.toString();
+    }
+
     private DashboardModel createModel()
     {
         BundleModel bundle1 = createBundleModel( "Bundle 1", "bundle1", true );
@@ -0,0 +1,67 @@
+package net.sf.yal10n.report;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.StringWriter;
+
+import org.apache.commons.text.StringEscapeUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link HtmlWriter}.
+ */
+public class HtmlWriterTest
+{
+    /**
+     * Every character is escaped the same way as {@link StringEscapeUtils#escapeHtml4(String)} does.
+     * @throws Exception any error
+     */
+    @Test
+    public void testEscapedLikeEscapeHtml4() throws Exception
+    {
+        StringBuilder all = new StringBuilder();
+        for ( char c = 1; c < Character.MIN_SURROGATE; c++ )
+        {
+            all.append( 'x' ).append( c );
+        }
+        all.append( "\ud83d\ude00" );
+        StringWriter out = new StringWriter();
+        HtmlWriter html = new HtmlWriter( out, 7 );
+        html.escaped( all.toString(), "$ref" );
+        html.flush();
+        Assert.assertEquals( StringEscapeUtils.escapeHtml4( all.toString() ), out.toString() );
+    }
+
+    /**
+     * <code>null</code> values are written as the velocity reference.
+     * @throws Exception any error
+     */
+    @Test
+    public void testNullValues() throws Exception
+    {
+        StringWriter out = new StringWriter();
+        HtmlWriter html = new HtmlWriter( out );
+        html.value( null, "$report.version" );
+        html.write( ' ' );
+        html.escaped( null, "$esc.html($key)" );
+        html.write( ' ' );
+        html.value( "1.0", "$report.version" );
+        html.write( ' ' );
+        html.escaped( "a<b", "$esc.html($key)" );
+        html.close();
+        Assert.assertEquals( "$report.version $esc.html($key) 1.0 a&lt;b", out.toString() );
+    }
+}
@@ -17,11 +17,15 @@ package net.sf.yal10n.report;
 import java.io.File;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.TreeMap;
 import java.util.UUID;
 
 import net.sf.yal10n.dashboard.LanguageModel;
+import net.sf.yal10n.dashboard.StatusClass;
 
+import org.codehaus.plexus.util.FileUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -38,7 +42,6 @@ public class ReportRendererTest
     public void testReportRendering()
     {
         ReportModel model = new ReportModel();
-        model.setGenerationDate( "### the generation date ###" );
         model.setVersion( "### the version ###" );
         model.setMavenCoordinates( "### maven coordinates ###" );
         model.setBaseName( "### the base name ###" );
@@ -55,7 +58,7 @@ public class ReportRendererTest
         renderer.render( model, out );
 
         String output = out.toString();
-        Assert.assertTrue( output.contains( model.getGenerationDate() ) );
+        Assert.assertTrue( output.contains( "<dd class=\"generation-date\"></dd>" ) );
         Assert.assertTrue( output.contains( model.getMavenCoordinates() ) );
         Assert.assertTrue( output.contains( model.getBaseName() ) );
         Assert.assertTrue( output.contains( model.getBasePath() ) );
@@ -64,6 +67,84 @@ public class ReportRendererTest
         Assert.assertTrue( output.contains( model.getVersion() ) );
     }
 
+    /**
+     * The velocity template and the compiled template both create the golden report.
+     * @throws Exception any error
+     */
+    @Test
+    public void testCompiledTemplateGolden() throws Exception
+    {
+        String golden = FileUtils.fileRead( new File( "./target/test-classes/golden/report.html" ), "UTF-8" );
+        ReportModel model = createGoldenModel();
+        Assert.assertEquals( golden, render( model, false ) );
+        Assert.assertEquals( golden, render( model, true ) );
+    }
+
+    /**
+     * Missing values are rendered the same way by the velocity template and the compiled template.
+     */
+    @Test
+    public void testCompiledTemplateMissingValues()
+    {
+        ReportModel model = new ReportModel();
+        model.setAllLanguages( Arrays.asList( new LanguageModel() ) );
+        Assert.assertEquals( render( model, false ), render( model, true ) );
+    }
+
+    private static String render( ReportModel model, boolean compiled )
+    {
+        ReportRenderer renderer = new ReportRenderer();
+        renderer.setCompiled( compiled );
+        StringWriter out = new StringWriter();
+        renderer.render( model, out );
+        return out.toString();
+    }
+
+    private static ReportModel createGoldenModel()
+    {
+        LanguageModel base = createLanguageModel( "default", StatusClass.OK );
+        base.setCountOfMessages( 3 );
+        LanguageModel de = createLanguageModel( "de", StatusClass.MAJOR_ISSUES );
+        de.setCountOfDefaultMessages( 3 );
+        de.setCountOfMessages( 3 );
+        de.getMissingMessages().put( "missing.key", "<b>Caf\u00e9</b> & \"more\" \u20ac \ud83d\ude00" );
+        de.getNotTranslatedMessages().put( "same.key", "Ok" );
+        de.getAdditionalMessages().put( "old.key", "Alt \u00e4\u00f6\u00fc \u03b1 \u2264 \u2666 \u2667" );
+        de.getInconsistentTranslations().put( "Save", new String[] { "[save, store]", "[Speichern, Sichern]" } );
+        de.setIssues( Arrays.asList( "Wrong encoding: <ISO-8859-1>" ) );
+        LanguageModel fr = createLanguageModel( "fr", StatusClass.MINOR_ISSUES );
+        fr.setSvnUrl( null );
+        fr.setSvnInfo( null );
+        fr.setIssues( null );
+
+        ReportModel model = new ReportModel();
+        model.setProjectName( "Golden Project" );
+        model.setBasePath( "/checkouts/golden/src/main/resources" );
+        model.setBaseName( "messages" );
+        model.setVersion( "1.0.0" );
+        model.setSvnCheckoutUrl( "http://svn/golden/src/main/resources/" );
+        model.setAllLanguages( Arrays.asList( base, de, fr ) );
+        return model;
+    }
+
+    private static LanguageModel createLanguageModel( String name, StatusClass status )
+    {
+        LanguageModel lm = new LanguageModel();
+        lm.setName( name );
+        lm.setStatus( status );
+        lm.setEncoding( "UTF-8" );
+        lm.setEncodingStatus( StatusClass.OK );
+        lm.setSvnUrl( "http://svn/golden/src/main/resources/messages_" + name + ".properties" );
+        lm.setRelativeUrl( "checkouts/golden/src/main/resources/messages_" + name + ".properties" );
+        lm.setSvnInfo( "r42" );
+        lm.setMissingMessages( new TreeMap<String, String>() );
+        lm.setNotTranslatedMessages( new TreeMap<String, String>() );
+        lm.setAdditionalMessages( new TreeMap<String, String>() );
+        lm.setInconsistentTranslations( new TreeMap<String, String[]>() );
+        lm.setIssues( new ArrayList<String>() );
+        return lm;
+    }
+
     /**
      * Verify that the report file is actually created.
      * @throws Exception any error
@@ -0,0 +1,70 @@
+package net.sf.yal10n.settings;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link KeyMatcher}.
+ */
+public class KeyMatcherTest
+{
+    /**
+     * Literal keys, globs and regular expressions can be mixed.
+     */
+    @Test
+    public void testMatches()
+    {
+        KeyMatcher matcher = new KeyMatcher( Arrays.asList( "ignored.message", "*.tooltip", "label.?",
+                "%regex[debug\\..*]" ) );
+        Assert.assertTrue( matcher.matches( "ignored.message" ) );
+        Assert.assertFalse( matcher.matches( "ignored.message2" ) );
+        Assert.assertFalse( matcher.matches( "ignoredXmessage" ) );
+        Assert.assertTrue( matcher.matches( "button.ok.tooltip" ) );
+        Assert.assertFalse( matcher.matches( "button.ok.tooltip.text" ) );
+        Assert.assertFalse( matcher.matches( "button.okXtooltip" ) );
+        Assert.assertTrue( matcher.matches( "label.a" ) );
+        Assert.assertFalse( matcher.matches( "label.ab" ) );
+        Assert.assertTrue( matcher.matches( "debug.anything" ) );
+        Assert.assertFalse( matcher.matches( "debugXanything" ) );
+    }
+
+    /**
+     * Without patterns, nothing is ignored.
+     */
+    @Test
+    public void testEmpty()
+    {
+        Assert.assertFalse( new KeyMatcher( null ).matches( "key" ) );
+        Assert.assertFalse( new KeyMatcher( Arrays.<String>asList() ).matches( "key" ) );
+    }
+
+    /**
+     * The matcher of the check configuration is compiled once and recompiled, if the keys change.
+     */
+    @Test
+    public void testCheckConfiguration()
+    {
+        CheckConfiguration checks = new CheckConfiguration();
+        KeyMatcher matcher = checks.getIgnoreKeyMatcher();
+        Assert.assertSame( matcher, checks.getIgnoreKeyMatcher() );
+        Assert.assertFalse( matcher.matches( "a.tooltip" ) );
+        checks.setIgnoreKeys( Arrays.asList( "*.tooltip" ) );
+        Assert.assertTrue( checks.getIgnoreKeyMatcher().matches( "a.tooltip" ) );
+    }
+}
@@ -0,0 +1,106 @@
+package net.sf.yal10n.svn;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.scm.ScmFileStatus;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link SVNChangeLog}.
+ */
+public class SVNChangeLogTest
+{
+    /**
+     * The change type is determined by the file name relative to the working copy, as reported by git.
+     */
+    @Test
+    public void testGetChange()
+    {
+        Map<String, Set<String>> changedFiles = new HashMap<String, Set<String>>();
+        changedFiles.put( "a/messages.properties", Collections.singleton( ScmFileStatus.MODIFIED.toString() ) );
+        changedFiles.put( "b/messages.properties", new HashSet<String>( Arrays.asList(
+                ScmFileStatus.MODIFIED.toString(), ScmFileStatus.ADDED.toString() ) ) );
+        changedFiles.put( "c/other_messages.properties", Collections.singleton( ScmFileStatus.MODIFIED.toString() ) );
+        SVNChangeLog changeLog = new SVNChangeLog( changedFiles );
+
+        Assert.assertFalse( changeLog.isEmpty() );
+        Assert.assertEquals( SVNLogChange.MODIFICATION, changeLog.getChange( "a/messages.properties" ) );
+        Assert.assertEquals( SVNLogChange.ADD, changeLog.getChange( "b/messages.properties" ) );
+        Assert.assertEquals( SVNLogChange.ADD, changeLog.getChange( "b\\messages.properties" ) );
+        Assert.assertEquals( SVNLogChange.NONE, changeLog.getChange( "c/messages.properties" ) );
+        Assert.assertEquals( SVNLogChange.NONE, changeLog.getChange( "messages.properties" ) );
+    }
+
+    /**
+     * svn reports the file names from the repository root. Only the files of the working copy count,
+     * not the files with the same relative path on another branch, that has been changed in the same revision.
+     */
+    @Test
+    public void testGetChangeOfBranch()
+    {
+        Map<String, Set<String>> changedFiles = new HashMap<String, Set<String>>();
+        changedFiles.put( "/project/trunk/a/messages.properties",
+                Collections.singleton( ScmFileStatus.MODIFIED.toString() ) );
+        changedFiles.put( "/project/branches/1.x/a/messages.properties",
+                Collections.singleton( ScmFileStatus.ADDED.toString() ) );
+        changedFiles.put( "/project/branches/1.x/b/messages.properties",
+                Collections.singleton( ScmFileStatus.ADDED.toString() ) );
+
+        SVNChangeLog trunk = new SVNChangeLog( changedFiles, "/project/trunk" );
+        Assert.assertEquals( SVNLogChange.MODIFICATION, trunk.getChange( "a/messages.properties" ) );
+        Assert.assertEquals( SVNLogChange.NONE, trunk.getChange( "b/messages.properties" ) );
+        Assert.assertEquals( Collections.singleton( "a/messages.properties" ), trunk.getChangedFiles() );
+
+        SVNChangeLog branch = new SVNChangeLog( changedFiles, "/project/branches/1.x/" );
+        Assert.assertEquals( SVNLogChange.ADD, branch.getChange( "a/messages.properties" ) );
+        Assert.assertEquals( SVNLogChange.ADD, branch.getChange( "b/messages.properties" ) );
+
+        SVNChangeLog other = new SVNChangeLog( changedFiles, "/other/trunk" );
+        Assert.assertTrue( other.isEmpty() );
+        Assert.assertEquals( SVNLogChange.NONE, other.getChange( "a/messages.properties" ) );
+    }
+
+    /**
+     * The path of the working copy within the repository is taken from the urls of "svn info".
+     */
+    @Test
+    public void testToRepositoryPath()
+    {
+        Assert.assertEquals( "/project/trunk", SVNUtil.toRepositoryPath( "http://svn/repos/project/trunk",
+                "http://svn/repos" ) );
+        Assert.assertEquals( "/my project/trunk", SVNUtil.toRepositoryPath(
+                "file:///var/svn/repo/my%20project/trunk", "file:///var/svn/repo" ) );
+        Assert.assertEquals( "/", SVNUtil.toRepositoryPath( "http://svn/repos", "http://svn/repos" ) );
+    }
+
+    /**
+     * Without changes, every file is unchanged.
+     */
+    @Test
+    public void testEmpty()
+    {
+        SVNChangeLog changeLog = new SVNChangeLog( Collections.<String, Set<String>>emptyMap() );
+        Assert.assertTrue( changeLog.isEmpty() );
+        Assert.assertEquals( SVNLogChange.NONE, changeLog.getChange( "a/messages.properties" ) );
+    }
+}
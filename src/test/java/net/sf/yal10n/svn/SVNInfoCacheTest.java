@@ -0,0 +1,69 @@
+package net.sf.yal10n.svn;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import net.sf.yal10n.analyzer.NullLog;
+import net.sf.yal10n.settings.ScmType;
+
+import org.apache.maven.plugin.logging.Log;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link SVNInfoCache}.
+ */
+public class SVNInfoCacheTest
+{
+    /**
+     * The bulk lookup is done only once, missing files are checked on their own.
+     */
+    @Test
+    public void testGet()
+    {
+        SVNUtil svn = mock( SVNUtil.class );
+        SVNInfo info = new SVNInfo( "1", "date" );
+        SVNInfo single = new SVNInfo( "2", "date2" );
+        when( svn.checkFiles( any( Log.class ), eq( ScmType.SVN ), eq( "base" ), anyCollectionOf( String.class ) ) )
+            .thenReturn( Collections.singletonMap( "a/messages.properties", info ) );
+        when( svn.checkFile( any( Log.class ), eq( ScmType.SVN ), eq( "url" ), eq( "base" ), anyString() ) )
+            .thenReturn( single );
+
+        SVNInfoCache cache = new SVNInfoCache( svn, ScmType.SVN, "url", "base",
+                Arrays.asList( "a/messages.properties", "b/messages.properties" ) );
+        Log log = new NullLog();
+        Assert.assertSame( info, cache.get( log, "a/messages.properties" ) );
+        Assert.assertSame( info, cache.get( log, "a\\messages.properties" ) );
+        Assert.assertSame( single, cache.get( log, "b/messages.properties" ) );
+
+        verify( svn, times( 1 ) ).checkFiles( any( Log.class ), eq( ScmType.SVN ), eq( "base" ),
+                anyCollectionOf( String.class ) );
+        verify( svn, times( 1 ) ).checkFile( any( Log.class ), eq( ScmType.SVN ), eq( "url" ), eq( "base" ),
+                eq( "b/messages.properties" ) );
+        verifyNoMoreInteractions( svn );
+    }
+}
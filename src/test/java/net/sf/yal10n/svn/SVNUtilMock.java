@@ -14,7 +14,10 @@ package net.sf.yal10n.svn;
  * limitations under the License.
  */
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Map;
 
 import net.sf.yal10n.settings.ScmType;
 
@@ -54,5 +57,14 @@ public class SVNUtilMock extends SVNUtil
         SVNInfo info = new SVNInfo( "1", TIMESTAMP_STRING );
         return info;
     }
-}
 
+    /**
+     * Finds nothing, so that every file is checked with {@link #checkFile(Log, ScmType, String, String, String)}.
+     */
+    @Override
+    public Map<String, SVNInfo> checkFiles( Log log, ScmType type, String baseDir,
+            Collection<String> relativeFilePaths )
+    {
+        return Collections.emptyMap();
+    }
+}
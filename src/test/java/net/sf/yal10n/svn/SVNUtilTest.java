@@ -17,7 +17,9 @@ package net.sf.yal10n.svn;
 import java.io.File;
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Map;
 
 import net.sf.yal10n.analyzer.NullLog;
 import net.sf.yal10n.diff.UnifiedDiff;
@@ -77,10 +79,10 @@ public class SVNUtilTest
             FileUtils.deleteDirectory( destination );
         }
 
-        String revision = svnUtil.checkout( log, ScmType.SVN, svnUrl + "/trunk", destination );
+        String revision = svnUtil.checkout( log, ScmType.SVN, svnUrl + "/trunk", "HEAD", null, destination );
         Assert.assertEquals( "3", revision );
         // checkout a second time into the already checked out working directory
-        revision = svnUtil.checkout( log, ScmType.SVN, svnUrl + "/trunk", destination );
+        revision = svnUtil.checkout( log, ScmType.SVN, svnUrl + "/trunk", "HEAD", null, destination );
         Assert.assertEquals( "3", revision );
         SVNLogChange result = svnUtil.log( log, ScmType.SVN, svnUrl, destination, "messages.properties", "2", "3" );
         Assert.assertEquals( SVNLogChange.MODIFICATION, result );
@@ -105,7 +107,7 @@ public class SVNUtilTest
         }
 
 
-        String revision = svnUtil.checkout( log, ScmType.SVN, svnUrl, destination );
+        String revision = svnUtil.checkout( log, ScmType.SVN, svnUrl, "HEAD", null, destination );
         Assert.assertEquals( "6", revision );
 
         SimpleDateFormat simpleDateFormat = new SimpleDateFormat( "yyyy-MM-dd HH:mm:ss Z" );
@@ -171,7 +173,7 @@ public class SVNUtilTest
         Assert.assertEquals( 0, unzip.waitFor() );
 
         String url = "./src/it/git-it/gitrepos/repo1/.git";
-        String checkout = svnUtil.checkout( log, ScmType.GIT, url, destination );
+        String checkout = svnUtil.checkout( log, ScmType.GIT, url, "HEAD", null, destination );
         Assert.assertEquals( "f5d50077a92f9e29d704518ab2fbd9ecf7307214", checkout );
         File dstPath = new File( destination );
         Assert.assertTrue( dstPath.exists() && dstPath.isDirectory() );
@@ -179,4 +181,273 @@ public class SVNUtilTest
         Arrays.sort( files );
         Assert.assertEquals( "[.git, project-a]", Arrays.toString( files ) );
     }
+
+    /**
+     * Verify that an existing git working copy is updated and that a corrupt working copy
+     * is replaced by a fresh checkout.
+     * @throws Exception any error
+     */
+    @Test
+    public void testGitUpdate() throws Exception
+    {
+        SVNUtil svnUtil = new SVNUtil();
+        Log log = new NullLog();
+
+        String destination = new File( "./target/gitrepos/repo1-update" ).getCanonicalPath();
+        if ( new File( destination ).exists() )
+        {
+            FileUtils.deleteDirectory( destination );
+        }
+
+        Process unzip = Runtime.getRuntime().exec( "unzip -o repo1.zip", null,
+                new File( "./src/it/git-it/gitrepos/" ) );
+        Assert.assertEquals( 0, unzip.waitFor() );
+
+        String url = "./src/it/git-it/gitrepos/repo1/.git";
+        String expectedRevision = "f5d50077a92f9e29d704518ab2fbd9ecf7307214";
+        Assert.assertEquals( expectedRevision,
+                svnUtil.checkout( log, ScmType.GIT, url, "HEAD", null, destination ) );
+
+        // local modifications are reverted by the update, untracked files show, that no new checkout was done
+        File modified = new File( destination, "project-a/pom.xml" );
+        FileUtils.fileWrite( modified.getPath(), "modified" );
+        File untracked = new File( destination, "untracked.txt" );
+        FileUtils.fileWrite( untracked.getPath(), "untracked" );
+        Assert.assertEquals( expectedRevision,
+                svnUtil.checkout( log, ScmType.GIT, url, "HEAD", null, destination ) );
+        Assert.assertFalse( "modified".equals( FileUtils.fileRead( modified ) ) );
+        Assert.assertTrue( untracked.exists() );
+
+        // a corrupt working copy is checked out again
+        FileUtils.fileWrite( destination + "/.git/HEAD", "corrupt" );
+        Assert.assertEquals( expectedRevision,
+                svnUtil.checkout( log, ScmType.GIT, url, "HEAD", null, destination ) );
+        Assert.assertTrue( new File( destination, "project-a" ).isDirectory() );
+    }
+
+    /**
+     * Verify that the remote revision of a git repository is compared without a checkout.
+     * @throws Exception any error
+     */
+    @Test
+    public void testGitIsUpToDate() throws Exception
+    {
+        SVNUtil svnUtil = new SVNUtil();
+        Log log = new NullLog();
+
+        Process unzip = Runtime.getRuntime().exec( "unzip -o repo1.zip", null,
+                new File( "./src/it/git-it/gitrepos/" ) );
+        Assert.assertEquals( 0, unzip.waitFor() );
+
+        String url = "scm:git:./src/it/git-it/gitrepos/repo1/.git";
+        Assert.assertTrue( svnUtil.isUpToDate( log, ScmType.GIT, url, "HEAD",
+                "f5d50077a92f9e29d704518ab2fbd9ecf7307214" ) );
+        Assert.assertFalse( svnUtil.isUpToDate( log, ScmType.GIT, url, "HEAD",
+                "0000000000000000000000000000000000000000" ) );
+        // if the remote can't be reached, the repository needs to be checked out
+        Assert.assertFalse( svnUtil.isUpToDate( log, ScmType.GIT, "scm:git:./target/does-not-exist", "HEAD",
+                "f5d50077a92f9e29d704518ab2fbd9ecf7307214" ) );
+    }
+
+    /**
+     * Verify that a sparse git checkout only contains the needed files and follows changed patterns.
+     * @throws Exception any error
+     */
+    @Test
+    public void testGitSparseCheckout() throws Exception
+    {
+        SVNUtil svnUtil = new SVNUtil();
+        Log log = new NullLog();
+
+        String destination = new File( "./target/gitrepos/repo1-sparse" ).getCanonicalPath();
+        if ( new File( destination ).exists() )
+        {
+            FileUtils.deleteDirectory( destination );
+        }
+
+        Process unzip = Runtime.getRuntime().exec( "unzip -o repo1.zip", null,
+                new File( "./src/it/git-it/gitrepos/" ) );
+        Assert.assertEquals( 0, unzip.waitFor() );
+
+        String url = "./src/it/git-it/gitrepos/repo1/.git";
+        String expectedRevision = "f5d50077a92f9e29d704518ab2fbd9ecf7307214";
+        File pom = new File( destination, "project-a/pom.xml" );
+        File messages = new File( destination, "project-a/src/main/resources/messages.properties" );
+
+        SparseCheckout sparse = new SparseCheckout( Arrays.asList( "**/*.properties" ),
+                Arrays.asList( "**/messages.properties" ) );
+        Assert.assertEquals( expectedRevision,
+                svnUtil.checkout( log, ScmType.GIT, url, "HEAD", sparse, destination ) );
+        Assert.assertTrue( pom.exists() );
+        Assert.assertFalse( messages.exists() );
+
+        sparse = new SparseCheckout( Arrays.asList( "**/*.properties" ), Collections.<String>emptyList() );
+        Assert.assertEquals( expectedRevision,
+                svnUtil.checkout( log, ScmType.GIT, url, "HEAD", sparse, destination ) );
+        Assert.assertTrue( pom.exists() );
+        Assert.assertTrue( messages.exists() );
+
+        // the sparse working copy is a partial clone, that is read by the git executable
+        String messagesPath = "project-a/src/main/resources/messages.properties";
+        Map<String, SVNInfo> expected = svnUtil.checkFiles( log, ScmType.GIT, destination,
+                Collections.singleton( messagesPath ) );
+        svnUtil.setInProcessGit( true );
+        Map<String, SVNInfo> infos = svnUtil.checkFiles( log, ScmType.GIT, destination,
+                Collections.singleton( messagesPath ) );
+        Assert.assertEquals( expected.get( messagesPath ).getRevision(), infos.get( messagesPath ).getRevision() );
+        svnUtil.setInProcessGit( false );
+
+        // switching to a complete checkout
+        Assert.assertEquals( expectedRevision,
+                svnUtil.checkout( log, ScmType.GIT, url, "HEAD", null, destination ) );
+        Assert.assertTrue( messages.exists() );
+        Assert.assertFalse( new File( destination, ".git/info/sparse-checkout" ).exists() );
+    }
+
+    /**
+     * Verify that the scm info of many git files can be determined at once.
+     * @throws Exception any error
+     */
+    @Test
+    public void testGitCheckFiles() throws Exception
+    {
+        SVNUtil svnUtil = new SVNUtil();
+        Log log = new NullLog();
+
+        String destination = new File( "./target/gitrepos/repo1-checkfiles" ).getCanonicalPath();
+        if ( new File( destination ).exists() )
+        {
+            FileUtils.deleteDirectory( destination );
+        }
+
+        Process unzip = Runtime.getRuntime().exec( "unzip -o repo1.zip", null,
+                new File( "./src/it/git-it/gitrepos/" ) );
+        Assert.assertEquals( 0, unzip.waitFor() );
+
+        String url = "./src/it/git-it/gitrepos/repo1/.git";
+        String expectedRevision = "f5d50077a92f9e29d704518ab2fbd9ecf7307214";
+        svnUtil.checkout( log, ScmType.GIT, url, "HEAD", null, destination );
+
+        String messages = "project-a" + File.separator + "src" + File.separator + "main" + File.separator
+                + "resources" + File.separator + "messages.properties";
+        Map<String, SVNInfo> infos = svnUtil.checkFiles( log, ScmType.GIT, destination,
+                Arrays.asList( "project-a/pom.xml", messages, "not/existing.properties" ) );
+        Assert.assertEquals( 2, infos.size() );
+        SVNInfo info = infos.get( "project-a/src/main/resources/messages.properties" );
+        Assert.assertEquals( expectedRevision, info.getRevision() );
+        Assert.assertTrue( info.getCommittedDate().startsWith( "2013-11-16 " ) );
+        Assert.assertEquals( expectedRevision, infos.get( "project-a/pom.xml" ).getRevision() );
+    }
+
+    /**
+     * Verify that the in-process git backend gives the same file information as the git executable
+     * and answers change logs and diffs from the object database.
+     * @throws Exception any error
+     */
+    @Test
+    public void testGitInProcess() throws Exception
+    {
+        SVNUtil svnUtil = new SVNUtil();
+        Log log = new NullLog();
+
+        String destination = new File( "./target/gitrepos/repo1-inprocess" ).getCanonicalPath();
+        if ( new File( destination ).exists() )
+        {
+            FileUtils.deleteDirectory( destination );
+        }
+
+        Process unzip = Runtime.getRuntime().exec( "unzip -o repo1.zip", null,
+                new File( "./src/it/git-it/gitrepos/" ) );
+        Assert.assertEquals( 0, unzip.waitFor() );
+
+        String url = "./src/it/git-it/gitrepos/repo1/.git";
+        String baseRevision = svnUtil.checkout( log, ScmType.GIT, url, "HEAD", null, destination );
+
+        String messages = "project-a/src/main/resources/messages.properties";
+        File messagesFile = new File( destination, messages );
+        FileUtils.fileAppend( messagesFile.getPath(), "added.key=Added\n" );
+        ScmCommandLine.execute( log, new File( destination ), "git", "--git-dir=" + destination + "/.git",
+                "--work-tree=" + destination, "-c", "user.name=test", "-c", "user.email=test@example.com",
+                "commit", "--quiet", "-a", "-m", "second commit" );
+        String newRevision = ScmCommandLine.execute( log, new File( destination ), "git",
+                "--git-dir=" + destination + "/.git", "rev-parse", "HEAD" ).trim();
+
+        Map<String, SVNInfo> expected = svnUtil.checkFiles( log, ScmType.GIT, destination,
+                Arrays.asList( "project-a/pom.xml", messages ) );
+        svnUtil.setInProcessGit( true );
+        Map<String, SVNInfo> infos = svnUtil.checkFiles( log, ScmType.GIT, destination,
+                Arrays.asList( "project-a/pom.xml", messages, "not/existing.properties" ) );
+        Assert.assertEquals( 2, infos.size() );
+        for ( Map.Entry<String, SVNInfo> info : expected.entrySet() )
+        {
+            Assert.assertEquals( info.getValue().getRevision(), infos.get( info.getKey() ).getRevision() );
+            Assert.assertEquals( info.getValue().getCommittedDate(), infos.get( info.getKey() ).getCommittedDate() );
+        }
+        Assert.assertEquals( newRevision, infos.get( messages ).getRevision() );
+        Assert.assertEquals( baseRevision, infos.get( "project-a/pom.xml" ).getRevision() );
+        Assert.assertEquals( baseRevision, svnUtil.checkFile( log, ScmType.GIT, url, destination,
+                "project-a/pom.xml" ).getRevision() );
+
+        SVNChangeLog changeLog = svnUtil.changeLog( log, ScmType.GIT, url, destination, baseRevision, newRevision );
+        Assert.assertEquals( Collections.singleton( messages ), changeLog.getChangedFiles() );
+        Assert.assertEquals( SVNLogChange.MODIFICATION, svnUtil.log( log, ScmType.GIT, url, destination, messages,
+                baseRevision, newRevision ) );
+        Assert.assertEquals( SVNLogChange.NONE, svnUtil.log( log, ScmType.GIT, url, destination,
+                "project-a/pom.xml", baseRevision, newRevision ) );
+
+        String diff = svnUtil.diff( log, ScmType.GIT, url, destination, messages, baseRevision, newRevision );
+        Assert.assertTrue( diff.startsWith( "Index: " + messages + "\n" ) );
+        Assert.assertTrue( diff.contains( "+added.key=Added\n" ) );
+        Assert.assertFalse( new UnifiedDiff( diff ).toString().isEmpty() );
+
+        // the repositories are opened again after they have been closed
+        svnUtil.close();
+        Assert.assertEquals( newRevision, svnUtil.checkFile( log, ScmType.GIT, url, destination, messages )
+                .getRevision() );
+        svnUtil.close();
+    }
+
+    /**
+     * Verify that a bare mirror can be created and updated and the files are read from the git objects.
+     * @throws Exception any error
+     */
+    @Test
+    public void testGitMirror() throws Exception
+    {
+        SVNUtil svnUtil = new SVNUtil();
+        Log log = new NullLog();
+
+        String destination = new File( "./target/gitrepos/repo1-mirror" ).getCanonicalPath();
+        if ( new File( destination ).exists() )
+        {
+            FileUtils.deleteDirectory( destination );
+        }
+
+        Process unzip = Runtime.getRuntime().exec( "unzip -o repo1.zip", null,
+                new File( "./src/it/git-it/gitrepos/" ) );
+        Assert.assertEquals( 0, unzip.waitFor() );
+
+        String url = "./src/it/git-it/gitrepos/repo1/.git";
+        String expectedRevision = "f5d50077a92f9e29d704518ab2fbd9ecf7307214";
+        Assert.assertEquals( expectedRevision, svnUtil.mirror( log, url, "HEAD", destination ) );
+        Assert.assertFalse( new File( destination, "project-a" ).exists() );
+        // the second time, the mirror is only updated
+        FileUtils.fileWrite( destination + "/leftover.txt", "leftover" );
+        Assert.assertEquals( expectedRevision, svnUtil.mirror( log, url, "HEAD", destination ) );
+        Assert.assertTrue( new File( destination, "leftover.txt" ).exists() );
+
+        String messages = "project-a/src/main/resources/messages.properties";
+        Assert.assertEquals( Arrays.asList( "project-a/pom.xml", messages ), svnUtil.listFiles( log, destination ) );
+
+        Map<String, byte[]> contents = svnUtil.readFiles( log, destination,
+                Arrays.asList( messages, "not/existing.properties", "project-a/pom.xml" ) );
+        Assert.assertEquals( 2, contents.size() );
+        Assert.assertEquals( FileUtils.fileRead( "./src/it/git-it/gitrepos/repo1/" + messages ),
+                new String( contents.get( messages ), "UTF-8" ) );
+        Assert.assertTrue( new String( contents.get( "project-a/pom.xml" ), "UTF-8" ).contains( "<artifactId>" ) );
+
+        Map<String, SVNInfo> infos = svnUtil.checkFiles( log, ScmType.GIT, destination,
+                Collections.singleton( messages ) );
+        Assert.assertEquals( expectedRevision, infos.get( messages ).getRevision() );
+    }
 }
@@ -0,0 +1,91 @@
+package net.sf.yal10n.svn;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link SparseCheckout}.
+ */
+public class SparseCheckoutTest
+{
+    /**
+     * Only the matching files and all poms are needed.
+     */
+    @Test
+    public void testIsNeeded()
+    {
+        SparseCheckout sparse = new SparseCheckout( Arrays.asList( "**/src/main/resources/*.properties" ),
+                Arrays.asList( "**/log4j.properties", "test/" ) );
+
+        Assert.assertTrue( sparse.isNeeded( "project-a/src/main/resources/messages.properties" ) );
+        Assert.assertTrue( sparse.isNeeded( "project-a/src/main/resources/messages_de.properties" ) );
+        Assert.assertTrue( sparse.isNeeded( "pom.xml" ) );
+        Assert.assertTrue( sparse.isNeeded( "project-a/pom.xml" ) );
+        Assert.assertTrue( sparse.isNeeded( "test/pom.xml" ) );
+        Assert.assertFalse( sparse.isNeeded( "project-a/src/main/resources/log4j.properties" ) );
+        Assert.assertFalse( sparse.isNeeded( "project-a/src/main/java/Foo.java" ) );
+        Assert.assertFalse( sparse.isNeeded( "test/src/main/resources/messages.properties" ) );
+        Assert.assertFalse( sparse.isNeeded( "project-a/pom.xml.bak" ) );
+    }
+
+    /**
+     * Without include patterns, everything is needed.
+     */
+    @Test
+    public void testNoIncludes()
+    {
+        SparseCheckout sparse = new SparseCheckout( Collections.<String>emptyList(),
+                Collections.<String>emptyList() );
+        Assert.assertTrue( sparse.isNeeded( "project-a/src/main/java/Foo.java" ) );
+        Assert.assertEquals( Arrays.asList( "/**", "pom.xml" ), sparse.toGitPatterns() );
+    }
+
+    /**
+     * The ant-style patterns are anchored at the repository root.
+     */
+    @Test
+    public void testToGitPatterns()
+    {
+        SparseCheckout sparse = new SparseCheckout( Arrays.asList( "**/*.properties" ),
+                Arrays.asList( "test/" ) );
+        Assert.assertEquals( Arrays.asList( "/**/*.properties", "!/test/**", "pom.xml" ), sparse.toGitPatterns() );
+    }
+
+    /**
+     * Regular expressions are matched like by the DirectoryScanner. As git can't express them,
+     * a regular expression as include checks out all files and a regular expression as exclude is
+     * left out.
+     */
+    @Test
+    public void testRegexPatterns()
+    {
+        SparseCheckout sparse = new SparseCheckout( Arrays.asList( "%regex[.*/messages(_\\w+)?\\.properties]" ),
+                Arrays.asList( "%regex[test/.*]", "%ant[old/]" ) );
+        Assert.assertTrue( sparse.isNeeded( "project-a/src/main/resources/messages_de.properties" ) );
+        Assert.assertFalse( sparse.isNeeded( "project-a/src/main/resources/messages.xml" ) );
+        Assert.assertFalse( sparse.isNeeded( "test/src/main/resources/messages.properties" ) );
+        Assert.assertFalse( sparse.isNeeded( "old/src/main/resources/messages.properties" ) );
+        Assert.assertEquals( Arrays.asList( "/**", "!/old/**", "pom.xml" ), sparse.toGitPatterns() );
+
+        sparse = new SparseCheckout( Arrays.asList( "**/*.properties" ), Arrays.asList( "%regex[test/.*]" ) );
+        Assert.assertFalse( sparse.isNeeded( "test/messages.properties" ) );
+        Assert.assertEquals( Arrays.asList( "/**/*.properties", "pom.xml" ), sparse.toGitPatterns() );
+    }
+}